@@ -0,0 +1,163 @@
+package io.github.coffee330501;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SignatureResult编解码
+ * decodeDoubleConversion 为原post的处理方式：解析为SignatureResult&lt;Object&gt;后再序列化、再解析为目标类型
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CodecBenchmark {
+    private static final TypeReference<List<Item>> ITEM_LIST = new TypeReference<List<Item>>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    int size;
+
+    private SignatureResult<List<Item>> result;
+    private String json;
+    private byte[] bytes;
+    private SignatureResultDecoder.DataReader typedReader;
+    private SignatureResultDecoder.DataReader lenientReader;
+
+    @Setup
+    public void setup() {
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Item item = new Item();
+            item.setId(i);
+            item.setName("user-" + i);
+            item.setEmail("user-" + i + "@example.com");
+            item.setBalance(i * 100L);
+            item.setEnabled(i % 2 == 0);
+            items.add(item);
+        }
+        result = new SignatureResult<>();
+        result.setCode(200);
+        result.setMsg("success");
+        result.setData(items);
+        json = JSON.toJSONString(result);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+        typedReader = SignatureResultDecoder.typed(ITEM_LIST.getType());
+        lenientReader = SignatureResultDecoder.lenient(Item.class);
+    }
+
+    @Benchmark
+    public String encodeString() {
+        return JSON.toJSONString(result);
+    }
+
+    @Benchmark
+    public byte[] encodeBytes() {
+        return JSON.toJSONBytes(result);
+    }
+
+    @Benchmark
+    public Object decodeDoubleConversion() {
+        SignatureResult signatureResult = JSONObject.parseObject(json, new TypeReference<SignatureResult>() {
+        });
+        Object data = signatureResult.getData();
+        if (data instanceof JSONArray) {
+            return JSONArray.parseArray(JSONObject.toJSONString(data), Item.class);
+        }
+        return JSONObject.parseObject(JSONObject.toJSONString(data), Item.class);
+    }
+
+    @Benchmark
+    public Object decodeTyped() {
+        try (JSONReader jsonReader = JSONReader.of(json)) {
+            return SignatureResultDecoder.decode(jsonReader, typedReader).getData();
+        }
+    }
+
+    @Benchmark
+    public Object decodeLenient() {
+        try (JSONReader jsonReader = JSONReader.of(json)) {
+            return SignatureResultDecoder.decode(jsonReader, lenientReader).getData();
+        }
+    }
+
+    @Benchmark
+    public Object decodeTypedStream() throws IOException {
+        try (InputStream inputStream = new ByteArrayInputStream(bytes);
+             JSONReader jsonReader = JSONReader.of(inputStream, StandardCharsets.UTF_8)) {
+            return SignatureResultDecoder.decode(jsonReader, typedReader).getData();
+        }
+    }
+
+    public static class Item {
+        private long id;
+        private String name;
+        private String email;
+        private long balance;
+        private boolean enabled;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+
+        public void setBalance(long balance) {
+            this.balance = balance;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
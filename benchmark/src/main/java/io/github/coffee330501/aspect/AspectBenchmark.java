@@ -0,0 +1,190 @@
+package io.github.coffee330501.aspect;
+
+import io.github.coffee330501.benchmark.BenchmarkSupport;
+import io.github.coffee330501.collapse.InternalCallCollapser;
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.handler.InternalHandlerRegistry;
+import io.github.coffee330501.limit.InternalCallLimiter;
+import io.github.coffee330501.metrics.InternalCallMetrics;
+import io.github.coffee330501.nonce.MemoryNonceStore;
+import io.github.coffee330501.service.InternalCallLogDispatcher;
+import io.github.coffee330501.service.InternalCallLogHandler;
+import io.github.coffee330501.service.LogPolicy;
+import io.github.coffee330501.signature.InternalCallVerifier;
+import io.github.coffee330501.signature.KeyRegistry;
+import io.github.coffee330501.signature.SessionManager;
+import io.github.coffee330501.signature.SessionTicket;
+import io.github.coffee330501.utils.HmacUtils;
+import io.github.coffee330501.utils.RSAUtils;
+import io.github.coffee330501.utils.SignatureUtil;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 被调用方完整切面流程：读取请求头、验签、重复请求检查、调用方法、包装结果、记录日志与统计
+ * verified：请求已标记为验签通过（批量调用分发），只测切面本身的开销
+ * session：每次调用生成新的请求ID并以会话密钥HMAC签名，包含验签与内存重复请求检查
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AspectBenchmark {
+    @Param({"verified", "session"})
+    String mode;
+    @Param({"false", "true"})
+    boolean logging;
+
+    private InternalCallAspect aspect;
+    private final Map<String, String> headers = new HashMap<>();
+    private ProceedingJoinPoint joinPoint;
+    private SecretKeySpec sessionKey;
+    private long sequence;
+
+    @Setup
+    public void setup() throws Exception {
+        InternalCallConfig config = new InternalCallConfig();
+        Map<String, String> keys = RSAUtils.createKeys();
+        config.setPrivateKey(keys.get("privateKey"));
+        config.setPublicKey(keys.get("publicKey"));
+
+        KeyRegistry keyRegistry = new KeyRegistry();
+        BenchmarkSupport.inject(keyRegistry, "internalCallConfig", config);
+        keyRegistry.init();
+        SessionManager sessionManager = new SessionManager();
+        BenchmarkSupport.inject(sessionManager, "internalCallConfig", config);
+        BenchmarkSupport.inject(sessionManager, "keyRegistry", keyRegistry);
+        SessionTicket ticket = sessionManager.create(null);
+        sessionKey = HmacUtils.createKey(Base64.getDecoder().decode(keyRegistry.decrypt(ticket.getSecret())));
+
+        InternalCallLogDispatcher logDispatcher = new InternalCallLogDispatcher();
+        BenchmarkSupport.inject(logDispatcher, "internalCallConfig", config);
+        logDispatcher.init();
+        if (logging) {
+            BenchmarkSupport.inject(logDispatcher, "handler", new InternalCallLogHandler() {
+                @Override
+                public void log(Map<String, Object> map) {
+                }
+            });
+            BenchmarkSupport.inject(logDispatcher, "defaultPolicy", LogPolicy.FULL);
+        }
+        InternalCallMetrics metrics = new InternalCallMetrics();
+        BenchmarkSupport.inject(metrics, "internalCallConfig", config);
+        metrics.init();
+
+        InternalCallVerifier verifier = new InternalCallVerifier();
+        BenchmarkSupport.inject(verifier, "nonceStore", new MemoryNonceStore());
+        BenchmarkSupport.inject(verifier, "keyRegistry", keyRegistry);
+        BenchmarkSupport.inject(verifier, "sessionManager", sessionManager);
+
+        InternalCallLimiter limiter = new InternalCallLimiter();
+        BenchmarkSupport.inject(limiter, "internalCallConfig", config);
+        limiter.init();
+
+        aspect = new InternalCallAspect();
+        aspect.internalCallConfig = config;
+        aspect.internalCallVerifier = verifier;
+        aspect.internalCallLogDispatcher = logDispatcher;
+        aspect.internalCallMetrics = metrics;
+        aspect.internalHandlerRegistry = new InternalHandlerRegistry();
+        aspect.internalCallLimiter = limiter;
+        aspect.internalCallCollapser = new InternalCallCollapser();
+
+        HttpServletRequest request = BenchmarkSupport.request(HttpServletRequest.class, "/user/get", headers);
+        if ("verified".equals(mode)) SignatureUtil.markVerified(request);
+        headers.put(SessionManager.SESSION_HEADER, ticket.getSessionId());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Map<String, Object> param = new HashMap<>();
+        param.put("userId", 10086);
+        joinPoint = joinPoint(new UserController(), UserController.class.getMethod("get", Map.class), new Object[]{param});
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object internalCallAround() throws Throwable {
+        String requestId = "benchmark-" + (++sequence);
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        headers.put("requestId", requestId);
+        headers.put("timestamp", timestamp);
+        headers.put("sign", HmacUtils.sign("requestId=" + requestId + "&timestamp=" + timestamp, sessionKey));
+        return aspect.internalCallAround(joinPoint);
+    }
+
+    private static ProceedingJoinPoint joinPoint(Object target, Method method, Object[] args) {
+        ClassLoader classLoader = AspectBenchmark.class.getClassLoader();
+        MethodSignature signature = (MethodSignature) Proxy.newProxyInstance(classLoader, new Class[]{MethodSignature.class},
+                (proxy, m, a) -> {
+                    switch (m.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getName":
+                            return method.getName();
+                        case "getDeclaringType":
+                            return method.getDeclaringClass();
+                        case "getDeclaringTypeName":
+                            return method.getDeclaringClass().getName();
+                        case "getReturnType":
+                            return method.getReturnType();
+                        case "getParameterTypes":
+                            return method.getParameterTypes();
+                        default:
+                            return BenchmarkSupport.defaultValue(m.getReturnType());
+                    }
+                });
+        return (ProceedingJoinPoint) Proxy.newProxyInstance(classLoader, new Class[]{ProceedingJoinPoint.class},
+                (proxy, m, a) -> {
+                    switch (m.getName()) {
+                        case "getSignature":
+                            return signature;
+                        case "getArgs":
+                            return args.clone();
+                        case "getTarget":
+                        case "getThis":
+                            return target;
+                        case "proceed":
+                            return method.invoke(target, a == null ? args : (Object[]) a[0]);
+                        default:
+                            return BenchmarkSupport.defaultValue(m.getReturnType());
+                    }
+                });
+    }
+
+    public static class UserController {
+        public Map<String, Object> get(Map<String, Object> param) {
+            Map<String, Object> user = new HashMap<>();
+            user.put("id", param.get("userId"));
+            user.put("name", "benchmark");
+            return user;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.coffee330501.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基准测试辅助：注入Spring管理的字段、构造请求替身
+ */
+public final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 为@Resource等由Spring注入的字段赋值
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass());
+    }
+
+    /**
+     * 只支持header、attribute与URI的HttpServletRequest替身
+     */
+    public static <T> T request(Class<T> requestType, String uri, Map<String, String> headers) {
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        Object proxy = Proxy.newProxyInstance(requestType.getClassLoader(), new Class[]{requestType}, (p, method, args) -> {
+            switch (method.getName()) {
+                case "getHeader":
+                    return headers.get((String) args[0]);
+                case "getRequestURI":
+                    return uri;
+                case "getMethod":
+                    return "POST";
+                case "getAttribute":
+                    return attributes.get((String) args[0]);
+                case "setAttribute":
+                    if (args[1] == null) attributes.remove((String) args[0]);
+                    else attributes.put((String) args[0], args[1]);
+                    return null;
+                case "removeAttribute":
+                    attributes.remove((String) args[0]);
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "equals":
+                    return p == args[0];
+                case "toString":
+                    return "BenchmarkRequest" + uri;
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+        return requestType.cast(proxy);
+    }
+
+    public static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        if (type == double.class) return 0d;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return (char) 0;
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.coffee330501.service;
+
+import io.github.coffee330501.config.LogConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次调用的日志记录：填充LogBuilder并生成交给InternalCallLogHandler的Map
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LogBuilderBenchmark {
+    private final LogPolicy sampledOut = new LogPolicy(0, true, LogConfig.Payload.FULL, 0);
+    private final LogPolicy truncated = new LogPolicy(1, true, LogConfig.Payload.TRUNCATED, 256);
+    private final LogPolicy payloadOff = new LogPolicy(1, true, LogConfig.Payload.OFF, 0);
+    private Object[] params;
+    private Object result;
+    private Map<String, String> internalInfo;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> param = new HashMap<>();
+        param.put("userId", 10086);
+        param.put("name", "benchmark");
+        params = new Object[]{param};
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("name", "row-" + i);
+            rows.add(row);
+        }
+        result = rows;
+        internalInfo = new HashMap<>();
+        internalInfo.put("userId", "10086");
+    }
+
+    @Benchmark
+    public Map<String, Object> full() {
+        return fill(InternalCallLogHandler.createLogBuilder(LogPolicy.FULL)).getMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> truncatedPayload() {
+        return fill(InternalCallLogHandler.createLogBuilder(truncated)).getMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> payloadOff() {
+        return fill(InternalCallLogHandler.createLogBuilder(payloadOff)).getMap();
+    }
+
+    /**
+     * 未被采样且未出错，不生成Map
+     */
+    @Benchmark
+    public boolean sampledOut() {
+        return fill(InternalCallLogHandler.createLogBuilder(sampledOut)).isLoggable();
+    }
+
+    private InternalCallLogHandler.LogBuilder fill(InternalCallLogHandler.LogBuilder logBuilder) {
+        return logBuilder.add("requestId", "1f0e3dad-9990-4a3a-b4a4-7f4e6c1d2b3c")
+                .add("timestampStr", "1700000000000")
+                .add("uri", "/user/get")
+                .add("methodName", "io.github.coffee330501.UserController.get")
+                .add("params", params)
+                .add("type", "receive")
+                .add("internalInfo", internalInfo)
+                .add("result", result);
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.coffee330501.signature;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内置签名算法对比：RSA-2048、Ed25519、ECDSA P-256
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SignatureAlgorithmBenchmark {
+    @Param({"RSA", "ED25519", "ECDSA"})
+    String algorithmName;
+
+    private SignatureAlgorithm algorithm;
+    private PrivateKey privateKey;
+    private PublicKey publicKey;
+    private String content;
+    private String sign;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        if (RsaSignatureAlgorithm.NAME.equals(algorithmName)) algorithm = new RsaSignatureAlgorithm();
+        else if (Ed25519SignatureAlgorithm.NAME.equals(algorithmName)) algorithm = new Ed25519SignatureAlgorithm();
+        else algorithm = new EcdsaSignatureAlgorithm();
+        Map<String, String> keys = algorithm.createKeys();
+        privateKey = algorithm.getPrivateKey(keys.get("privateKey"));
+        publicKey = algorithm.getPublicKey(keys.get("publicKey"));
+        content = "requestId=1f0e3dad-9990-4a3a-b4a4-7f4e6c1d2b3c&timestamp=" + System.currentTimeMillis();
+        sign = algorithm.sign(content, privateKey);
+    }
+
+    @Benchmark
+    public String sign() throws GeneralSecurityException {
+        return algorithm.sign(content, privateKey);
+    }
+
+    @Benchmark
+    public boolean verify() throws GeneralSecurityException {
+        return algorithm.verify(content, sign, publicKey);
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.coffee330501.utils;
+
+import io.github.coffee330501.benchmark.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RedisUtil.setNx 客户端开销（序列化、脚本调用、管道），Redis由进程内替身代替，不含网络往返
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RedisUtilBenchmark {
+    private static final int BATCH = 32;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private StandInRedis redis;
+    private RedisUtil redisUtil;
+
+    @Setup
+    public void setup() {
+        redis = new StandInRedis();
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redis.connectionFactory());
+        redisTemplate.afterPropertiesSet();
+        redisUtil = new RedisUtil();
+        BenchmarkSupport.inject(redisUtil, "redisTemplate", redisTemplate);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        redis.clear();
+    }
+
+    @Benchmark
+    public boolean setNx() {
+        return redisUtil.setNx("request-" + sequence.incrementAndGet(), 10);
+    }
+
+    /**
+     * 32个请求ID一次管道，结果按单个请求ID计
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean[] setNxPipelined() {
+        List<String> keys = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) keys.add("request-" + sequence.incrementAndGet());
+        return redisUtil.setNx(keys, 10);
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.coffee330501.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RSAUtils签名、验签，分别使用字符串密钥（经解析缓存）与已解析的密钥
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SignatureBenchmark {
+    private static final SecretKeySpec HMAC_KEY = HmacUtils.createKey(new byte[32]);
+
+    @Param({"1024", "2048", "3072", "4096"})
+    int keySize;
+
+    private String privateKey;
+    private String publicKey;
+    private PrivateKey parsedPrivateKey;
+    private PublicKey parsedPublicKey;
+    private String content;
+    private String sign;
+
+    @Setup
+    public void setup() throws Exception {
+        Map<String, String> keys = RSAUtils.createKeys(keySize);
+        privateKey = keys.get("privateKey");
+        publicKey = keys.get("publicKey");
+        parsedPrivateKey = RSAUtils.getPrivateKey(privateKey);
+        parsedPublicKey = RSAUtils.getPublicKey(publicKey);
+        content = "requestId=1f0e3dad-9990-4a3a-b4a4-7f4e6c1d2b3c&timestamp=" + System.currentTimeMillis();
+        sign = RSAUtils.signByPrivateKey(content, privateKey);
+    }
+
+    @Benchmark
+    public String signByPrivateKey() {
+        return RSAUtils.signByPrivateKey(content, privateKey);
+    }
+
+    @Benchmark
+    public String signByParsedPrivateKey() {
+        return RSAUtils.signByPrivateKey(content, parsedPrivateKey);
+    }
+
+    @Benchmark
+    public boolean verifySignByPublicKey() {
+        return RSAUtils.verifySignByPublicKey(content, sign, publicKey);
+    }
+
+    @Benchmark
+    public boolean verifySignByParsedPublicKey() {
+        return RSAUtils.verifySignByPublicKey(content, sign, parsedPublicKey);
+    }
+
+    @Benchmark
+    public String hmacSign() {
+        return HmacUtils.sign(content, HMAC_KEY);
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.coffee330501.utils;
+
+import io.github.coffee330501.benchmark.BenchmarkSupport;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内Redis替身，只实现RedisUtil使用的 SET NX EX 脚本与管道，用于测量客户端一侧的开销
+ */
+class StandInRedis {
+    private final Map<ByteBuffer, Long> keys = new ConcurrentHashMap<>();
+
+    RedisConnectionFactory connectionFactory() {
+        return (RedisConnectionFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{RedisConnectionFactory.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConnection":
+                            return connection();
+                        case "getConvertPipelineAndTxResults":
+                            return true;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return BenchmarkSupport.defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private RedisConnection connection() {
+        List<Object> pipelineResults = new ArrayList<>();
+        boolean[] pipelined = new boolean[1];
+        return (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{RedisConnection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "eval":
+                            Long result = setNxEx(args);
+                            if (!pipelined[0]) return result;
+                            pipelineResults.add(result);
+                            return null;
+                        case "openPipeline":
+                            pipelined[0] = true;
+                            return null;
+                        case "isPipelined":
+                            return pipelined[0];
+                        case "closePipeline":
+                            pipelined[0] = false;
+                            List<Object> results = new ArrayList<>(pipelineResults);
+                            pipelineResults.clear();
+                            return results;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return BenchmarkSupport.defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * eval(script, returnType, numKeys, key, value, expireSeconds)
+     */
+    private Long setNxEx(Object[] args) {
+        byte[][] keysAndArgs = (byte[][]) args[3];
+        ByteBuffer key = ByteBuffer.wrap(keysAndArgs[0]);
+        long expireSeconds = Long.parseLong(new String(keysAndArgs[2]));
+        long now = System.nanoTime();
+        long expireAt = now + TimeUnit.SECONDS.toNanos(expireSeconds);
+        Long previous = keys.putIfAbsent(key, expireAt);
+        if (previous == null) return 1L;
+        if (previous - now < 0 && keys.replace(key, previous, expireAt)) return 1L;
+        return 0L;
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    void clear() {
+        keys.clear();
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.coffee330501;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量调用中的单个调用
+ */
+@Data
+public class BatchCall implements Serializable {
+    /**
+     * 目标接口路径，如 /user/get
+     */
+    String path;
+    /**
+     * 请求参数，作为目标方法的@RequestBody
+     */
+    Object params;
+
+    public BatchCall() {
+    }
+
+    public BatchCall(String path, Object params) {
+        this.path = path;
+        this.params = params;
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.coffee330501;
+
+import io.github.coffee330501.compression.Compression;
+import io.github.coffee330501.compression.DeflatingOutputStream;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 压缩后的请求参数实体（JSON或JSONB），发送时直接压缩写入连接输出流
+ * 长度未知，以chunked方式发送；异步客户端通过getContent读取时压缩为字节数组
+ */
+class CompressedEntity extends AbstractHttpEntity {
+    private final byte[] body;
+    private final String encoding;
+    private final int level;
+
+    CompressedEntity(byte[] body, ContentType contentType, String encoding, int level) {
+        this.body = body;
+        this.encoding = encoding;
+        this.level = level;
+        setContentType(contentType.toString());
+        setContentEncoding(encoding);
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4);
+        writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DeflatingOutputStream deflating = Compression.compress(outputStream, encoding, level);
+        try {
+            deflating.write(body, 0, body.length);
+            deflating.finish();
+        } finally {
+            deflating.abort();
+        }
+        outputStream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
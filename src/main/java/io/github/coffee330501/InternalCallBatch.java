@@ -0,0 +1,52 @@
+package io.github.coffee330501;
+
+import io.github.coffee330501.exception.InternalCallException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量内部调用
+ * 多个对同一服务的调用合并为一次签名请求，由服务端批量调用接口分发
+ * <pre>
+ * List&lt;SignatureResult&lt;Object&gt;&gt; results = internalCallService.batch("http://user-service/internal-call/batch")
+ *         .add("/user/get", UserDTO.class, query)
+ *         .add("/dict/list", DictDTO.class)
+ *         .execute();
+ * </pre>
+ */
+public class InternalCallBatch {
+    private final InternalCallService internalCallService;
+    private final String url;
+    private final List<BatchCall> calls = new ArrayList<>();
+    private final List<Class> types = new ArrayList<>();
+
+    InternalCallBatch(InternalCallService internalCallService, String url) {
+        this.internalCallService = internalCallService;
+        this.url = url;
+    }
+
+    public InternalCallBatch add(String path, Class clazz) {
+        return add(path, clazz, new Object());
+    }
+
+    public InternalCallBatch add(String path, Class clazz, Object params) {
+        calls.add(new BatchCall(path, params));
+        types.add(clazz);
+        return this;
+    }
+
+    public int size() {
+        return calls.size();
+    }
+
+    /**
+     * 执行批量调用
+     *
+     * @return 与添加顺序一致的调用结果，data已转换为对应类型，单个调用失败不影响其他调用
+     * @throws InternalCallException 批量请求本身失败（如验签失败）
+     */
+    public List<SignatureResult<Object>> execute() throws InternalCallException {
+        return internalCallService.executeBatch(url, calls, types);
+    }
+}
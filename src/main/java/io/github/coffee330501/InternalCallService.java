@@ -1,41 +1,266 @@
 package io.github.coffee330501;
 
 import cn.hutool.core.util.IdUtil;
-import com.alibaba.fastjson2.JSONArray;
-import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
 import com.alibaba.fastjson2.TypeReference;
+import io.github.coffee330501.cache.CacheEntry;
+import io.github.coffee330501.cache.CacheKey;
+import io.github.coffee330501.cache.CachePolicy;
+import io.github.coffee330501.cache.InternalCallCache;
+import io.github.coffee330501.compression.Compression;
+import io.github.coffee330501.config.CompressionConfig;
 import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.converter.JSONBHttpMessageConverter;
 import io.github.coffee330501.exception.InternalCallException;
+import io.github.coffee330501.loadbalance.InternalCallLoadBalancer;
+import io.github.coffee330501.loadbalance.ServiceInstance;
+import io.github.coffee330501.metrics.EndpointMetrics;
+import io.github.coffee330501.metrics.InternalCallMetrics;
+import io.github.coffee330501.metrics.Outcome;
+import io.github.coffee330501.metrics.Phase;
+import io.github.coffee330501.resilience.CircuitBreaker;
+import io.github.coffee330501.resilience.HedgedCall;
+import io.github.coffee330501.resilience.InternalCallResilience;
+import io.github.coffee330501.resilience.ResiliencePolicy;
 import io.github.coffee330501.service.AbstractInformationTransmitter;
+import io.github.coffee330501.service.InternalCallLogDispatcher;
 import io.github.coffee330501.service.InternalCallLogHandler;
-import io.github.coffee330501.utils.RSAUtils;
+import io.github.coffee330501.signature.InformationTokenManager;
+import io.github.coffee330501.signature.InternalCallSession;
+import io.github.coffee330501.signature.KeyRegistry;
+import io.github.coffee330501.signature.SessionClient;
+import io.github.coffee330501.signature.SessionManager;
+import io.github.coffee330501.signature.SessionTicket;
+import io.github.coffee330501.utils.HmacUtils;
+import io.github.coffee330501.utils.InternalCallContext;
 import io.github.coffee330501.utils.SpringContextUtil;
+import io.github.coffee330501.config.HttpClientConfig;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
+import org.springframework.util.StreamUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class InternalCallService {
+    private static final String HTTP_FAILED = "请求失败";
+    private static final String CIRCUIT_OPEN = "Circuit breaker is open";
+    private static final int MAX_ORIGINS = 1024;
+    private static final int MAX_URLS = 4096;
+    private static final ContentType APPLICATION_JSONB = ContentType.create(JSONBHttpMessageConverter.APPLICATION_JSONB_VALUE);
+    private static final String ACCEPT_JSONB = JSONBHttpMessageConverter.APPLICATION_JSONB_VALUE + ", application/json;q=0.9";
+
     @Resource
     InternalCallConfig internalCallConfig;
+    @Resource
+    KeyRegistry keyRegistry;
+    @Resource
+    InformationTokenManager informationTokenManager;
     AbstractInformationTransmitter informationTransmitter;
-    InternalCallLogHandler internalCallLogHandler;
+    @Resource
+    InternalCallLogDispatcher internalCallLogDispatcher;
+    @Resource
+    InternalCallMetrics internalCallMetrics;
+    @Resource
+    InternalCallResilience internalCallResilience;
+    @Resource
+    InternalCallLoadBalancer internalCallLoadBalancer;
+    @Resource
+    InternalCallCache internalCallCache;
+    PoolingHttpClientConnectionManager connectionManager;
+    CloseableHttpClient httpClient;
+    volatile CloseableHttpAsyncClient asyncHttpClient;
+    /**
+     * 异步调用的重试，重试需要签名、可能握手，不在IO线程上发起
+     */
+    volatile ExecutorService retryExecutor;
+    SessionClient sessionClient;
+    /**
+     * 被调用方声明可解压的请求体编码，按 scheme://host:port 记录
+     */
+    final Map<String, String> requestEncodings = new ConcurrentHashMap<>();
+    /**
+     * 以JSONB响应过的被调用方，请求体也使用JSONB
+     */
+    final Set<String> jsonbOrigins = ConcurrentHashMap.newKeySet();
+    /**
+     * 各调用地址上次的JSON请求体大小（压缩前）
+     */
+    final Map<String, Integer> requestSizes = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void init() {
-        internalCallLogHandler = SpringContextUtil.getBean(InternalCallLogHandler.class);
         informationTransmitter = SpringContextUtil.getBean(AbstractInformationTransmitter.class);
+        createHttpClient(internalCallConfig.getHttp());
+        // 握手请求本身使用RSA签名
+        sessionClient = new SessionClient(internalCallConfig.getSession(), keyRegistry,
+                url -> (SessionTicket) doPost(url, url, SignatureResultDecoder.typed(SessionTicket.class), new Object(), false, null));
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (httpClient != null) httpClient.close();
+        if (asyncHttpClient != null) asyncHttpClient.close();
+        if (retryExecutor != null) retryExecutor.shutdownNow();
+    }
+
+    /**
+     * 创建共享的连接池客户端，所有内部调用复用连接
+     */
+    private void createHttpClient(HttpClientConfig config) {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(config.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig(config))
+                .setKeepAliveStrategy(keepAliveStrategy(config))
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getMaxIdleTime(), TimeUnit.MILLISECONDS);
+        // 开启压缩时自行协商与解压
+        if (internalCallConfig.getCompression().isEnabled()) builder.disableContentCompression();
+        httpClient = builder.build();
+    }
+
+    /**
+     * 获取异步客户端，首次使用时创建，未使用异步调用时不启动IO线程
+     */
+    private CloseableHttpAsyncClient getAsyncHttpClient() {
+        CloseableHttpAsyncClient client = asyncHttpClient;
+        if (client != null) return client;
+        synchronized (this) {
+            if (asyncHttpClient == null) {
+                HttpClientConfig config = internalCallConfig.getHttp();
+                IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                        .setIoThreadCount(config.getIoThreads())
+                        .setConnectTimeout(config.getConnectTimeout())
+                        .setSoTimeout(config.getReadTimeout())
+                        .setSoKeepAlive(true)
+                        .build();
+                CloseableHttpAsyncClient newClient = HttpAsyncClients.custom()
+                        .setDefaultIOReactorConfig(ioReactorConfig)
+                        .setDefaultRequestConfig(requestConfig(config))
+                        .setMaxConnTotal(config.getMaxTotal())
+                        .setMaxConnPerRoute(config.getMaxPerRoute())
+                        .setKeepAliveStrategy(keepAliveStrategy(config))
+                        .build();
+                newClient.start();
+                asyncHttpClient = newClient;
+            }
+            return asyncHttpClient;
+        }
+    }
+
+    /**
+     * 获取重试线程池，首次重试时创建
+     */
+    private ExecutorService getRetryExecutor() {
+        ExecutorService executor = retryExecutor;
+        if (executor != null) return executor;
+        synchronized (this) {
+            if (retryExecutor == null) {
+                int threads = Runtime.getRuntime().availableProcessors();
+                ThreadPoolExecutor newExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "internal-call-retry");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                newExecutor.allowCoreThreadTimeOut(true);
+                retryExecutor = newExecutor;
+            }
+            return retryExecutor;
+        }
+    }
+
+    /**
+     * 连接、读取、获取连接超时
+     */
+    private RequestConfig requestConfig(HttpClientConfig config) {
+        return RequestConfig.custom()
+                .setConnectTimeout(config.getConnectTimeout())
+                .setSocketTimeout(config.getReadTimeout())
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeout())
+                .build();
+    }
+
+    /**
+     * 服务端未声明Keep-Alive时使用配置的保活时间
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy(HttpClientConfig config) {
+        return (response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? keepAlive : config.getKeepAlive();
+        };
+    }
+
+    /**
+     * 连接池整体统计（leased、available、pending、max）
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * 按路由（目标host）的连接池统计
+     */
+    public Map<String, PoolStats> getRoutePoolStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            HttpHost target = route.getTargetHost();
+            stats.put(target.toURI(), connectionManager.getStats(route));
+        }
+        return stats;
     }
 
 
@@ -43,46 +268,622 @@ public class InternalCallService {
         return post(url, clazz, new Object());
     }
 
+    /**
+     * 返回数据为数组时转换为List&lt;clazz&gt;，否则转换为clazz
+     */
     public Object post(String url, Class clazz, Object params) throws InternalCallException {
-        InternalCallLogHandler.LogBuilder logBuilder = InternalCallLogHandler.createLogBuilder();
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
-            HttpEntityEnclosingRequestBase requestBase = new HttpPost(url);
-            // 签名
-            String requestId = this.sign(requestBase);
-            // 记录日志
-            log(logBuilder, url, params, requestId);
-            // 参数
-            String paramStr = JSONObject.toJSONString(params);
-            StringEntity stringEntity = new StringEntity(paramStr, ContentType.APPLICATION_JSON);
-            requestBase.setEntity(stringEntity);
-            // 发起请求
-            HttpResponse response = client.execute(requestBase);
-            // 处理结果
-            String resultStr = EntityUtils.toString(response.getEntity());
-            if (response.getStatusLine().getStatusCode() != 200) {
-                throw new InternalCallException(400, "请求失败");
-            }
-            SignatureResult signatureResult = JSONObject.parseObject(resultStr, new TypeReference<SignatureResult>() {
-            });
+        return execute(url, SignatureResultDecoder.lenient(clazz), params);
+    }
+
+    public <T> T postForObject(String url, Class<T> clazz) {
+        return postForObject(url, clazz, new Object());
+    }
+
+    /**
+     * 返回数据直接解码为clazz
+     */
+    public <T> T postForObject(String url, Class<T> clazz, Object params) throws InternalCallException {
+        return (T) execute(url, SignatureResultDecoder.typed(clazz), params);
+    }
 
-            // 处理异常
-            logBuilder.add("code", signatureResult.getCode());
-            logBuilder.add("msg", signatureResult.getMsg());
-            handleInternalCallException(signatureResult);
+    public <T> T post(String url, TypeReference<T> type) {
+        return post(url, type, new Object());
+    }
+
+    /**
+     * 返回数据直接解码为泛型类型，如 new TypeReference&lt;List&lt;User&gt;&gt;(){}
+     */
+    public <T> T post(String url, TypeReference<T> type, Object params) throws InternalCallException {
+        return (T) execute(url, SignatureResultDecoder.typed(type.getType()), params);
+    }
+
+    public <T> T post(String url, Type type) {
+        return post(url, type, new Object());
+    }
+
+    /**
+     * 返回数据直接解码为type
+     */
+    public <T> T post(String url, Type type, Object params) throws InternalCallException {
+        return (T) execute(url, SignatureResultDecoder.typed(type), params);
+    }
+
+    /**
+     * 目标地址开启缓存时优先返回缓存的结果，旧结果在后台刷新
+     */
+    private Object execute(String url, SignatureResultDecoder.DataReader dataReader, Object params) throws InternalCallException {
+        CachePolicy cachePolicy = internalCallCache.policy(url);
+        if (cachePolicy == null) return executeResilient(url, dataReader, params);
+        CacheKey key = internalCallCache.key(url, dataReader, params, information(), cachePolicy);
+        CacheEntry entry = internalCallCache.get(key);
+        if (entry != null) {
+            revalidate(url, dataReader, params, cachePolicy, key, entry);
+            return entry.getValue();
+        }
+        Object data = executeResilient(url, dataReader, params);
+        internalCallCache.put(key, data, cachePolicy);
+        return data;
+    }
+
+    /**
+     * 按目标地址的策略对冲或熔断，未开启时直接调用
+     */
+    private Object executeResilient(String url, SignatureResultDecoder.DataReader dataReader, Object params) throws InternalCallException {
+        ResiliencePolicy policy = internalCallResilience.policy(url);
+        if (policy.isNone()) return executeOnce(url, dataReader, params, null);
+        // 对冲需要同时发起两次请求，改用异步客户端
+        if (policy.isHedge()) return join(executeAsyncResilient(url, dataReader, params));
+        CircuitBreaker breaker = internalCallResilience.breaker(url, policy);
+        if (breaker == null) return executeOnce(url, dataReader, params, null);
+
+        CircuitBreaker.State state = acquire(url, breaker);
+        long start = System.nanoTime();
+        try {
+            Object data = executeOnce(url, dataReader, params, circuitDecision(state));
+            breaker.onResult(state, false, System.nanoTime() - start);
+            return data;
+        } catch (RuntimeException e) {
+            breaker.onResult(state, isFailure(e), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * 调用地址的host为已配置的服务名时按负载均衡选择实例，实例并发达到上限（429）时换一个实例重试一次
+     */
+    private Object executeOnce(String url, SignatureResultDecoder.DataReader dataReader, Object params,
+                               Consumer<InternalCallLogHandler.LogBuilder> decision) throws InternalCallException {
+        ServiceInstance instance = internalCallLoadBalancer.choose(url);
+        try {
+            return executeOn(url, instance, dataReader, params, decision);
+        } catch (InternalCallException e) {
+            ServiceInstance other = instance != null && isLimited(e) ? internalCallLoadBalancer.chooseOther(url, instance) : null;
+            if (other == null) throw e;
+            return executeOn(url, other, dataReader, params, decision);
+        }
+    }
+
+    /**
+     * 在重试线程池上以调用方的用户信息发起重试，结果写入result，result取消时取消重试
+     */
+    private void retryAsync(Map<String, String> context, CompletableFuture<Object> result,
+                            Supplier<CompletableFuture<Object>> attempt) {
+        try {
+            getRetryExecutor().execute(() -> {
+                if (result.isDone()) return;
+                CompletableFuture<Object> retry;
+                try {
+                    retry = InternalCallContext.supply(context, attempt);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                retry.whenComplete((data, e) -> {
+                    if (e == null) result.complete(data);
+                    else result.completeExceptionally(e);
+                });
+                result.whenComplete((data, e) -> {
+                    if (result.isCancelled()) retry.cancel(false);
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
 
-            Object data = signatureResult.getData();
-            logBuilder.add("data", data);
-            if (data == null) return null;
+    /**
+     * @param instance 负载均衡选择的实例，为null时直接请求url
+     */
+    private Object executeOn(String url, ServiceInstance instance, SignatureResultDecoder.DataReader dataReader, Object params,
+                             Consumer<InternalCallLogHandler.LogBuilder> decision) throws InternalCallException {
+        String target = instance == null ? url : instance.rewrite(url);
+        if (instance != null) internalCallLoadBalancer.start(instance);
+        long start = System.nanoTime();
+        boolean failure = false;
+        boolean useSession = internalCallConfig.getSession().isEnabled();
+        try {
+            try {
+                return doPost(url, target, dataReader, params, useSession, decision);
+            } catch (InternalCallException e) {
+                if (!useSession || !isInvalidSession(e)) throw e;
+                // 会话失效（如被调用方重启），本次改用RSA签名重试
+                sessionClient.invalidate(URI.create(target));
+                return doPost(url, target, dataReader, params, false, decision);
+            }
+        } catch (RuntimeException e) {
+            failure = isFailure(e);
+            throw e;
+        } finally {
+            if (instance != null) internalCallLoadBalancer.complete(url, instance, System.nanoTime() - start, failure);
+        }
+    }
 
-            if (data instanceof JSONArray) {
-                return JSONArray.parseArray(JSONObject.toJSONString(data), clazz);
+    /**
+     * @param url    调用地址，用于统计与日志策略
+     * @param target 实际请求的地址
+     */
+    private Object doPost(String url, String target, SignatureResultDecoder.DataReader dataReader, Object params, boolean useSession,
+                          Consumer<InternalCallLogHandler.LogBuilder> decision) throws InternalCallException {
+        EndpointMetrics metrics = internalCallMetrics.client(url);
+        long start = System.nanoTime();
+        InternalCallLogHandler.LogBuilder logBuilder = internalCallLogDispatcher.createLogBuilder(url);
+        if (decision != null) decision.accept(logBuilder);
+        try {
+            HttpPost requestBase = createRequest(target, params, logBuilder, useSession, metrics);
+            // 发起请求
+            long httpStart = System.nanoTime();
+            try (CloseableHttpResponse response = httpClient.execute(requestBase)) {
+                metrics.record(Phase.HTTP, httpStart);
+                // 处理结果，读取完整响应后连接归还连接池
+                return handleResponse(requestBase.getURI(), response, dataReader, logBuilder, metrics);
             }
-            return JSONObject.parseObject(JSONObject.toJSONString(data), clazz);
         } catch (IOException e) {
+            metrics.outcome(Outcome.IO_ERROR);
+            logBuilder.add("exception", e.getMessage());
             throw new InternalCallException(501, e.getMessage());
+        } catch (RuntimeException e) {
+            logBuilder.add("exception", e.getMessage());
+            throw e;
         } finally {
-            if (internalCallLogHandler != null) internalCallLogHandler.log(logBuilder);
+            log(logBuilder, metrics);
+            metrics.record(Phase.TOTAL, start);
+        }
+    }
+
+    public CompletableFuture<Object> postAsync(String url, Class clazz) {
+        return postAsync(url, clazz, new Object());
+    }
+
+    /**
+     * 异步发起内部调用，请求在IO线程中完成，不占用调用线程
+     * 签名与用户信息在调用线程中生成，结果处理与日志在回调中完成
+     *
+     * @return 结果与post一致，异常以InternalCallException完成
+     */
+    public CompletableFuture<Object> postAsync(String url, Class clazz, Object params) {
+        return executeAsync(url, SignatureResultDecoder.lenient(clazz), params);
+    }
+
+    /**
+     * 异步调用，返回数据直接解码为泛型类型
+     */
+    public <T> CompletableFuture<T> postAsync(String url, TypeReference<T> type, Object params) {
+        return (CompletableFuture<T>) executeAsync(url, SignatureResultDecoder.typed(type.getType()), params);
+    }
+
+    /**
+     * 异步调用，返回数据直接解码为type
+     */
+    public <T> CompletableFuture<T> postAsync(String url, Type type, Object params) {
+        return (CompletableFuture<T>) executeAsync(url, SignatureResultDecoder.typed(type), params);
+    }
+
+    /**
+     * 目标地址开启缓存时优先返回缓存的结果，旧结果在后台刷新
+     */
+    private CompletableFuture<Object> executeAsync(String url, SignatureResultDecoder.DataReader dataReader, Object params) {
+        CachePolicy cachePolicy = internalCallCache.policy(url);
+        if (cachePolicy == null) return executeAsyncResilient(url, dataReader, params);
+        CacheKey key;
+        try {
+            key = internalCallCache.key(url, dataReader, params, information(), cachePolicy);
+        } catch (RuntimeException e) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
         }
+        CacheEntry entry = internalCallCache.get(key);
+        if (entry != null) {
+            revalidate(url, dataReader, params, cachePolicy, key, entry);
+            return CompletableFuture.completedFuture(entry.getValue());
+        }
+        CompletableFuture<Object> future = executeAsyncResilient(url, dataReader, params);
+        future.whenComplete((data, e) -> {
+            if (e == null) internalCallCache.put(key, data, cachePolicy);
+        });
+        return future;
+    }
+
+    /**
+     * 命中已过有效期的结果时在后台刷新，同一结果同时只有一个刷新
+     */
+    private void revalidate(String url, SignatureResultDecoder.DataReader dataReader, Object params, CachePolicy cachePolicy,
+                            CacheKey key, CacheEntry entry) {
+        if (!entry.isStale(System.currentTimeMillis()) || !entry.startRefresh()) return;
+        CompletableFuture<Object> future;
+        try {
+            future = executeAsyncResilient(url, dataReader, params);
+        } catch (RuntimeException e) {
+            entry.refreshFailed();
+            return;
+        }
+        future.whenComplete((data, e) -> {
+            if (e == null) internalCallCache.put(key, data, cachePolicy);
+            else entry.refreshFailed();
+        });
+    }
+
+    /**
+     * 本次调用发送的用户信息，未生成时使用当前线程收到的信息
+     */
+    private Map<String, String> information() {
+        if (informationTransmitter == null) return null;
+        Map<String, String> information = informationTransmitter.createInformation();
+        return information != null ? information : informationTransmitter.getInformation();
+    }
+
+    /**
+     * 按目标地址的策略对冲或熔断，未开启时直接调用
+     */
+    private CompletableFuture<Object> executeAsyncResilient(String url, SignatureResultDecoder.DataReader dataReader, Object params) {
+        ResiliencePolicy policy = internalCallResilience.policy(url);
+        if (policy.isNone()) return executeAsyncOnce(url, dataReader, params, null);
+        CircuitBreaker breaker = internalCallResilience.breaker(url, policy);
+        CircuitBreaker.State state = CircuitBreaker.State.CLOSED;
+        if (breaker != null) {
+            try {
+                state = acquire(url, breaker);
+            } catch (InternalCallException e) {
+                CompletableFuture<Object> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(e);
+                return rejected;
+            }
+        }
+
+        Consumer<InternalCallLogHandler.LogBuilder> circuit = circuitDecision(state);
+        long start = System.nanoTime();
+        CompletableFuture<Object> future;
+        if (policy.isHedge()) {
+            long delay = internalCallResilience.hedgeDelay(url, policy);
+            future = HedgedCall.start(attempt -> {
+                long attemptStart = System.nanoTime();
+                CompletableFuture<Object> attemptFuture = executeAsyncOnce(url, dataReader, params, logBuilder -> {
+                    logBuilder.add("hedge", attempt).add("hedgeDelay", delay);
+                    if (circuit != null) circuit.accept(logBuilder);
+                });
+                attemptFuture.whenComplete((data, e) -> {
+                    if (e == null) internalCallResilience.record(url, policy, System.nanoTime() - attemptStart);
+                });
+                return attemptFuture;
+            }, delay, internalCallResilience.getScheduler());
+        } else {
+            future = executeAsyncOnce(url, dataReader, params, circuit);
+        }
+        if (breaker == null) return future;
+
+        CircuitBreaker.State acquired = state;
+        future.whenComplete((data, e) -> {
+            if (future.isCancelled()) breaker.release(acquired);
+            else breaker.onResult(acquired, e != null && isFailure(e), System.nanoTime() - start);
+        });
+        return future;
+    }
+
+    /**
+     * 调用地址的host为已配置的服务名时按负载均衡选择实例，实例并发达到上限（429）时换一个实例重试一次
+     */
+    private CompletableFuture<Object> executeAsyncOnce(String url, SignatureResultDecoder.DataReader dataReader, Object params,
+                                                       Consumer<InternalCallLogHandler.LogBuilder> decision) {
+        ServiceInstance instance = internalCallLoadBalancer.choose(url);
+        CompletableFuture<Object> future = executeAsyncOn(url, instance, dataReader, params, decision);
+        if (instance == null) return future;
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        Map<String, String> context = InternalCallContext.capture();
+        future.whenComplete((data, e) -> {
+            ServiceInstance other = e != null && isLimited(e) ? internalCallLoadBalancer.chooseOther(url, instance) : null;
+            if (other == null) {
+                if (e == null) result.complete(data);
+                else result.completeExceptionally(e);
+                return;
+            }
+            retryAsync(context, result, () -> executeAsyncOn(url, other, dataReader, params, decision));
+        });
+        result.whenComplete((data, e) -> {
+            if (result.isCancelled()) future.cancel(false);
+        });
+        return result;
+    }
+
+    /**
+     * @param instance 负载均衡选择的实例，为null时直接请求url
+     */
+    private CompletableFuture<Object> executeAsyncOn(String url, ServiceInstance instance, SignatureResultDecoder.DataReader dataReader,
+                                                     Object params, Consumer<InternalCallLogHandler.LogBuilder> decision) {
+        String target = instance == null ? url : instance.rewrite(url);
+        if (instance != null) internalCallLoadBalancer.start(instance);
+        long start = System.nanoTime();
+        boolean useSession = internalCallConfig.getSession().isEnabled();
+        CompletableFuture<Object> future = doPostAsync(url, target, dataReader, params, useSession, decision);
+        CompletableFuture<Object> result = future;
+        if (useSession) {
+            // 会话失效时改用RSA签名重试
+            CompletableFuture<Object> retryable = new CompletableFuture<>();
+            Map<String, String> context = InternalCallContext.capture();
+            future.whenComplete((data, e) -> {
+                if (e == null) {
+                    retryable.complete(data);
+                } else if (!isInvalidSession(e)) {
+                    retryable.completeExceptionally(e);
+                } else {
+                    sessionClient.invalidate(URI.create(target));
+                    retryAsync(context, retryable, () -> doPostAsync(url, target, dataReader, params, false, decision));
+                }
+            });
+            retryable.whenComplete((data, e) -> {
+                if (retryable.isCancelled()) future.cancel(false);
+            });
+            result = retryable;
+        }
+        if (instance == null) return result;
+
+        CompletableFuture<Object> balanced = result;
+        balanced.whenComplete((data, e) -> {
+            if (balanced.isCancelled()) internalCallLoadBalancer.cancel(instance);
+            else internalCallLoadBalancer.complete(url, instance, System.nanoTime() - start, e != null && isFailure(e));
+        });
+        return balanced;
+    }
+
+    private CompletableFuture<Object> doPostAsync(String url, String target, SignatureResultDecoder.DataReader dataReader, Object params, boolean useSession,
+                                                  Consumer<InternalCallLogHandler.LogBuilder> decision) {
+        EndpointMetrics metrics = internalCallMetrics.client(url);
+        long start = System.nanoTime();
+        InternalCallLogHandler.LogBuilder logBuilder = internalCallLogDispatcher.createLogBuilder(url);
+        if (decision != null) decision.accept(logBuilder);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        HttpPost requestBase;
+        try {
+            requestBase = createRequest(target, params, logBuilder, useSession, metrics);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            log(logBuilder, metrics);
+            return future;
+        }
+
+        long httpStart = System.nanoTime();
+        Future<HttpResponse> httpFuture = getAsyncHttpClient().execute(requestBase, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                metrics.record(Phase.HTTP, httpStart);
+                try {
+                    future.complete(handleResponse(requestBase.getURI(), response, dataReader, logBuilder, metrics));
+                } catch (IOException e) {
+                    metrics.outcome(Outcome.IO_ERROR);
+                    logBuilder.add("exception", e.getMessage());
+                    future.completeExceptionally(new InternalCallException(501, e.getMessage()));
+                } catch (RuntimeException e) {
+                    logBuilder.add("exception", e.getMessage());
+                    future.completeExceptionally(e);
+                } finally {
+                    log(logBuilder, metrics);
+                    metrics.record(Phase.TOTAL, start);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                metrics.outcome(Outcome.IO_ERROR);
+                logBuilder.add("exception", e.getMessage());
+                future.completeExceptionally(new InternalCallException(501, e.getMessage()));
+                log(logBuilder, metrics);
+                metrics.record(Phase.TOTAL, start);
+            }
+
+            @Override
+            public void cancelled() {
+                logBuilder.add("exception", "cancelled");
+                future.cancel(false);
+                log(logBuilder, metrics);
+            }
+        });
+        // 调用方取消时同时取消HTTP请求
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) httpFuture.cancel(true);
+        });
+        return future;
+    }
+
+    /**
+     * 创建签名后的请求
+     */
+    private HttpPost createRequest(String url, Object params, InternalCallLogHandler.LogBuilder logBuilder, boolean useSession, EndpointMetrics metrics) {
+        HttpPost requestBase = new HttpPost(url);
+        // 签名
+        long signStart = System.nanoTime();
+        String requestId = this.sign(requestBase, useSession);
+        metrics.record(Phase.SIGN, signStart);
+        // 记录日志
+        log(logBuilder, url, params, requestId);
+        // 参数，发送时直接写入连接
+        requestBase.setEntity(createEntity(requestBase.getURI(), params));
+        if (internalCallConfig.getCompression().isEnabled()) {
+            requestBase.addHeader(Compression.ACCEPT_ENCODING, Compression.SUPPORTED_ENCODINGS);
+        }
+        if (internalCallConfig.isJsonb()) requestBase.addHeader("Accept", ACCEPT_JSONB);
+        return requestBase;
+    }
+
+    /**
+     * 被调用方支持JSONB时使用JSONB，声明可解压且参数超过阈值时压缩请求体；
+     * JSON请求体较小（或首次请求该地址）时以定长发送，较大时流式序列化（并压缩）
+     */
+    private HttpEntity createEntity(URI uri, Object params) {
+        CompressionConfig config = internalCallConfig.getCompression();
+        String origin = origin(uri);
+        boolean jsonb = internalCallConfig.isJsonb() && jsonbOrigins.contains(origin);
+        String encoding = config.isEnabled() ? requestEncodings.get(origin) : null;
+        if (jsonb) {
+            byte[] body = JSONB.toBytes(params);
+            if (encoding == null || body.length < config.getThreshold()) return new ByteArrayEntity(body, APPLICATION_JSONB);
+            return new CompressedEntity(body, APPLICATION_JSONB, encoding, config.getLevel());
+        }
+        // JSON请求体长度在发送前未知，按该地址上次请求体的大小决定定长发送或流式发送、是否压缩
+        String url = uri.toString();
+        Integer lastSize = requestSizes.get(url);
+        if (lastSize == null || lastSize < internalCallConfig.getHttp().getStreamThreshold()) {
+            byte[] body = JSON.toJSONBytes(params);
+            recordRequestSize(url, body.length);
+            if (encoding == null || body.length < config.getThreshold()) return new ByteArrayEntity(body, ContentType.APPLICATION_JSON);
+            return new CompressedEntity(body, ContentType.APPLICATION_JSON, encoding, config.getLevel());
+        }
+        boolean compress = encoding != null && lastSize >= config.getThreshold();
+        return new JSONStreamEntity(params, compress ? encoding : null, config.getLevel(), size -> recordRequestSize(url, size));
+    }
+
+    private void recordRequestSize(String url, int size) {
+        if (requestSizes.size() < MAX_URLS || requestSizes.containsKey(url)) requestSizes.put(url, size);
+    }
+
+    /**
+     * 被调用方以JSONB响应时记录，以JSON响应或不支持JSONB请求体（415）时移除
+     */
+    private void learnFormat(URI uri, HttpResponse response) {
+        if (!internalCallConfig.isJsonb()) return;
+        String origin = origin(uri);
+        int status = response.getStatusLine().getStatusCode();
+        if (status == 415) {
+            jsonbOrigins.remove(origin);
+            return;
+        }
+        if (status != 200 || response.getEntity() == null) return;
+        if (isJSONB(ContentType.get(response.getEntity()))) {
+            if (jsonbOrigins.size() < MAX_ORIGINS) jsonbOrigins.add(origin);
+        } else {
+            jsonbOrigins.remove(origin);
+        }
+    }
+
+    private boolean isJSONB(ContentType contentType) {
+        return contentType != null && APPLICATION_JSONB.getMimeType().equalsIgnoreCase(contentType.getMimeType());
+    }
+
+    /**
+     * 记录被调用方在响应头Accept-Encoding中声明的编码
+     */
+    private void learnEncoding(URI uri, HttpResponse response) {
+        if (!internalCallConfig.getCompression().isEnabled()) return;
+        Header header = response.getFirstHeader(Compression.ACCEPT_ENCODING);
+        String encoding = Compression.negotiate(header != null ? header.getValue() : null);
+        String origin = origin(uri);
+        if (encoding == null) {
+            requestEncodings.remove(origin);
+        } else if (!encoding.equals(requestEncodings.get(origin)) && requestEncodings.size() < MAX_ORIGINS) {
+            requestEncodings.put(origin, encoding);
+        }
+    }
+
+    private String origin(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * 处理响应结果
+     */
+    private Object handleResponse(URI uri, HttpResponse response, SignatureResultDecoder.DataReader dataReader, InternalCallLogHandler.LogBuilder logBuilder, EndpointMetrics metrics) throws IOException {
+        HttpEntity entity = response.getEntity();
+        learnEncoding(uri, response);
+        learnFormat(uri, response);
+        if (response.getStatusLine().getStatusCode() != 200) {
+            metrics.outcome(Outcome.HTTP_ERROR);
+            EntityUtils.consume(entity);
+            throw new InternalCallException(400, HTTP_FAILED);
+        }
+        if (entity == null) {
+            throw new InternalCallException(501, "Empty internal call result");
+        }
+        // 从响应流解码，不生成String；fastjson2会将整个响应体读入其池化缓冲区后解析，内存占用与响应体大小相当。
+        // JSONB按Content-Length一次读入。读取完毕关闭流后连接归还连接池
+        ContentType contentType = ContentType.getOrDefault(entity);
+        Charset charset = contentType.getCharset();
+        long decodeStart = System.nanoTime();
+        SignatureResult<Object> signatureResult;
+        try (InputStream inputStream = getContent(entity);
+             JSONReader jsonReader = isJSONB(contentType) ? JSONReader.ofJSONB(readBody(entity, inputStream))
+                     : JSONReader.of(inputStream, charset != null ? charset : StandardCharsets.UTF_8)) {
+            signatureResult = SignatureResultDecoder.decode(jsonReader, dataReader);
+        }
+        metrics.record(Phase.DECODE, decodeStart);
+        if (signatureResult == null) {
+            throw new InternalCallException(501, "Empty internal call result");
+        }
+        metrics.outcome(Outcome.ofCode(signatureResult.getCode()));
+
+        // 处理异常
+        logBuilder.add("code", signatureResult.getCode());
+        logBuilder.add("msg", signatureResult.getMsg());
+        handleInternalCallException(signatureResult);
+
+        Object data = signatureResult.getData();
+        logBuilder.add("data", data);
+        return data;
+    }
+
+    /**
+     * 读取完整响应体，未压缩且长度已知时直接读入定长数组，避免扩容复制
+     */
+    private byte[] readBody(HttpEntity entity, InputStream inputStream) throws IOException {
+        long length = entity.getContentLength();
+        if (entity.getContentEncoding() != null || length < 0 || length > Integer.MAX_VALUE) {
+            return StreamUtils.copyToByteArray(inputStream);
+        }
+        byte[] body = new byte[(int) length];
+        new DataInputStream(inputStream).readFully(body);
+        return body;
+    }
+
+    /**
+     * 响应体按Content-Encoding流式解压
+     */
+    private InputStream getContent(HttpEntity entity) throws IOException {
+        InputStream inputStream = entity.getContent();
+        Header contentEncoding = entity.getContentEncoding();
+        if (contentEncoding == null || !Compression.isSupported(contentEncoding.getValue().trim())) return inputStream;
+        return Compression.decompress(inputStream, contentEncoding.getValue().trim());
+    }
+
+    /**
+     * 创建批量调用，多个调用合并为一次签名请求
+     *
+     * @param url 目标服务的批量调用接口地址，如 http://user-service/internal-call/batch
+     */
+    public InternalCallBatch batch(String url) {
+        return new InternalCallBatch(this, url);
+    }
+
+    List<SignatureResult<Object>> executeBatch(String url, List<BatchCall> calls, List<Class> types) throws InternalCallException {
+        // 每个调用结果的data按各自类型一次解码
+        List<SignatureResult<Object>> results = (List<SignatureResult<Object>>) execute(url, SignatureResultDecoder.batch(types), calls);
+        if (results == null || results.size() != calls.size()) {
+            throw new InternalCallException(501, "Batch result size mismatch");
+        }
+        return results;
+    }
+
+    private void log(InternalCallLogHandler.LogBuilder logBuilder, EndpointMetrics metrics) {
+        long logStart = System.nanoTime();
+        internalCallLogDispatcher.log(logBuilder);
+        metrics.record(Phase.LOG, logStart);
     }
 
     private void log(InternalCallLogHandler.LogBuilder logBuilder, String url, Object params, String requestId) {
@@ -93,6 +894,72 @@ public class InternalCallService {
         }
     }
 
+    /**
+     * 申请熔断器放行，熔断时记录日志并抛出503
+     */
+    private CircuitBreaker.State acquire(String url, CircuitBreaker breaker) throws InternalCallException {
+        CircuitBreaker.State state = breaker.acquire();
+        if (state != CircuitBreaker.State.OPEN) return state;
+        EndpointMetrics metrics = internalCallMetrics.client(url);
+        metrics.outcome(Outcome.CIRCUIT_OPEN);
+        InternalCallLogHandler.LogBuilder logBuilder = internalCallLogDispatcher.createLogBuilder(url);
+        logBuilder.add("url", url).add("type", "send").add("circuit", state.name()).add("exception", CIRCUIT_OPEN);
+        log(logBuilder, metrics);
+        throw new InternalCallException(503, CIRCUIT_OPEN);
+    }
+
+    /**
+     * 半开状态的试探调用在日志中标记
+     */
+    private Consumer<InternalCallLogHandler.LogBuilder> circuitDecision(CircuitBreaker.State state) {
+        if (state != CircuitBreaker.State.HALF_OPEN) return null;
+        return logBuilder -> logBuilder.add("circuit", state.name());
+    }
+
+    /**
+     * 熔断统计中是否计为失败：网络异常、HTTP状态码异常、系统异常与并发限制（429）计为失败，业务异常与验签问题不计
+     */
+    private boolean isFailure(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) e = e.getCause();
+        if (e instanceof CancellationException) return false;
+        if (!(e instanceof InternalCallException)) return true;
+        Integer code = ((InternalCallException) e).getCode();
+        if (code == null) return true;
+        if (code == 400) return HTTP_FAILED.equals(e.getMessage());
+        return code != 500;
+    }
+
+    /**
+     * 等待异步调用结果，异常与同步调用一致
+     */
+    private Object join(CompletableFuture<Object> future) throws InternalCallException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new InternalCallException(501, cause != null ? cause.getMessage() : e.getMessage());
+        }
+    }
+
+    /**
+     * 是否为被调用方并发达到上限
+     */
+    private boolean isLimited(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) e = e.getCause();
+        return e instanceof InternalCallException && Integer.valueOf(429).equals(((InternalCallException) e).getCode());
+    }
+
+    /**
+     * 是否为会话失效导致的验签失败
+     */
+    private boolean isInvalidSession(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) e = e.getCause();
+        if (!(e instanceof InternalCallException)) return false;
+        InternalCallException exception = (InternalCallException) e;
+        return Integer.valueOf(400).equals(exception.getCode()) && SessionManager.INVALID_SESSION.equals(exception.getMessage());
+    }
+
     /**
      * 处理异常返回
      */
@@ -101,6 +968,10 @@ public class InternalCallService {
         if (signatureResult.getCode() == 400) {
             throw new InternalCallException(400, signatureResult.getMsg());
         }
+        // 并发达到上限
+        if (signatureResult.getCode() == 429) {
+            throw new InternalCallException(429, signatureResult.getMsg());
+        }
         // 业务异常
         if (signatureResult.getCode() == 500) {
             throw new InternalCallException(500, signatureResult.getMsg());
@@ -117,21 +988,33 @@ public class InternalCallService {
      *
      * @param requestBase HttpEntityEnclosingRequestBase
      */
-    private String sign(HttpEntityEnclosingRequestBase requestBase) {
+    private String sign(HttpEntityEnclosingRequestBase requestBase, boolean useSession) {
         // UUID
         String requestId = IdUtil.randomUUID();
         // 时间戳
         long timestamp = new Date().getTime();
-        // 签名
+        // 签名，会话模式使用HMAC，无可用会话时使用RSA
         String content = "requestId=" + requestId + "&" + "timestamp=" + timestamp;
-        String sign = RSAUtils.signByPrivateKey(content, internalCallConfig.getPrivateKey());
+        InternalCallSession session = useSession ? sessionClient.get(requestBase.getURI()) : null;
+        String sign;
+        if (session != null) {
+            sign = HmacUtils.sign(content, session.getKey());
+            requestBase.addHeader(SessionManager.SESSION_HEADER, session.getSessionId());
+        } else {
+            sign = keyRegistry.sign(content);
+            String keyId = keyRegistry.getKeyId();
+            if (keyId != null) requestBase.addHeader(KeyRegistry.KID_HEADER, keyId);
+        }
 
         // 当前用户信息
-        if (informationTransmitter != null) {
-            Map<String, String> information = informationTransmitter.createInformation();
+        Map<String, String> information = information();
+        if (information != null && internalCallConfig.getInformationToken().isEnabled()) {
+            requestBase.addHeader(InformationTokenManager.INFORMATION_HEADER, informationTokenManager.issue(information));
+        } else if (information != null) {
             Set<String> keys = information.keySet();
             for (String key : keys) {
-                requestBase.addHeader(key, information.get(key));
+                String value = information.get(key);
+                if (value != null) requestBase.addHeader(key, value);
             }
         }
 
@@ -0,0 +1,106 @@
+package io.github.coffee330501;
+
+import com.alibaba.fastjson2.JSON;
+import io.github.coffee330501.compression.Compression;
+import io.github.coffee330501.compression.DeflatingOutputStream;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.IntConsumer;
+
+/**
+ * 较大的请求参数实体，发送时直接序列化到连接输出流，不生成完整的JSON字符串与字节数组副本
+ * （fastjson2在其池化缓冲区中完成序列化后写出）；指定编码时经压缩流写出；长度未知，以chunked方式发送；
+ * 异步客户端通过getContent读取时序列化（并压缩）为字节数组
+ */
+class JSONStreamEntity extends AbstractHttpEntity {
+    private final Object params;
+    private final String encoding;
+    private final int level;
+    private final IntConsumer sizeListener;
+
+    /**
+     * @param encoding     压缩编码，为null时不压缩
+     * @param sizeListener 写出后接收压缩前的请求体字节数，可为null
+     */
+    JSONStreamEntity(Object params, String encoding, int level, IntConsumer sizeListener) {
+        this.params = params;
+        this.encoding = encoding;
+        this.level = level;
+        this.sizeListener = sizeListener;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        if (encoding != null) setContentEncoding(encoding);
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        if (encoding == null) {
+            byte[] body = JSON.toJSONBytes(params);
+            if (sizeListener != null) sizeListener.accept(body.length);
+            return new ByteArrayInputStream(body);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeTo(outputStream);
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DeflatingOutputStream deflating = encoding == null ? null : Compression.compress(outputStream, encoding, level);
+        OutputStream target = deflating == null ? outputStream : deflating;
+        CountingOutputStream counting = sizeListener == null ? null : new CountingOutputStream(target);
+        try {
+            JSON.writeTo(counting == null ? target : counting, params);
+            if (deflating != null) deflating.finish();
+        } finally {
+            if (deflating != null) deflating.abort();
+        }
+        outputStream.flush();
+        if (counting != null) sizeListener.accept(counting.count);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * 统计写出的字节数，不关闭下层流
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private int count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.coffee330501;
+
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.reader.ObjectReader;
+import com.alibaba.fastjson2.util.ParameterizedTypeImpl;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 响应解码，一次读取将SignatureResult的data直接解码为目标类型，不再经过 序列化 -> 再解析
+ * 支持JSON与JSONB，JSONB的JSONReader由JSONReader.ofJSONB创建
+ * 按目标类型缓存fastjson2的ObjectReader
+ */
+final class SignatureResultDecoder {
+    private static final Map<Type, DataReader> TYPED_READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, DataReader> LENIENT_READERS = new ConcurrentHashMap<>();
+    private static final Map<List<Class>, DataReader> BATCH_READERS = new ConcurrentHashMap<>();
+    /**
+     * 批量调用的类型组合数上限，超过后新组合不再缓存
+     */
+    private static final int MAX_BATCH_READERS = 1024;
+
+    private SignatureResultDecoder() {
+    }
+
+    /**
+     * data读取方式
+     */
+    interface DataReader {
+        Object read(JSONReader jsonReader);
+    }
+
+    /**
+     * data按指定类型读取
+     */
+    static DataReader typed(Type type) {
+        return TYPED_READERS.computeIfAbsent(type, SignatureResultDecoder::createReader);
+    }
+
+    /**
+     * 兼容原post(url, clazz)：data为数组时读取为List&lt;clazz&gt;，否则读取为clazz
+     */
+    static DataReader lenient(Class<?> clazz) {
+        return LENIENT_READERS.computeIfAbsent(clazz, c -> {
+            DataReader single = typed(c);
+            if (c.isArray() || Collection.class.isAssignableFrom(c) || c == Object.class) return single;
+            DataReader list = typed(new ParameterizedTypeImpl(new Type[]{c}, null, List.class));
+            return jsonReader -> jsonReader.isArray() ? list.read(jsonReader) : single.read(jsonReader);
+        });
+    }
+
+    /**
+     * 批量调用结果：data为SignatureResult数组，每个元素的data按对应类型读取，按类型列表缓存
+     */
+    static DataReader batch(List<Class> types) {
+        DataReader reader = BATCH_READERS.get(types);
+        if (reader != null) return reader;
+        reader = createBatchReader(types);
+        if (BATCH_READERS.size() < MAX_BATCH_READERS) BATCH_READERS.putIfAbsent(new ArrayList<>(types), reader);
+        return reader;
+    }
+
+    private static DataReader createBatchReader(List<Class> types) {
+        List<DataReader> readers = new ArrayList<>(types.size());
+        for (Class type : types) readers.add(lenient(type));
+        return jsonReader -> {
+            if (jsonReader.nextIfNull()) return null;
+            List<SignatureResult<Object>> results = new ArrayList<>(readers.size());
+            if (jsonReader.isJSONB()) {
+                // JSONB数组头部带元素个数
+                if (!jsonReader.isArray()) throw new IllegalStateException("Batch result is not an array");
+                int size = jsonReader.startArray();
+                for (int i = 0; i < size; i++) {
+                    results.add(decode(jsonReader, i < readers.size() ? readers.get(i) : typed(Object.class)));
+                }
+                return results;
+            }
+            if (!jsonReader.nextIfMatch('[')) throw new IllegalStateException("Batch result is not an array");
+            while (!jsonReader.nextIfMatch(']')) {
+                int index = results.size();
+                DataReader reader = index < readers.size() ? readers.get(index) : typed(Object.class);
+                results.add(decode(jsonReader, reader));
+                jsonReader.nextIfMatch(',');
+            }
+            return results;
+        };
+    }
+
+    /**
+     * 读取一个SignatureResult，字段顺序不限，未知字段跳过
+     */
+    static SignatureResult<Object> decode(JSONReader jsonReader, DataReader dataReader) {
+        if (jsonReader.nextIfNull()) return null;
+        if (!jsonReader.nextIfObjectStart()) throw new IllegalStateException("Result is not an object");
+        SignatureResult<Object> result = new SignatureResult<>();
+        while (!jsonReader.nextIfObjectEnd()) {
+            String name = jsonReader.readFieldName();
+            if ("code".equals(name)) {
+                Integer code = jsonReader.readInt32();
+                if (code != null) result.setCode(code);
+            } else if ("msg".equals(name)) {
+                result.setMsg(jsonReader.readString());
+            } else if ("data".equals(name)) {
+                result.setData(dataReader.read(jsonReader));
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        return result;
+    }
+
+    private static DataReader createReader(Type type) {
+        ObjectReader<?> objectReader = JSONFactory.getDefaultObjectReaderProvider().getObjectReader(type);
+        return jsonReader -> {
+            if (jsonReader.nextIfNull()) return null;
+            if (jsonReader.isJSONB()) return objectReader.readJSONBObject(jsonReader, type, null, 0);
+            return objectReader.readObject(jsonReader, type, null, 0);
+        };
+    }
+}
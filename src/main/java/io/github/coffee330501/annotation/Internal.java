@@ -11,4 +11,9 @@ import java.lang.annotation.Target;
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Internal {
+    /**
+     * 是否合并并发的相同调用：同一方法参数相同（且用户信息相同）的请求共用一次执行结果，
+     * 每个请求仍各自验签、检查重复请求与记录日志，适用于只读查询
+     */
+    boolean collapse() default false;
 }
@@ -22,4 +22,9 @@ public @interface InternalController {
             annotation = Controller.class
     )
     String value() default "";
+
+    /**
+     * 类中所有方法是否合并并发的相同调用，见 {@link Internal#collapse()}
+     */
+    boolean collapse() default false;
 }
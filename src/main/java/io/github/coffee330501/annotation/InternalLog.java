@@ -0,0 +1,35 @@
+package io.github.coffee330501.annotation;
+
+import io.github.coffee330501.config.LogConfig;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 内部调用方法的日志策略，标注在@Internal方法或@InternalController类上，优先于按路径的配置
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface InternalLog {
+    /**
+     * 采样率，0~1
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * 未被采样的调用出现异常时是否仍记录
+     */
+    boolean alwaysLogErrors() default true;
+
+    /**
+     * 入参与返回数据的记录方式
+     */
+    LogConfig.Payload payload() default LogConfig.Payload.FULL;
+
+    /**
+     * payload为TRUNCATED时保留的最大字符数
+     */
+    int maxPayloadLength() default 1024;
+}
@@ -1,14 +1,23 @@
 package io.github.coffee330501.aspect;
 
 
-import io.github.coffee330501.annotation.BusinessExceptionTag;
-import io.github.coffee330501.annotation.Internal;
+import io.github.coffee330501.SignatureResult;
+import io.github.coffee330501.collapse.InternalCallCollapser;
 import io.github.coffee330501.config.InternalCallConfig;
 import io.github.coffee330501.exception.InternalCallException;
+import io.github.coffee330501.handler.InternalHandlerDescriptor;
+import io.github.coffee330501.handler.InternalHandlerRegistry;
+import io.github.coffee330501.limit.InternalCallLimiter;
+import io.github.coffee330501.metrics.EndpointMetrics;
+import io.github.coffee330501.metrics.InternalCallMetrics;
+import io.github.coffee330501.metrics.Outcome;
+import io.github.coffee330501.metrics.Phase;
 import io.github.coffee330501.service.AbstractInformationTransmitter;
+import io.github.coffee330501.service.InternalCallLogDispatcher;
 import io.github.coffee330501.service.InternalCallLogHandler;
-import io.github.coffee330501.utils.RSAUtils;
-import io.github.coffee330501.utils.RedisUtil;
+import io.github.coffee330501.signature.InformationTokenManager;
+import io.github.coffee330501.signature.InternalCallVerifier;
+import io.github.coffee330501.utils.InternalCallContext;
 import io.github.coffee330501.utils.SignatureUtil;
 import io.github.coffee330501.utils.SpringContextUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -17,28 +26,37 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.util.StringUtils;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import java.lang.reflect.Method;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Aspect
 @Slf4j
 public class InternalCallAspect {
-    @Resource(name = "interCallRedisUtil")
-    RedisUtil redisUtil;
     AbstractInformationTransmitter informationTransmitter;
-    InternalCallLogHandler internalCallLogHandler;
+    @Resource
+    InternalCallLogDispatcher internalCallLogDispatcher;
+    @Resource
+    InternalCallMetrics internalCallMetrics;
     @Resource
     InternalCallConfig internalCallConfig;
+    @Resource
+    InternalCallVerifier internalCallVerifier;
+    @Resource
+    InternalHandlerRegistry internalHandlerRegistry;
+    @Resource
+    InternalCallLimiter internalCallLimiter;
+    @Resource
+    InternalCallCollapser internalCallCollapser;
+    @Resource
+    InformationTokenManager informationTokenManager;
 
     @Pointcut("@within(io.github.coffee330501.annotation.InternalController)")
     public void withinInternalController() {
@@ -51,14 +69,12 @@ public class InternalCallAspect {
     @PostConstruct
     public void init() {
         informationTransmitter = SpringContextUtil.getBean(AbstractInformationTransmitter.class);
-        internalCallLogHandler = SpringContextUtil.getBean(InternalCallLogHandler.class);
     }
 
     @Around("withinInternalController()")
     public Object addInternalAnnotationToMethod(ProceedingJoinPoint joinPoint) throws Throwable {
         MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        Method method = methodSignature.getMethod();
-        if (!method.isAnnotationPresent(Internal.class)) {
+        if (!internalHandlerRegistry.get(methodSignature.getMethod()).isInternalAnnotated()) {
             return this.internalCallAround(joinPoint);
         }
         return joinPoint.proceed(joinPoint.getArgs());
@@ -66,92 +82,113 @@ public class InternalCallAspect {
 
     @Around("internalCallPointCut()")
     public Object internalCallAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        InternalHandlerDescriptor descriptor = internalHandlerRegistry.get(signature.getMethod());
+        EndpointMetrics metrics = internalCallMetrics.server(signature.getMethod());
         // 从header中获取签名内容
         HttpServletRequest request = ((ServletRequestAttributes) Objects
                 .requireNonNull(RequestContextHolder.getRequestAttributes()))
                 .getRequest();
-        String sign = request.getHeader("sign");
-        String requestId = request.getHeader("requestId");
-        String timestampStr = request.getHeader("timestamp");
-        if (sign == null || requestId == null || timestampStr == null) {
-            return SignatureUtil.errorByClient("Signature parameter is empty");
+        String requestId = request.getHeader(InternalCallVerifier.REQUEST_ID_HEADER);
+        String timestampStr = request.getHeader(InternalCallVerifier.TIMESTAMP_HEADER);
+        // 已在InternalCallVerifyFilter或批量接口处验签的请求不再重复校验
+        boolean verified = SignatureUtil.isVerified(request);
+        if (!verified && !InternalCallVerifier.hasSignature(request)) {
+            metrics.outcome(Outcome.CLIENT_ERROR);
+            return SignatureUtil.errorByClient(InternalCallVerifier.EMPTY_SIGNATURE);
         }
 
-        // 记录用户ID
+        // 用户信息在验签后设置，结束时恢复为调用前的信息
+        Map<String, String> previousInformation = InternalCallContext.get();
         String userId = null;
         String userTableName = null;
-        if (informationTransmitter != null) {
-            List<String> keys = informationTransmitter.declareInformationMapKeys();
-            HashMap<String, String> info = new HashMap<>();
-            for (String k : keys) {
-                String v = request.getHeader(k);
-                info.put(k,v);
-            }
-            informationTransmitter.setInformation(info);
-        }
-        InternalCallLogHandler.LogBuilder logBuilder = InternalCallLogHandler.createLogBuilder();
+        InternalCallLogHandler.LogBuilder logBuilder = internalCallLogDispatcher.createLogBuilder(request.getRequestURI(),
+                descriptor.getLogPolicy());
         try {
             Object[] args = joinPoint.getArgs();
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
             // 记录入参
-            buildLog(logBuilder, requestId, timestampStr, userId, userTableName, request.getRequestURI(), signature.getDeclaringTypeName() + "." + signature.getMethod().getName(), args);
-            // 验签
-            String publicKey = internalCallConfig.getPublicKey();
-            if (StringUtils.isEmpty(publicKey)) log.error("Internal call publicKey is empty!");
-
-            long timestamp = Long.parseLong(timestampStr);
-            if (!RSAUtils.verifySignByPublicKey(getSignContent(timestamp, requestId), sign, publicKey)) {
-                throw new InternalCallException(400, "Internal call verification failed");
+            buildLog(logBuilder, requestId, timestampStr, userId, userTableName, request.getRequestURI(), descriptor.getName(), args);
+            if (!verified) {
+                internalCallVerifier.verify(request, metrics);
+            }
+            // 验签通过后读取用户信息，令牌无效时按客户端错误返回
+            if (informationTransmitter != null) {
+                informationTransmitter.setInformation(readInformation(request));
+            }
+            // 并发达到上限时不执行业务方法
+            boolean limited = internalCallLimiter.isEnabled();
+            if (limited && !internalCallLimiter.acquire(descriptor.getLimiter())) {
+                logBuilder.add("exception", InternalCallLimiter.LIMIT_EXCEEDED);
+                metrics.outcome(Outcome.LIMITED);
+                return SignatureUtil.errorByLimit(InternalCallLimiter.LIMIT_EXCEEDED);
             }
-            // 检查请求是否重复、过期
-            requestValidate(timestamp, requestId);
             // 调用方法返回结果
-            Object result = joinPoint.proceed(args);
+            long invokeStart = System.nanoTime();
+            Object result;
+            try {
+                result = proceed(joinPoint, descriptor, args);
+            } finally {
+                if (limited) internalCallLimiter.release(descriptor.getLimiter(), System.nanoTime() - invokeStart);
+            }
+            metrics.record(Phase.INVOKE, invokeStart);
             logBuilder.add("result", result);
+            metrics.outcome(Outcome.SUCCESS);
             return SignatureUtil.success(result);
         } catch (InternalCallException e) {
             logBuilder.add("exception", e.getMessage());
-            if (e.getCode() == 400) return SignatureUtil.errorByClient(e.getMessage());
+            if (e.getCode() == 400) {
+                metrics.outcome(Outcome.CLIENT_ERROR);
+                return SignatureUtil.errorByClient(e.getMessage());
+            }
+            metrics.outcome(Outcome.BUSINESS_ERROR);
             return SignatureUtil.errorByBusiness(e.getMessage());
         } catch (Exception e) {
             logBuilder.add("exception", e.getMessage());
-            BusinessExceptionTag annotation = e.getClass().getAnnotation(BusinessExceptionTag.class);
-            if (annotation == null) return SignatureUtil.errorBySystem(e.getMessage());
+            if (!internalHandlerRegistry.isBusinessException(e)) {
+                metrics.outcome(Outcome.SYSTEM_ERROR);
+                return SignatureUtil.errorBySystem(e.getMessage());
+            }
+            metrics.outcome(Outcome.BUSINESS_ERROR);
             return SignatureUtil.errorByBusiness(e.getMessage());
         } finally {
             // 记录日志
-            if (internalCallLogHandler != null) {
-                internalCallLogHandler.log(logBuilder);
-            }
+            long logStart = System.nanoTime();
+            internalCallLogDispatcher.log(logBuilder);
+            metrics.record(Phase.LOG, logStart);
+            metrics.record(Phase.TOTAL, start);
+            InternalCallContext.set(previousInformation);
         }
     }
 
     /**
-     * 获取被签名的内容
-     *
-     * @return 被签名的内容
+     * 读取声明的用户信息，携带令牌时使用验签后的令牌内容
      */
-    private String getSignContent(Long timestamp, String requestId) {
-        return "requestId=" + requestId + "&" + "timestamp=" + timestamp;
+    private HashMap<String, String> readInformation(HttpServletRequest request) throws InternalCallException {
+        List<String> keys = informationTransmitter.declareInformationMapKeys();
+        HashMap<String, String> info = new HashMap<>();
+        String token = request.getHeader(InformationTokenManager.INFORMATION_HEADER);
+        if (token != null) {
+            Map<String, String> verified = informationTokenManager.verify(token);
+            for (String k : keys) {
+                info.put(k, verified.get(k));
+            }
+        } else if (!internalCallConfig.getInformationToken().isRequired()) {
+            for (String k : keys) {
+                info.put(k, request.getHeader(k));
+            }
+        }
+        return info;
     }
 
     /**
-     * 验证请求有效性
-     *
-     * @param timestamp 请求发起时间戳
-     * @param requestId 请求ID
-     * @throws InternalCallException 内部调用异常
+     * 声明合并的方法与并发的相同调用共用一次执行
      */
-    private void requestValidate(long timestamp, String requestId) throws InternalCallException {
-        long time = new Date().getTime();
-        long diff = time - timestamp;
-        if (diff > 10 * 1000) {
-            throw new InternalCallException(400, "Request Expiration");
-        }
-        boolean set = redisUtil.setNx(requestId, 10);
-        if (!set) {
-            throw new InternalCallException(400, "Duplicate Request");
-        }
+    private Object proceed(ProceedingJoinPoint joinPoint, InternalHandlerDescriptor descriptor, Object[] args) throws Throwable {
+        if (!descriptor.isCollapse()) return joinPoint.proceed(args);
+        Map<String, String> information = informationTransmitter != null ? informationTransmitter.getInformation() : null;
+        return internalCallCollapser.execute(descriptor.getMethod(), args, information, internalCallConfig.getCollapseTimeout(),
+                () -> joinPoint.proceed(args));
     }
 
     private void buildLog(InternalCallLogHandler.LogBuilder logBuilder, String requestId, String timestampStr, String userId, String userTableName, String uri, String methodName, Object[] args) {
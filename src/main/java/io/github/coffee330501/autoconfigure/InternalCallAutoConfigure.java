@@ -2,16 +2,109 @@ package io.github.coffee330501.autoconfigure;
 
 import io.github.coffee330501.InternalCallService;
 import io.github.coffee330501.aspect.InternalCallAspect;
+import io.github.coffee330501.cache.InternalCallCache;
+import io.github.coffee330501.collapse.InternalCallCollapser;
 import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.controller.InternalCallBatchController;
+import io.github.coffee330501.controller.InternalCallMetricsController;
+import io.github.coffee330501.controller.InternalCallSessionController;
+import io.github.coffee330501.converter.JSONBHttpMessageConverter;
+import io.github.coffee330501.filter.InternalCallCompressionFilter;
+import io.github.coffee330501.filter.InternalCallVerifyFilter;
+import io.github.coffee330501.handler.InternalHandlerRegistry;
+import io.github.coffee330501.limit.InternalCallLimiter;
+import io.github.coffee330501.loadbalance.InternalCallLoadBalancer;
+import io.github.coffee330501.metrics.InternalCallMetrics;
+import io.github.coffee330501.nonce.MemoryNonceStore;
+import io.github.coffee330501.nonce.NonceStore;
+import io.github.coffee330501.nonce.RedisNonceStore;
+import io.github.coffee330501.resilience.InternalCallResilience;
+import io.github.coffee330501.service.InternalCallLogDispatcher;
+import io.github.coffee330501.signature.InformationTokenManager;
+import io.github.coffee330501.signature.InternalCallVerifier;
+import io.github.coffee330501.signature.KeyRegistry;
+import io.github.coffee330501.signature.SessionManager;
 import io.github.coffee330501.utils.RedisUtil;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
 @Configuration
 @ConditionalOnClass(InternalCallConfig.class)
 @EnableConfigurationProperties({InternalCallConfig.class})
-@Import({InternalCallService.class, InternalCallAspect.class, RedisUtil.class})
+@Import({InternalCallService.class, InternalCallAspect.class, KeyRegistry.class, SessionManager.class,
+        InternalCallLogDispatcher.class, InternalCallMetrics.class, InternalHandlerRegistry.class,
+        InternalCallVerifier.class, InternalCallResilience.class, InternalCallLoadBalancer.class,
+        InternalCallLimiter.class, InternalCallCache.class, InternalCallCollapser.class,
+        InformationTokenManager.class})
 public class InternalCallAutoConfigure {
+
+    @Bean(name = "interCallRedisUtil")
+    @ConditionalOnProperty(prefix = "internal.call", name = "nonce-store", havingValue = "redis")
+    public RedisUtil interCallRedisUtil() {
+        return new RedisUtil();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(NonceStore.class)
+    @ConditionalOnProperty(prefix = "internal.call", name = "nonce-store", havingValue = "redis")
+    public NonceStore redisNonceStore() {
+        return new RedisNonceStore();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(NonceStore.class)
+    public NonceStore memoryNonceStore() {
+        return new MemoryNonceStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "internal.call.batch", name = "enabled", havingValue = "true")
+    public InternalCallBatchController internalCallBatchController() {
+        return new InternalCallBatchController();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "internal.call.session", name = "server-enabled", havingValue = "true")
+    public InternalCallSessionController internalCallSessionController() {
+        return new InternalCallSessionController();
+    }
+
+    /**
+     * Filter类型的Bean由Spring Boot自动注册到Servlet容器
+     */
+    @Bean
+    @ConditionalOnWebApplication
+    @ConditionalOnProperty(prefix = "internal.call", name = "early-verify", havingValue = "true", matchIfMissing = true)
+    public InternalCallVerifyFilter internalCallVerifyFilter() {
+        return new InternalCallVerifyFilter();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication
+    @ConditionalOnProperty(prefix = "internal.call.compression", name = "enabled", havingValue = "true")
+    public InternalCallCompressionFilter internalCallCompressionFilter() {
+        return new InternalCallCompressionFilter();
+    }
+
+    /**
+     * HttpMessageConverter类型的Bean由Spring Boot加入MVC的消息转换器，被调用方始终可接收JSONB
+     */
+    @Bean
+    @ConditionalOnWebApplication
+    @ConditionalOnMissingBean(JSONBHttpMessageConverter.class)
+    public JSONBHttpMessageConverter jsonbHttpMessageConverter() {
+        return new JSONBHttpMessageConverter();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "internal.call.metrics", name = "endpoint-enabled", havingValue = "true")
+    public InternalCallMetricsController internalCallMetricsController() {
+        return new InternalCallMetricsController();
+    }
 }
@@ -0,0 +1,50 @@
+package io.github.coffee330501.cache;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 缓存的结果，已解码为目标类型，由所有命中的调用方共享，不应修改
+ */
+public class CacheEntry {
+    private final Object value;
+    private final long expireAt;
+    private final long staleUntil;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    CacheEntry(Object value, long expireAt, long staleUntil) {
+        this.value = value;
+        this.expireAt = expireAt;
+        this.staleUntil = staleUntil;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 已过有效期，处于可返回旧结果的时间内
+     */
+    public boolean isStale(long now) {
+        return now >= expireAt;
+    }
+
+    boolean isExpired(long now) {
+        return now >= staleUntil;
+    }
+
+    /**
+     * 开始后台刷新，同一结果同时只有一个刷新
+     *
+     * @return 已有刷新进行中时返回false
+     */
+    public boolean startRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    /**
+     * 刷新失败时调用，允许下次命中重新刷新
+     */
+    public void refreshFailed() {
+        refreshing.set(false);
+    }
+}
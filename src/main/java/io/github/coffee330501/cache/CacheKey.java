@@ -0,0 +1,66 @@
+package io.github.coffee330501.cache;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.alibaba.fastjson2.JSON;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 缓存key：调用地址 + 结果类型 + 参数序列化后的128位哈希 + 参与缓存的用户信息
+ */
+public final class CacheKey {
+    private final String url;
+    private final Object type;
+    private final long paramsHigh;
+    private final long paramsLow;
+    private final Map<String, String> information;
+    private final int hash;
+
+    /**
+     * @param type        结果的解码方式，相同地址按不同类型解码时分别缓存
+     * @param information 本次调用发送的用户信息
+     */
+    CacheKey(String url, Object type, Object params, Map<String, String> information, List<String> informationKeys) {
+        this.url = url;
+        this.type = type;
+        long[] paramsHash = MurmurHash.hash128(JSON.toJSONBytes(params));
+        this.paramsHigh = paramsHash[0];
+        this.paramsLow = paramsHash[1];
+        this.information = select(information, informationKeys);
+        this.hash = Objects.hash(url, System.identityHashCode(type), paramsHigh, paramsLow, this.information);
+    }
+
+    private static Map<String, String> select(Map<String, String> information, List<String> keys) {
+        if (information == null || information.isEmpty()) return Collections.emptyMap();
+        if (keys == null) return new TreeMap<>(information);
+        Map<String, String> selected = new TreeMap<>();
+        for (String key : keys) {
+            String value = information.get(key);
+            if (value != null) selected.put(key, value);
+        }
+        return selected;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey)) return false;
+        CacheKey other = (CacheKey) o;
+        return hash == other.hash && type == other.type && paramsHigh == other.paramsHigh && paramsLow == other.paramsLow
+                && url.equals(other.url) && information.equals(other.information);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return url + " " + Long.toHexString(paramsHigh) + Long.toHexString(paramsLow) + " " + information;
+    }
+}
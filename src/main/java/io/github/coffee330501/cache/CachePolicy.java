@@ -0,0 +1,42 @@
+package io.github.coffee330501.cache;
+
+import io.github.coffee330501.config.CachePolicyConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 目标地址的缓存策略
+ */
+public class CachePolicy {
+    private final long ttl;
+    private final long staleWhileRevalidate;
+    /**
+     * 为null时使用全部用户信息
+     */
+    private final List<String> informationKeys;
+
+    public CachePolicy(long ttl, long staleWhileRevalidate, List<String> informationKeys) {
+        this.ttl = ttl;
+        this.staleWhileRevalidate = Math.max(0, staleWhileRevalidate);
+        this.informationKeys = informationKeys == null || informationKeys.isEmpty() ? null
+                : Collections.unmodifiableList(new ArrayList<>(informationKeys));
+    }
+
+    static CachePolicy of(CachePolicyConfig config) {
+        return new CachePolicy(config.getTtl(), config.getStaleWhileRevalidate(), config.getInformationKeys());
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public long getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public List<String> getInformationKeys() {
+        return informationKeys;
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.coffee330501.cache;
+
+import io.github.coffee330501.config.CacheConfig;
+import io.github.coffee330501.config.CachePolicyConfig;
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.utils.PathPolicyResolver;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 调用方结果缓存
+ * 策略按目标地址路径匹配 internal.call.cache.targets 或通过 {@link #cache} 注册，未匹配的调用不缓存；
+ * 结果按key哈希分散到多个分段，每个分段按最近访问顺序淘汰
+ */
+public class InternalCallCache {
+    private static final int MAX_TARGETS = 1024;
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    private final PathPolicyResolver<CachePolicy> targets = new PathPolicyResolver<>(null, MAX_TARGETS);
+    private Stripe[] stripes;
+    private int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        CacheConfig config = internalCallConfig.getCache();
+        if (config.getTargets() != null) {
+            for (CachePolicyConfig policyConfig : config.getTargets()) {
+                targets.add(policyConfig.getPattern(), CachePolicy.of(policyConfig));
+            }
+        }
+        int size = 1;
+        while (size < Runtime.getRuntime().availableProcessors() * 4) size <<= 1;
+        int stripeSize = Math.max(1, config.getMaxSize() / size);
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) stripes[i] = new Stripe(stripeSize);
+        mask = size - 1;
+    }
+
+    /**
+     * 注册缓存策略，优先于配置的策略
+     *
+     * @param pattern              目标地址路径，支持Ant风格通配符
+     * @param ttl                  缓存有效期，毫秒
+     * @param staleWhileRevalidate 过期后仍可返回旧结果并后台刷新的时间，毫秒
+     */
+    public void cache(String pattern, long ttl, long staleWhileRevalidate) {
+        targets.addFirst(pattern, new CachePolicy(ttl, staleWhileRevalidate, null));
+    }
+
+    /**
+     * 目标地址的缓存策略
+     *
+     * @return 不缓存时返回null
+     */
+    public CachePolicy policy(String url) {
+        return targets.resolve(url);
+    }
+
+    public CacheKey key(String url, Object type, Object params, Map<String, String> information, CachePolicy policy) {
+        return new CacheKey(url, type, params, information, policy.getInformationKeys());
+    }
+
+    /**
+     * 查询缓存，同时统计命中次数
+     *
+     * @return 未缓存或已超过可返回旧结果的时间时返回null
+     */
+    public CacheEntry get(CacheKey key) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = stripe(key).get(key, now);
+        if (entry == null) {
+            misses.increment();
+        } else if (entry.isStale(now)) {
+            staleHits.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    public void put(CacheKey key, Object value, CachePolicy policy) {
+        long now = System.currentTimeMillis();
+        long expireAt = now + policy.getTtl();
+        stripe(key).put(key, new CacheEntry(value, expireAt, expireAt + policy.getStaleWhileRevalidate()));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) stripe.clear();
+    }
+
+    /**
+     * 命中（hits）、命中旧结果（staleHits）、未命中（misses）、淘汰（evictions）次数与当前结果数（size）
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        long size = 0;
+        for (Stripe stripe : stripes) size += stripe.size();
+        stats.put("size", size);
+        return stats;
+    }
+
+    private Stripe stripe(CacheKey key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private class Stripe {
+        private final LinkedHashMap<CacheKey, CacheEntry> entries;
+
+        Stripe(int maxSize) {
+            this.entries = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                    if (size() <= maxSize) return false;
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        synchronized CacheEntry get(CacheKey key, long now) {
+            CacheEntry entry = entries.get(key);
+            if (entry == null || !entry.isExpired(now)) return entry;
+            entries.remove(key);
+            return null;
+        }
+
+        synchronized void put(CacheKey key, CacheEntry entry) {
+            entries.put(key, entry);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.coffee330501.collapse;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import com.alibaba.fastjson2.JSON;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并并发的相同内部调用
+ * 方法、参数与用户信息序列化后的指纹相同的请求，第一个请求执行方法，执行期间到达的请求等待并共用其结果或异常；
+ * 执行结束后即移除，之后到达的请求重新执行。参数无法序列化时不合并；
+ * 等待超过超时时间时不再等待，自行执行
+ */
+public class InternalCallCollapser {
+    private final Map<Key, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * 实际执行的调用
+     */
+    public interface Invocation {
+        Object proceed() throws Throwable;
+    }
+
+    /**
+     * @param information 请求携带的用户信息，结果可能与用户相关，一并计入指纹
+     * @param timeout     等待首个请求结果的最长时间，毫秒，不大于0时一直等待
+     */
+    public Object execute(Method method, Object[] args, Map<String, String> information, long timeout,
+                          Invocation invocation) throws Throwable {
+        Key key = key(method, args, information);
+        if (key == null) return invocation.proceed();
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing, timeout, invocation);
+        }
+        executions.increment();
+        try {
+            Object result = invocation.proceed();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, future);
+        }
+    }
+
+    /**
+     * 实际执行次数
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * 合并到其他请求的次数
+     */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    /**
+     * 等待超时后自行执行的次数
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 超时说明首个请求执行过久，不再占用当前线程等待，改为自行执行
+     */
+    private Object await(CompletableFuture<Object> future, long timeout, Invocation invocation) throws Throwable {
+        try {
+            return timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            collapsed.decrement();
+            timeouts.increment();
+            executions.increment();
+            return invocation.proceed();
+        } catch (ExecutionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * request、response与流参数不参与指纹
+     */
+    private Key key(Method method, Object[] args, Map<String, String> information) {
+        List<Object> values = new ArrayList<>(args.length + 1);
+        for (Object arg : args) {
+            if (arg instanceof ServletRequest || arg instanceof ServletResponse
+                    || arg instanceof InputStream || arg instanceof OutputStream) continue;
+            values.add(arg);
+        }
+        if (information != null && !information.isEmpty()) values.add(new TreeMap<>(information));
+        byte[] bytes;
+        try {
+            bytes = JSON.toJSONBytes(values);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        long[] hash = MurmurHash.hash128(bytes);
+        return new Key(method, hash[0], hash[1]);
+    }
+
+    private static final class Key {
+        private final Method method;
+        private final long high;
+        private final long low;
+
+        Key(Method method, long high, long low) {
+            this.method = method;
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return high == other.high && low == other.low && method.equals(other.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, high, low);
+        }
+    }
+}
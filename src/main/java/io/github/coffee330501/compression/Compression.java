@@ -0,0 +1,112 @@
+package io.github.coffee330501.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * gzip、deflate 编码协商与流式压缩、解压
+ * Deflater、Inflater 按线程复用，使用时从当前线程借出，结束后归还；同一线程同时需要多个时新建
+ */
+public final class Compression {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    /**
+     * 可解压的编码，用于Accept-Encoding
+     */
+    public static final String SUPPORTED_ENCODINGS = GZIP + ", " + DEFLATE;
+
+    private static final ThreadLocal<Deflater> RAW_DEFLATERS = new ThreadLocal<>();
+    private static final ThreadLocal<Deflater> ZLIB_DEFLATERS = new ThreadLocal<>();
+    private static final ThreadLocal<Inflater> RAW_INFLATERS = new ThreadLocal<>();
+    private static final ThreadLocal<Inflater> ZLIB_INFLATERS = new ThreadLocal<>();
+
+    private Compression() {
+    }
+
+    /**
+     * 按Accept-Encoding选择编码，优先gzip
+     *
+     * @return 不支持时返回null
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        boolean deflate = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String encoding = parts[0].trim();
+            if (parts.length > 1 && isZeroQuality(parts[1].trim())) continue;
+            if (GZIP.equalsIgnoreCase(encoding)) return GZIP;
+            if (DEFLATE.equalsIgnoreCase(encoding)) deflate = true;
+        }
+        return deflate ? DEFLATE : null;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        if (!parameter.startsWith("q=")) return false;
+        try {
+            return Double.parseDouble(parameter.substring(2).trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public static boolean isSupported(String contentEncoding) {
+        return GZIP.equalsIgnoreCase(contentEncoding) || DEFLATE.equalsIgnoreCase(contentEncoding);
+    }
+
+    /**
+     * 压缩写入out，写完后需调用finish或close
+     */
+    public static DeflatingOutputStream compress(OutputStream out, String encoding, int level) throws IOException {
+        return new DeflatingOutputStream(out, GZIP.equalsIgnoreCase(encoding), level);
+    }
+
+    /**
+     * 解压读取in，读取完毕或关闭时归还Inflater
+     */
+    public static InputStream decompress(InputStream in, String encoding) throws IOException {
+        return new InflatingInputStream(in, GZIP.equalsIgnoreCase(encoding));
+    }
+
+    static Deflater borrowDeflater(boolean nowrap, int level) {
+        ThreadLocal<Deflater> cache = nowrap ? RAW_DEFLATERS : ZLIB_DEFLATERS;
+        Deflater deflater = cache.get();
+        if (deflater == null) return new Deflater(level, nowrap);
+        cache.set(null);
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    static void release(Deflater deflater, boolean nowrap) {
+        ThreadLocal<Deflater> cache = nowrap ? RAW_DEFLATERS : ZLIB_DEFLATERS;
+        if (cache.get() == null) {
+            deflater.reset();
+            cache.set(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    static Inflater borrowInflater(boolean nowrap) {
+        ThreadLocal<Inflater> cache = nowrap ? RAW_INFLATERS : ZLIB_INFLATERS;
+        Inflater inflater = cache.get();
+        if (inflater == null) return new Inflater(nowrap);
+        cache.set(null);
+        return inflater;
+    }
+
+    static void release(Inflater inflater, boolean nowrap) {
+        ThreadLocal<Inflater> cache = nowrap ? RAW_INFLATERS : ZLIB_INFLATERS;
+        if (cache.get() == null) {
+            inflater.reset();
+            cache.set(inflater);
+        } else {
+            inflater.end();
+        }
+    }
+}
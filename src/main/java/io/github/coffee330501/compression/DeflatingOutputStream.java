@@ -0,0 +1,100 @@
+package io.github.coffee330501.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 流式压缩，gzip格式自行写入头尾以复用线程的Deflater
+ * finish只结束压缩不关闭out，close同时关闭out，写出失败时调用abort归还Deflater
+ */
+public class DeflatingOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final boolean gzip;
+    private final CRC32 crc;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private Deflater deflater;
+
+    DeflatingOutputStream(OutputStream out, boolean gzip, int level) throws IOException {
+        this.out = out;
+        this.gzip = gzip;
+        this.crc = gzip ? new CRC32() : null;
+        this.deflater = Compression.borrowDeflater(gzip, level);
+        if (gzip) out.write(GZIP_HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (deflater == null) throw new IOException("Stream finished");
+        if (len == 0) return;
+        if (gzip) crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+    }
+
+    /**
+     * 写入剩余压缩数据与gzip尾部，归还Deflater
+     */
+    public void finish() throws IOException {
+        if (deflater == null) return;
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            if (gzip) {
+                writeInt((int) crc.getValue());
+                writeInt((int) deflater.getBytesRead());
+            }
+        } finally {
+            Compression.release(deflater, gzip);
+            deflater = null;
+        }
+    }
+
+    /**
+     * 写出失败时调用，归还Deflater，不再写出剩余数据
+     */
+    public void abort() {
+        if (deflater == null) return;
+        Compression.release(deflater, gzip);
+        deflater = null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void deflate() throws IOException {
+        int length = deflater.deflate(buffer, 0, buffer.length);
+        if (length > 0) out.write(buffer, 0, length);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.coffee330501.compression;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 流式解压，gzip格式自行解析头尾以复用线程的Inflater
+ * 读取到结尾或关闭时归还Inflater
+ */
+public class InflatingInputStream extends InputStream {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream in;
+    private final boolean gzip;
+    private final CRC32 crc;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferLength;
+    private Inflater inflater;
+    private boolean eof;
+
+    InflatingInputStream(InputStream in, boolean gzip) throws IOException {
+        this.in = in;
+        this.gzip = gzip;
+        this.crc = gzip ? new CRC32() : null;
+        if (gzip) readHeader();
+        this.inflater = Compression.borrowInflater(gzip);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (eof) return -1;
+        if (inflater == null) throw new IOException("Stream closed");
+        if (len == 0) return 0;
+        try {
+            while (true) {
+                int n = inflater.inflate(b, off, len);
+                if (n > 0) {
+                    if (gzip) crc.update(b, off, n);
+                    return n;
+                }
+                if (inflater.finished()) {
+                    if (gzip) readTrailer();
+                    eof = true;
+                    releaseInflater();
+                    return -1;
+                }
+                if (inflater.needsDictionary()) throw new ZipException("Compressed stream needs dictionary");
+                if (inflater.needsInput()) fill();
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        releaseInflater();
+        eof = true;
+        in.close();
+    }
+
+    private void fill() throws IOException {
+        bufferLength = in.read(buffer, 0, buffer.length);
+        if (bufferLength < 0) throw new EOFException("Unexpected end of compressed stream");
+        inflater.setInput(buffer, 0, bufferLength);
+    }
+
+    private void releaseInflater() {
+        if (inflater == null) return;
+        Compression.release(inflater, gzip);
+        inflater = null;
+    }
+
+    private void readHeader() throws IOException {
+        if (readUnsignedByte() != 0x1f || readUnsignedByte() != 0x8b) throw new ZipException("Not in GZIP format");
+        if (readUnsignedByte() != 8) throw new ZipException("Unsupported compression method");
+        int flags = readUnsignedByte();
+        // mtime、xfl、os
+        for (int i = 0; i < 6; i++) readUnsignedByte();
+        if ((flags & FEXTRA) != 0) {
+            int length = readUnsignedByte() | (readUnsignedByte() << 8);
+            for (int i = 0; i < length; i++) readUnsignedByte();
+        }
+        if ((flags & FNAME) != 0) {
+            while (readUnsignedByte() != 0) ;
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (readUnsignedByte() != 0) ;
+        }
+        if ((flags & FHCRC) != 0) {
+            readUnsignedByte();
+            readUnsignedByte();
+        }
+    }
+
+    /**
+     * gzip尾部：CRC32与原始长度，先取Inflater未消费的输入
+     */
+    private void readTrailer() throws IOException {
+        int remaining = inflater.getRemaining();
+        int offset = bufferLength - remaining;
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < trailer.length; i++) {
+            trailer[i] = (byte) (i < remaining ? buffer[offset + i] : readUnsignedByte());
+        }
+        long expectedCrc = readUnsignedInt(trailer, 0);
+        long expectedSize = readUnsignedInt(trailer, 4);
+        if (expectedCrc != crc.getValue()) throw new ZipException("Corrupt GZIP trailer");
+        if (expectedSize != (inflater.getBytesWritten() & 0xffffffffL)) throw new ZipException("Corrupt GZIP trailer");
+    }
+
+    private int readUnsignedByte() throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException("Unexpected end of compressed stream");
+        return b;
+    }
+
+    private long readUnsignedInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xffL)
+                | ((bytes[offset + 1] & 0xffL) << 8)
+                | ((bytes[offset + 2] & 0xffL) << 16)
+                | ((bytes[offset + 3] & 0xffL) << 24);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.coffee330501.config;
+
+/**
+ * 批量调用配置 internal.call.batch.*
+ */
+public class BatchConfig {
+    /**
+     * 是否开启服务端批量调用接口
+     */
+    private boolean enabled = false;
+    /**
+     * 批量调用接口路径
+     */
+    private String path = "/internal-call/batch";
+    /**
+     * 单次批量调用最多包含的调用数
+     */
+    private int maxSize = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchConfig{" +
+                "enabled=" + enabled +
+                ", path='" + path + '\'' +
+                ", maxSize=" + maxSize +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.coffee330501.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 调用方结果缓存配置 internal.call.cache.*
+ * 只缓存路径匹配targets的调用（也可通过InternalCallCache.cache注册），用于只读查询接口
+ */
+public class CacheConfig {
+    /**
+     * 最多缓存的结果数，超过时淘汰最久未访问的结果
+     */
+    private int maxSize = 10000;
+    /**
+     * 按目标地址路径的缓存策略，按顺序匹配第一个
+     */
+    private List<CachePolicyConfig> targets = new ArrayList<>();
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public List<CachePolicyConfig> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(List<CachePolicyConfig> targets) {
+        this.targets = targets;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheConfig{" +
+                "maxSize=" + maxSize +
+                ", targets=" + targets +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.coffee330501.config;
+
+import java.util.List;
+
+/**
+ * 按目标地址路径的结果缓存策略 internal.call.cache.targets[n].*
+ * 时间单位均为毫秒
+ */
+public class CachePolicyConfig {
+    /**
+     * 目标地址路径，支持Ant风格通配符，如 /dict/**
+     */
+    private String pattern;
+    /**
+     * 缓存有效期
+     */
+    private long ttl = 60 * 1000L;
+    /**
+     * 过期后仍可返回旧结果的时间，期间返回旧结果并在后台刷新
+     */
+    private long staleWhileRevalidate = 0;
+    /**
+     * 参与缓存key的用户信息（InformationTransmitter）键，为空时使用全部
+     */
+    private List<String> informationKeys;
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public List<String> getInformationKeys() {
+        return informationKeys;
+    }
+
+    public void setInformationKeys(List<String> informationKeys) {
+        this.informationKeys = informationKeys;
+    }
+
+    @Override
+    public String toString() {
+        return "CachePolicyConfig{" +
+                "pattern='" + pattern + '\'' +
+                ", ttl=" + ttl +
+                ", staleWhileRevalidate=" + staleWhileRevalidate +
+                ", informationKeys=" + informationKeys +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.coffee330501.config;
+
+/**
+ * 内部调用请求体、响应体压缩配置 internal.call.compression.*
+ * 双方协商：调用方通过Accept-Encoding声明可解压的编码，被调用方在响应头Accept-Encoding中声明可解压的编码，
+ * 调用方收到声明后才压缩请求体
+ */
+public class CompressionConfig {
+    /**
+     * 是否开启压缩（gzip、deflate）
+     */
+    private boolean enabled = false;
+    /**
+     * 超过该字节数才压缩
+     */
+    private int threshold = 2048;
+    /**
+     * 压缩级别 1~9，越大压缩率越高、耗时越长
+     */
+    private int level = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionConfig{" +
+                "enabled=" + enabled +
+                ", threshold=" + threshold +
+                ", level=" + level +
+                '}';
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.coffee330501.config;
+
+/**
+ * 内部调用HTTP连接池配置 internal.call.http.*
+ * 时间单位均为毫秒
+ */
+public class HttpClientConfig {
+    /**
+     * 连接池最大连接数
+     */
+    private int maxTotal = 200;
+    /**
+     * 每个路由（目标host）最大连接数
+     */
+    private int maxPerRoute = 50;
+    /**
+     * 服务端未返回Keep-Alive时连接的默认保活时间
+     */
+    private long keepAlive = 30 * 1000L;
+    /**
+     * 空闲超过该时间的连接将被后台线程回收
+     */
+    private long maxIdleTime = 60 * 1000L;
+    /**
+     * 连接空闲超过该时间后再次使用前先校验
+     */
+    private int validateAfterInactivity = 2000;
+    /**
+     * 建立连接超时时间
+     */
+    private int connectTimeout = 3000;
+    /**
+     * 读取响应超时时间
+     */
+    private int readTimeout = 30 * 1000;
+    /**
+     * 从连接池获取连接的超时时间
+     */
+    private int connectionRequestTimeout = 1000;
+    /**
+     * 异步调用（postAsync）的IO线程数
+     */
+    private int ioThreads = Runtime.getRuntime().availableProcessors();
+    /**
+     * 请求体（字节数）小于该值时序列化为字节数组以定长发送，否则流式chunked发送；
+     * 发送前无法得知长度，按同一调用地址上次请求体的大小判断，首次调用按定长发送
+     */
+    private int streamThreshold = 32 * 1024;
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public long getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(long maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(int validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public int getStreamThreshold() {
+        return streamThreshold;
+    }
+
+    public void setStreamThreshold(int streamThreshold) {
+        this.streamThreshold = streamThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientConfig{" +
+                "maxTotal=" + maxTotal +
+                ", maxPerRoute=" + maxPerRoute +
+                ", keepAlive=" + keepAlive +
+                ", maxIdleTime=" + maxIdleTime +
+                ", validateAfterInactivity=" + validateAfterInactivity +
+                ", connectTimeout=" + connectTimeout +
+                ", readTimeout=" + readTimeout +
+                ", connectionRequestTimeout=" + connectionRequestTimeout +
+                ", ioThreads=" + ioThreads +
+                ", streamThreshold=" + streamThreshold +
+                '}';
+    }
+}
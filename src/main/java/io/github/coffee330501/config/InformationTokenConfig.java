@@ -0,0 +1,67 @@
+package io.github.coffee330501.config;
+
+/**
+ * 用户信息令牌配置 internal.call.information-token.*
+ * 调用方将用户信息编码为一个使用私钥签名的令牌，通过单个请求头发送，被调用方验签后使用，令牌中的用户信息不可篡改
+ */
+public class InformationTokenConfig {
+    /**
+     * 调用方是否以令牌发送用户信息，被调用方始终接受令牌
+     */
+    private boolean enabled = false;
+    /**
+     * 被调用方是否只接受令牌中的用户信息，开启后忽略逐个请求头传递的用户信息；
+     * 未开启时逐个请求头传递的用户信息不在签名范围内，仍可被伪造
+     */
+    private boolean required = false;
+    /**
+     * 令牌有效期，单位秒，调用方在有效期过半后重新签发
+     */
+    private int ttl = 300;
+    /**
+     * 调用方缓存的令牌数与被调用方缓存的已验签令牌数上限
+     */
+    private int cacheSize = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    public void setRequired(boolean required) {
+        this.required = required;
+    }
+
+    public int getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(int ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return "InformationTokenConfig{" +
+                "enabled=" + enabled +
+                ", required=" + required +
+                ", ttl=" + ttl +
+                ", cacheSize=" + cacheSize +
+                '}';
+    }
+}
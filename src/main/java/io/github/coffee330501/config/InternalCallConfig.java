@@ -1,11 +1,67 @@
 package io.github.coffee330501.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @ConfigurationProperties("internal.call")
 public class InternalCallConfig {
     private String publicKey;
     private String privateKey;
+    /**
+     * 签名算法：RSA、ED25519、ECDSA
+     */
+    private String algorithm = "RSA";
+    /**
+     * 签名使用的密钥ID，通过请求头kid传递
+     */
+    private String keyId;
+    /**
+     * 密钥ID -> 公钥，用于按kid验签及不停机轮换密钥
+     */
+    private Map<String, String> publicKeys = new HashMap<>();
+    /**
+     * 重复请求检查存储：memory（默认，本机内存）、redis（多实例共享）
+     */
+    private String nonceStore = "memory";
+    /**
+     * 是否在读取请求体之前通过过滤器验签与检查重复请求
+     */
+    private boolean earlyVerify = true;
+    /**
+     * 调用方是否优先使用JSONB二进制格式，被调用方以JSONB响应后请求体也改用JSONB，不支持时仍使用JSON
+     */
+    private boolean jsonb = false;
+    /**
+     * 合并的调用等待首个调用结果的最长时间，单位毫秒，超时后自行执行，不大于0时一直等待
+     */
+    private long collapseTimeout = 3000L;
+    @NestedConfigurationProperty
+    private HttpClientConfig http = new HttpClientConfig();
+    @NestedConfigurationProperty
+    private BatchConfig batch = new BatchConfig();
+    @NestedConfigurationProperty
+    private SessionConfig session = new SessionConfig();
+    @NestedConfigurationProperty
+    private RedisNonceConfig redisNonce = new RedisNonceConfig();
+    @NestedConfigurationProperty
+    private LogConfig log = new LogConfig();
+    @NestedConfigurationProperty
+    private MetricsConfig metrics = new MetricsConfig();
+    @NestedConfigurationProperty
+    private ResilienceConfig resilience = new ResilienceConfig();
+    @NestedConfigurationProperty
+    private LoadBalancerConfig loadBalancer = new LoadBalancerConfig();
+    @NestedConfigurationProperty
+    private CompressionConfig compression = new CompressionConfig();
+    @NestedConfigurationProperty
+    private LimitConfig limit = new LimitConfig();
+    @NestedConfigurationProperty
+    private CacheConfig cache = new CacheConfig();
+    @NestedConfigurationProperty
+    private InformationTokenConfig informationToken = new InformationTokenConfig();
 
     public String getPublicKey() {
         return publicKey;
@@ -23,11 +79,182 @@ public class InternalCallConfig {
         this.privateKey = privateKey;
     }
 
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public Map<String, String> getPublicKeys() {
+        return publicKeys;
+    }
+
+    public void setPublicKeys(Map<String, String> publicKeys) {
+        this.publicKeys = publicKeys;
+    }
+
+    public String getNonceStore() {
+        return nonceStore;
+    }
+
+    public void setNonceStore(String nonceStore) {
+        this.nonceStore = nonceStore;
+    }
+
+    public boolean isEarlyVerify() {
+        return earlyVerify;
+    }
+
+    public void setEarlyVerify(boolean earlyVerify) {
+        this.earlyVerify = earlyVerify;
+    }
+
+    public boolean isJsonb() {
+        return jsonb;
+    }
+
+    public void setJsonb(boolean jsonb) {
+        this.jsonb = jsonb;
+    }
+
+    public long getCollapseTimeout() {
+        return collapseTimeout;
+    }
+
+    public void setCollapseTimeout(long collapseTimeout) {
+        this.collapseTimeout = collapseTimeout;
+    }
+
+    public HttpClientConfig getHttp() {
+        return http;
+    }
+
+    public void setHttp(HttpClientConfig http) {
+        this.http = http;
+    }
+
+    public BatchConfig getBatch() {
+        return batch;
+    }
+
+    public void setBatch(BatchConfig batch) {
+        this.batch = batch;
+    }
+
+    public SessionConfig getSession() {
+        return session;
+    }
+
+    public void setSession(SessionConfig session) {
+        this.session = session;
+    }
+
+    public RedisNonceConfig getRedisNonce() {
+        return redisNonce;
+    }
+
+    public void setRedisNonce(RedisNonceConfig redisNonce) {
+        this.redisNonce = redisNonce;
+    }
+
+    public LogConfig getLog() {
+        return log;
+    }
+
+    public void setLog(LogConfig log) {
+        this.log = log;
+    }
+
+    public MetricsConfig getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(MetricsConfig metrics) {
+        this.metrics = metrics;
+    }
+
+    public ResilienceConfig getResilience() {
+        return resilience;
+    }
+
+    public void setResilience(ResilienceConfig resilience) {
+        this.resilience = resilience;
+    }
+
+    public LoadBalancerConfig getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    public void setLoadBalancer(LoadBalancerConfig loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    public CompressionConfig getCompression() {
+        return compression;
+    }
+
+    public void setCompression(CompressionConfig compression) {
+        this.compression = compression;
+    }
+
+    public LimitConfig getLimit() {
+        return limit;
+    }
+
+    public void setLimit(LimitConfig limit) {
+        this.limit = limit;
+    }
+
+    public CacheConfig getCache() {
+        return cache;
+    }
+
+    public void setCache(CacheConfig cache) {
+        this.cache = cache;
+    }
+
+    public InformationTokenConfig getInformationToken() {
+        return informationToken;
+    }
+
+    public void setInformationToken(InformationTokenConfig informationToken) {
+        this.informationToken = informationToken;
+    }
+
     @Override
     public String toString() {
         return "InternalCallConfig{" +
                 "publicKey='" + publicKey + '\'' +
                 ", privateKey='" + privateKey + '\'' +
+                ", algorithm='" + algorithm + '\'' +
+                ", keyId='" + keyId + '\'' +
+                ", publicKeys=" + publicKeys +
+                ", nonceStore='" + nonceStore + '\'' +
+                ", earlyVerify=" + earlyVerify +
+                ", jsonb=" + jsonb +
+                ", collapseTimeout=" + collapseTimeout +
+                ", http=" + http +
+                ", batch=" + batch +
+                ", session=" + session +
+                ", redisNonce=" + redisNonce +
+                ", log=" + log +
+                ", metrics=" + metrics +
+                ", resilience=" + resilience +
+                ", loadBalancer=" + loadBalancer +
+                ", compression=" + compression +
+                ", limit=" + limit +
+                ", cache=" + cache +
+                ", informationToken=" + informationToken +
                 '}';
     }
 }
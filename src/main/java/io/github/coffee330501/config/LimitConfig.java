@@ -0,0 +1,123 @@
+package io.github.coffee330501.config;
+
+/**
+ * 被调用方自适应并发限制配置 internal.call.limit.*
+ * 按耗时变化调整并发上限：近期耗时高于长期平均时降低上限，否则逐步提高；
+ * 每个内部调用方法与整个服务各有一个上限，超过时直接返回429
+ */
+public class LimitConfig {
+    /**
+     * 是否开启并发限制
+     */
+    private boolean enabled = false;
+    /**
+     * 每个方法的初始、最小、最大并发上限
+     */
+    private int initialLimit = 20;
+    private int minLimit = 5;
+    private int maxLimit = 200;
+    /**
+     * 整个服务的初始、最大并发上限，最小值同minLimit
+     */
+    private int globalInitialLimit = 100;
+    private int globalMaxLimit = 1000;
+    /**
+     * 近期耗时不超过长期平均的该倍数时视为未排队
+     */
+    private double rttTolerance = 1.5;
+    /**
+     * 上限调整的平滑系数 0~1，越大调整越快
+     */
+    private double smoothing = 0.2;
+    /**
+     * 采样窗口，毫秒，每个窗口（至少10次调用）调整一次上限
+     */
+    private long window = 1000L;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public int getGlobalInitialLimit() {
+        return globalInitialLimit;
+    }
+
+    public void setGlobalInitialLimit(int globalInitialLimit) {
+        this.globalInitialLimit = globalInitialLimit;
+    }
+
+    public int getGlobalMaxLimit() {
+        return globalMaxLimit;
+    }
+
+    public void setGlobalMaxLimit(int globalMaxLimit) {
+        this.globalMaxLimit = globalMaxLimit;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    @Override
+    public String toString() {
+        return "LimitConfig{" +
+                "enabled=" + enabled +
+                ", initialLimit=" + initialLimit +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                ", globalInitialLimit=" + globalInitialLimit +
+                ", globalMaxLimit=" + globalMaxLimit +
+                ", rttTolerance=" + rttTolerance +
+                ", smoothing=" + smoothing +
+                ", window=" + window +
+                '}';
+    }
+}
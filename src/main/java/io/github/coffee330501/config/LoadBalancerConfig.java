@@ -0,0 +1,84 @@
+package io.github.coffee330501.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 调用方负载均衡配置 internal.call.load-balancer.*
+ * 时间单位均为毫秒
+ */
+public class LoadBalancerConfig {
+    /**
+     * 服务名 -> 实例地址列表，如 user-service: http://10.0.0.1:8080,http://10.0.0.2:8080
+     * 调用地址的host为服务名时（如 http://user-service/user/get）按负载均衡选择实例
+     */
+    private Map<String, List<String>> services = new LinkedHashMap<>();
+    /**
+     * 实例耗时EWMA的衰减时间常数
+     */
+    private long ewmaDecay = 10 * 1000L;
+    /**
+     * 实例连续失败达到该次数后暂时摘除
+     */
+    private int consecutiveFailures = 5;
+    /**
+     * 摘除时间，同一实例多次被摘除时按次数递增，最多10倍
+     */
+    private long ejectionDuration = 30 * 1000L;
+    /**
+     * 单个服务最多同时摘除的实例比例，0~1
+     */
+    private double maxEjectionPercent = 0.5;
+
+    public Map<String, List<String>> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, List<String>> services) {
+        this.services = services;
+    }
+
+    public long getEwmaDecay() {
+        return ewmaDecay;
+    }
+
+    public void setEwmaDecay(long ewmaDecay) {
+        this.ewmaDecay = ewmaDecay;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public long getEjectionDuration() {
+        return ejectionDuration;
+    }
+
+    public void setEjectionDuration(long ejectionDuration) {
+        this.ejectionDuration = ejectionDuration;
+    }
+
+    public double getMaxEjectionPercent() {
+        return maxEjectionPercent;
+    }
+
+    public void setMaxEjectionPercent(double maxEjectionPercent) {
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadBalancerConfig{" +
+                "services=" + services +
+                ", ewmaDecay=" + ewmaDecay +
+                ", consecutiveFailures=" + consecutiveFailures +
+                ", ejectionDuration=" + ejectionDuration +
+                ", maxEjectionPercent=" + maxEjectionPercent +
+                '}';
+    }
+}
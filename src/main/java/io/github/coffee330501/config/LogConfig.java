@@ -0,0 +1,176 @@
+package io.github.coffee330501.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内部调用日志配置 internal.call.log.*
+ */
+public class LogConfig {
+    /**
+     * 是否异步批量投递日志，开启后日志处理不再占用调用线程
+     */
+    private boolean async = false;
+    /**
+     * 日志缓冲区容量，向上取整为2的幂
+     */
+    private int bufferSize = 8192;
+    /**
+     * 单次投递给InternalCallLogHandler的最大日志条数
+     */
+    private int batchSize = 256;
+    /**
+     * 投递线程数
+     */
+    private int consumerThreads = 1;
+    /**
+     * 缓冲区满时的处理方式
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    /**
+     * 采样率，0~1，1为全部记录
+     */
+    private double sampleRate = 1.0;
+    /**
+     * 未被采样的调用出现异常时是否仍记录
+     */
+    private boolean alwaysLogErrors = true;
+    /**
+     * 入参与返回数据的记录方式
+     */
+    private Payload payload = Payload.FULL;
+    /**
+     * payload为TRUNCATED时保留的最大字符数
+     */
+    private int maxPayloadLength = 1024;
+    /**
+     * 按接口路径配置的日志策略，按顺序匹配第一个，未配置的项使用以上默认值
+     */
+    private List<LogPolicyConfig> policies = new ArrayList<>();
+
+    public enum OverflowPolicy {
+        /**
+         * 等待缓冲区空出位置
+         */
+        BLOCK,
+        /**
+         * 丢弃缓冲区中最早的日志
+         */
+        DROP_OLDEST,
+        /**
+         * 丢弃当前日志
+         */
+        DROP_NEWEST
+    }
+
+    public enum Payload {
+        /**
+         * 不记录
+         */
+        OFF,
+        /**
+         * 记录时序列化为JSON并截断
+         */
+        TRUNCATED,
+        /**
+         * 记录原始对象
+         */
+        FULL
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getConsumerThreads() {
+        return consumerThreads;
+    }
+
+    public void setConsumerThreads(int consumerThreads) {
+        this.consumerThreads = consumerThreads;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean isAlwaysLogErrors() {
+        return alwaysLogErrors;
+    }
+
+    public void setAlwaysLogErrors(boolean alwaysLogErrors) {
+        this.alwaysLogErrors = alwaysLogErrors;
+    }
+
+    public Payload getPayload() {
+        return payload;
+    }
+
+    public void setPayload(Payload payload) {
+        this.payload = payload;
+    }
+
+    public int getMaxPayloadLength() {
+        return maxPayloadLength;
+    }
+
+    public void setMaxPayloadLength(int maxPayloadLength) {
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    public List<LogPolicyConfig> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<LogPolicyConfig> policies) {
+        this.policies = policies;
+    }
+
+    @Override
+    public String toString() {
+        return "LogConfig{" +
+                "async=" + async +
+                ", bufferSize=" + bufferSize +
+                ", batchSize=" + batchSize +
+                ", consumerThreads=" + consumerThreads +
+                ", overflowPolicy=" + overflowPolicy +
+                ", sampleRate=" + sampleRate +
+                ", alwaysLogErrors=" + alwaysLogErrors +
+                ", payload=" + payload +
+                ", maxPayloadLength=" + maxPayloadLength +
+                ", policies=" + policies +
+                '}';
+    }
+}
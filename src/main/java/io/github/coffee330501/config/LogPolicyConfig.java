@@ -0,0 +1,67 @@
+package io.github.coffee330501.config;
+
+/**
+ * 按接口路径的日志策略 internal.call.log.policies[n].*
+ * 未配置的项使用 internal.call.log.* 的默认值
+ */
+public class LogPolicyConfig {
+    /**
+     * 接口路径，支持Ant风格通配符，如 /user/**
+     */
+    private String pattern;
+    private Double sampleRate;
+    private Boolean alwaysLogErrors;
+    private LogConfig.Payload payload;
+    private Integer maxPayloadLength;
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public Double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(Double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Boolean getAlwaysLogErrors() {
+        return alwaysLogErrors;
+    }
+
+    public void setAlwaysLogErrors(Boolean alwaysLogErrors) {
+        this.alwaysLogErrors = alwaysLogErrors;
+    }
+
+    public LogConfig.Payload getPayload() {
+        return payload;
+    }
+
+    public void setPayload(LogConfig.Payload payload) {
+        this.payload = payload;
+    }
+
+    public Integer getMaxPayloadLength() {
+        return maxPayloadLength;
+    }
+
+    public void setMaxPayloadLength(Integer maxPayloadLength) {
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    @Override
+    public String toString() {
+        return "LogPolicyConfig{" +
+                "pattern='" + pattern + '\'' +
+                ", sampleRate=" + sampleRate +
+                ", alwaysLogErrors=" + alwaysLogErrors +
+                ", payload=" + payload +
+                ", maxPayloadLength=" + maxPayloadLength +
+                '}';
+    }
+}
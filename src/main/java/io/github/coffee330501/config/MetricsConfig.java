@@ -0,0 +1,65 @@
+package io.github.coffee330501.config;
+
+/**
+ * 内部调用统计配置 internal.call.metrics.*
+ */
+public class MetricsConfig {
+    /**
+     * 是否记录各阶段耗时与结果计数
+     */
+    private boolean enabled = true;
+    /**
+     * 是否开放统计查询接口，该接口不验签，开启时应限制访问来源
+     */
+    private boolean endpointEnabled = false;
+    /**
+     * 统计查询接口路径
+     */
+    private String path = "/internal-call/metrics";
+    /**
+     * 调用方、被调用方各自最多统计的接口数
+     */
+    private int maxEndpoints = 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEndpointEnabled() {
+        return endpointEnabled;
+    }
+
+    public void setEndpointEnabled(boolean endpointEnabled) {
+        this.endpointEnabled = endpointEnabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getMaxEndpoints() {
+        return maxEndpoints;
+    }
+
+    public void setMaxEndpoints(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsConfig{" +
+                "enabled=" + enabled +
+                ", endpointEnabled=" + endpointEnabled +
+                ", path='" + path + '\'' +
+                ", maxEndpoints=" + maxEndpoints +
+                '}';
+    }
+}
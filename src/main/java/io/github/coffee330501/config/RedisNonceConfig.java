@@ -0,0 +1,65 @@
+package io.github.coffee330501.config;
+
+/**
+ * Redis重复请求检查配置 internal.call.redis-nonce.*，仅在 internal.call.nonce-store=redis 时生效
+ */
+public class RedisNonceConfig {
+    /**
+     * 是否合并多个请求线程的检查，在一次管道往返中完成
+     */
+    private boolean batchEnabled = false;
+    /**
+     * 收到第一个检查后继续等待合并的时间，单位微秒；为0时只合并上一批执行期间到达的检查
+     */
+    private long batchWindow = 0;
+    /**
+     * 单批最多合并的检查数
+     */
+    private int maxBatchSize = 256;
+    /**
+     * 请求线程等待检查结果的超时时间，单位毫秒
+     */
+    private long timeout = 3000;
+
+    public boolean isBatchEnabled() {
+        return batchEnabled;
+    }
+
+    public void setBatchEnabled(boolean batchEnabled) {
+        this.batchEnabled = batchEnabled;
+    }
+
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String toString() {
+        return "RedisNonceConfig{" +
+                "batchEnabled=" + batchEnabled +
+                ", batchWindow=" + batchWindow +
+                ", maxBatchSize=" + maxBatchSize +
+                ", timeout=" + timeout +
+                '}';
+    }
+}
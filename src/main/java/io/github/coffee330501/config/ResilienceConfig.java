@@ -0,0 +1,173 @@
+package io.github.coffee330501.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 调用方对冲请求与熔断配置 internal.call.resilience.*
+ * 时间单位均为毫秒，默认均不开启
+ */
+public class ResilienceConfig {
+    /**
+     * 是否开启对冲请求：首次请求超过对冲延迟仍未返回时，重新签名再发起一次，先返回的结果生效，另一个被取消。仅适用于幂等接口
+     */
+    private boolean hedge = false;
+    /**
+     * 对冲延迟取该目标近期请求耗时的分位数，0~1
+     */
+    private double hedgePercentile = 0.95;
+    /**
+     * 对冲延迟下限；近期耗时样本不足时直接使用该值
+     */
+    private long hedgeDelay = 50;
+    /**
+     * 是否开启熔断：最近调用的失败率或慢调用率超过阈值后，在熔断期内直接拒绝调用
+     */
+    private boolean circuitBreaker = false;
+    /**
+     * 失败率阈值，0~1，网络异常、HTTP状态码异常与系统异常计为失败，业务异常不计
+     */
+    private double failureRateThreshold = 0.5;
+    /**
+     * 耗时超过该值计为慢调用
+     */
+    private long slowCallThreshold = 2000;
+    /**
+     * 慢调用率阈值，0~1
+     */
+    private double slowCallRateThreshold = 0.8;
+    /**
+     * 统计最近多少次调用
+     */
+    private int windowSize = 100;
+    /**
+     * 统计窗口内调用数达到该值才计算失败率
+     */
+    private int minimumCalls = 20;
+    /**
+     * 熔断持续时间，之后进入半开状态
+     */
+    private long openDuration = 10 * 1000L;
+    /**
+     * 半开状态允许的试探调用数，全部成功后恢复，任一失败重新熔断
+     */
+    private int halfOpenCalls = 5;
+    /**
+     * 按目标地址路径配置的策略，按顺序匹配第一个，未配置的项使用以上默认值
+     */
+    private List<ResiliencePolicyConfig> targets = new ArrayList<>();
+
+    public boolean isHedge() {
+        return hedge;
+    }
+
+    public void setHedge(boolean hedge) {
+        this.hedge = hedge;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(long hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    public boolean isCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(boolean circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public long getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public void setSlowCallThreshold(long slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(long openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    public void setHalfOpenCalls(int halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public List<ResiliencePolicyConfig> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(List<ResiliencePolicyConfig> targets) {
+        this.targets = targets;
+    }
+
+    @Override
+    public String toString() {
+        return "ResilienceConfig{" +
+                "hedge=" + hedge +
+                ", hedgePercentile=" + hedgePercentile +
+                ", hedgeDelay=" + hedgeDelay +
+                ", circuitBreaker=" + circuitBreaker +
+                ", failureRateThreshold=" + failureRateThreshold +
+                ", slowCallThreshold=" + slowCallThreshold +
+                ", slowCallRateThreshold=" + slowCallRateThreshold +
+                ", windowSize=" + windowSize +
+                ", minimumCalls=" + minimumCalls +
+                ", openDuration=" + openDuration +
+                ", halfOpenCalls=" + halfOpenCalls +
+                ", targets=" + targets +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.coffee330501.config;
+
+/**
+ * 按目标地址路径的对冲与熔断策略 internal.call.resilience.targets[n].*
+ * 未配置的项使用 internal.call.resilience.* 的默认值
+ */
+public class ResiliencePolicyConfig {
+    /**
+     * 目标地址路径，支持Ant风格通配符，如 /user/**
+     */
+    private String pattern;
+    private Boolean hedge;
+    private Double hedgePercentile;
+    private Long hedgeDelay;
+    private Boolean circuitBreaker;
+    private Double failureRateThreshold;
+    private Long slowCallThreshold;
+    private Double slowCallRateThreshold;
+    private Long openDuration;
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public Boolean getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(Boolean hedge) {
+        this.hedge = hedge;
+    }
+
+    public Double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(Double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public Long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(Long hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    public Boolean getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(Boolean circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public Double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(Double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Long getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public void setSlowCallThreshold(Long slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public Double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(Double slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public Long getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Long openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    @Override
+    public String toString() {
+        return "ResiliencePolicyConfig{" +
+                "pattern='" + pattern + '\'' +
+                ", hedge=" + hedge +
+                ", hedgePercentile=" + hedgePercentile +
+                ", hedgeDelay=" + hedgeDelay +
+                ", circuitBreaker=" + circuitBreaker +
+                ", failureRateThreshold=" + failureRateThreshold +
+                ", slowCallThreshold=" + slowCallThreshold +
+                ", slowCallRateThreshold=" + slowCallRateThreshold +
+                ", openDuration=" + openDuration +
+                '}';
+    }
+}
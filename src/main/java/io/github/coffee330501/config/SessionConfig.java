@@ -0,0 +1,79 @@
+package io.github.coffee330501.config;
+
+/**
+ * 会话签名模式配置 internal.call.session.*
+ * 调用方与被调用方通过一次RSA握手建立短期共享密钥，之后的请求使用HMAC-SHA256签名
+ */
+public class SessionConfig {
+    /**
+     * 调用方是否使用会话模式
+     */
+    private boolean enabled = false;
+    /**
+     * 被调用方是否开启握手接口，接受会话模式请求
+     */
+    private boolean serverEnabled = false;
+    /**
+     * 握手接口路径，被调用方有context-path时需包含context-path
+     */
+    private String path = "/internal-call/session";
+    /**
+     * 会话有效期，单位秒
+     */
+    private int ttl = 600;
+    /**
+     * 会话过期前提前续期的时间，单位秒
+     */
+    private int renewBefore = 60;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isServerEnabled() {
+        return serverEnabled;
+    }
+
+    public void setServerEnabled(boolean serverEnabled) {
+        this.serverEnabled = serverEnabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(int ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getRenewBefore() {
+        return renewBefore;
+    }
+
+    public void setRenewBefore(int renewBefore) {
+        this.renewBefore = renewBefore;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionConfig{" +
+                "enabled=" + enabled +
+                ", serverEnabled=" + serverEnabled +
+                ", path='" + path + '\'' +
+                ", ttl=" + ttl +
+                ", renewBefore=" + renewBefore +
+                '}';
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.coffee330501.controller;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.util.ParameterizedTypeImpl;
+import com.alibaba.fastjson2.util.TypeUtils;
+import io.github.coffee330501.BatchCall;
+import io.github.coffee330501.SignatureResult;
+import io.github.coffee330501.annotation.InternalController;
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.converter.JSONBHttpMessageConverter;
+import io.github.coffee330501.exception.InternalCallException;
+import io.github.coffee330501.handler.InternalHandlerDescriptor;
+import io.github.coffee330501.handler.InternalHandlerRegistry;
+import io.github.coffee330501.utils.LogUtils;
+import io.github.coffee330501.utils.SignatureUtil;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.Resource;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 批量调用接口
+ * 整个批量请求只验签与检查重复请求一次，再将每个调用分发到对应的内部调用方法，
+ * 每个调用仍经过InternalCallAspect记录日志与包装结果，返回与调用顺序一致的SignatureResult列表
+ */
+@InternalController
+public class InternalCallBatchController implements ApplicationContextAware {
+    private static final Type BATCH_CALLS = new ParameterizedTypeImpl(new Type[]{BatchCall.class}, null, List.class);
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    @Resource
+    InternalHandlerRegistry internalHandlerRegistry;
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @RequestMapping(value = "${internal.call.batch.path:/internal-call/batch}", method = RequestMethod.POST)
+    public Object batch(@RequestBody byte[] body) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) Objects
+                .requireNonNull(RequestContextHolder.getRequestAttributes());
+        HttpServletRequest request = attributes.getRequest();
+        HttpServletResponse response = attributes.getResponse();
+
+        List<BatchCall> calls = parse(body, request.getContentType());
+        if (calls == null) calls = Collections.emptyList();
+        if (calls.size() > internalCallConfig.getBatch().getMaxSize()) {
+            throw new InternalCallException(400, "Batch size exceeds " + internalCallConfig.getBatch().getMaxSize());
+        }
+
+        // 批量请求已通过验签，分发的调用不再重复验签
+        SignatureUtil.markVerified(request);
+
+        List<SignatureResult<?>> results = new ArrayList<>(calls.size());
+        for (BatchCall call : calls) {
+            results.add(dispatch(call, request, response));
+        }
+        return results;
+    }
+
+    /**
+     * 请求体按Content-Type解析为JSONB或JSON
+     */
+    private List<BatchCall> parse(byte[] body, String contentType) {
+        if (contentType != null && contentType.startsWith(JSONBHttpMessageConverter.APPLICATION_JSONB_VALUE)) {
+            return JSONB.parseObject(body, BATCH_CALLS);
+        }
+        return JSON.parseObject(body, BATCH_CALLS);
+    }
+
+    private SignatureResult<?> dispatch(BatchCall call, HttpServletRequest request, HttpServletResponse response) {
+        InternalHandlerDescriptor target = internalHandlerRegistry.getByPath(RequestMethod.POST.name(), call.getPath());
+        if (target == null || target.getBeanName() == null || target.getBeanType() == InternalCallBatchController.class) {
+            return SignatureUtil.errorByClient("No internal call handler for path: " + call.getPath());
+        }
+        try {
+            Object bean = applicationContext.getBean(target.getBeanName());
+            Method method = AopUtils.selectInvocableMethod(target.getMethod(), bean.getClass());
+            Object result = method.invoke(bean, resolveArgs(target.getMethod(), call.getParams(), request, response));
+            // 方法已由InternalCallAspect包装结果
+            if (result instanceof SignatureResult) return (SignatureResult<?>) result;
+            return SignatureUtil.success(result);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getTargetException();
+            LogUtils.error(cause, call.getPath());
+            return SignatureUtil.errorBySystem(cause.getMessage());
+        } catch (Exception e) {
+            LogUtils.error(e, call.getPath());
+            return SignatureUtil.errorBySystem(e.getMessage());
+        }
+    }
+
+    /**
+     * 参数绑定：@RequestBody 参数由调用参数转换，request/response 使用当前批量请求的，其余为null
+     */
+    private Object[] resolveArgs(Method method, Object params, HttpServletRequest request, HttpServletResponse response) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Type[] genericParameterTypes = method.getGenericParameterTypes();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        Object[] args = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (ServletRequest.class.isAssignableFrom(parameterTypes[i])) {
+                args[i] = request;
+            } else if (ServletResponse.class.isAssignableFrom(parameterTypes[i])) {
+                args[i] = response;
+            } else if (isRequestBody(parameterAnnotations[i])) {
+                args[i] = TypeUtils.cast(params, genericParameterTypes[i]);
+            }
+        }
+        return args;
+    }
+
+    private boolean isRequestBody(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof RequestBody) return true;
+        }
+        return false;
+    }
+
+}
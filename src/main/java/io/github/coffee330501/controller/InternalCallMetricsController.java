@@ -0,0 +1,23 @@
+package io.github.coffee330501.controller;
+
+import io.github.coffee330501.metrics.InternalCallMetrics;
+import io.github.coffee330501.metrics.MetricsSnapshot;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+
+/**
+ * 统计查询接口，供监控拉取，不经过内部调用验签
+ */
+@RestController
+public class InternalCallMetricsController {
+    @Resource
+    InternalCallMetrics internalCallMetrics;
+
+    @RequestMapping(value = "${internal.call.metrics.path:/internal-call/metrics}", method = RequestMethod.GET)
+    public MetricsSnapshot metrics() {
+        return internalCallMetrics.snapshot();
+    }
+}
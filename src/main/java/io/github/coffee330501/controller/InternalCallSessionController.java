@@ -0,0 +1,32 @@
+package io.github.coffee330501.controller;
+
+import io.github.coffee330501.annotation.InternalController;
+import io.github.coffee330501.signature.KeyRegistry;
+import io.github.coffee330501.signature.SessionManager;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Objects;
+
+/**
+ * 会话握手接口
+ * 握手请求本身使用RSA签名，由InternalCallAspect验签后创建会话
+ */
+@InternalController
+public class InternalCallSessionController {
+    @Resource
+    SessionManager sessionManager;
+
+    @RequestMapping(value = "${internal.call.session.path:/internal-call/session}", method = RequestMethod.POST)
+    public Object session() {
+        HttpServletRequest request = ((ServletRequestAttributes) Objects
+                .requireNonNull(RequestContextHolder.getRequestAttributes()))
+                .getRequest();
+        String kid = request.getHeader(KeyRegistry.KID_HEADER);
+        return sessionManager.create(kid);
+    }
+}
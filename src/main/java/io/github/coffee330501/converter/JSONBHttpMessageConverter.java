@@ -0,0 +1,82 @@
+package io.github.coffee330501.converter;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * fastjson2 JSONB 二进制格式的消息转换
+ * 只读取Content-Type为application/x-jsonb的请求体；只在请求的Accept明确包含application/x-jsonb时输出JSONB，
+ * 其他请求仍由JSON转换器处理
+ * String、byte[]参数不处理，由Spring默认的转换器读取原始内容
+ */
+public class JSONBHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final String APPLICATION_JSONB_VALUE = "application/x-jsonb";
+    public static final MediaType APPLICATION_JSONB = MediaType.valueOf(APPLICATION_JSONB_VALUE);
+
+    public JSONBHttpMessageConverter() {
+        super(APPLICATION_JSONB);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz != String.class && clazz != byte[].class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return mediaType != null && APPLICATION_JSONB.includes(mediaType);
+    }
+
+    /**
+     * mediaType为null时为Spring计算可输出的类型，此时按当前请求的Accept判断
+     */
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        if (mediaType == null) return isAccepted();
+        return APPLICATION_JSONB.includes(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readType(type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return readType(clazz, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object o, Type type, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(JSONB.toBytes(o));
+    }
+
+    private Object readType(Type type, HttpInputMessage inputMessage) throws IOException {
+        byte[] bytes = StreamUtils.copyToByteArray(inputMessage.getBody());
+        try {
+            return JSONB.parseObject(bytes, type);
+        } catch (JSONException e) {
+            throw new HttpMessageNotReadableException("JSONB parse error: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isAccepted() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) return false;
+        String accept = ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(APPLICATION_JSONB_VALUE);
+    }
+}
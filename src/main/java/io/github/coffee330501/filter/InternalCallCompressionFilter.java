@@ -0,0 +1,328 @@
+package io.github.coffee330501.filter;
+
+import io.github.coffee330501.compression.Compression;
+import io.github.coffee330501.compression.DeflatingOutputStream;
+import io.github.coffee330501.config.CompressionConfig;
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.signature.InternalCallVerifier;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.Resource;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * 内部调用请求体解压、响应体压缩
+ * 只处理携带签名参数的内部调用请求：请求体按Content-Encoding流式解压，
+ * 响应体超过阈值且调用方Accept-Encoding支持时流式压缩，并在响应头Accept-Encoding中声明本服务可解压的编码
+ */
+public class InternalCallCompressionFilter extends OncePerRequestFilter {
+    private static final String CONTENT_LENGTH = "Content-Length";
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!InternalCallVerifier.hasSignature(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        CompressionConfig config = internalCallConfig.getCompression();
+        response.setHeader(Compression.ACCEPT_ENCODING, Compression.SUPPORTED_ENCODINGS);
+
+        DecompressingRequest decompressingRequest = null;
+        HttpServletRequest requestToUse = request;
+        String contentEncoding = request.getHeader(Compression.CONTENT_ENCODING);
+        if (contentEncoding != null && Compression.isSupported(contentEncoding.trim())) {
+            decompressingRequest = new DecompressingRequest(request, contentEncoding.trim());
+            requestToUse = decompressingRequest;
+        }
+        String encoding = Compression.negotiate(request.getHeader(Compression.ACCEPT_ENCODING));
+        CompressingResponse compressingResponse = encoding == null ? null
+                : new CompressingResponse(response, encoding, config.getThreshold(), config.getLevel());
+        try {
+            filterChain.doFilter(requestToUse, compressingResponse == null ? response : compressingResponse);
+        } finally {
+            // 下游抛出异常时也写出已缓存的数据并结束压缩，归还Deflater
+            try {
+                if (compressingResponse != null) compressingResponse.finish();
+            } finally {
+                if (decompressingRequest != null) decompressingRequest.release();
+            }
+        }
+    }
+
+    /**
+     * 解压请求体，去掉Content-Length与Content-Encoding
+     */
+    private static class DecompressingRequest extends HttpServletRequestWrapper {
+        private final String encoding;
+        private InputStream inflating;
+        private ServletInputStream inputStream;
+
+        DecompressingRequest(HttpServletRequest request, String encoding) {
+            super(request);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream != null) return inputStream;
+            ServletInputStream source = super.getInputStream();
+            inflating = Compression.decompress(source, encoding);
+            inputStream = new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = inflating.read();
+                    if (b < 0) finished = true;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = inflating.read(b, off, len);
+                    if (n < 0) finished = true;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    source.setReadListener(readListener);
+                }
+            };
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String characterEncoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    characterEncoding != null ? characterEncoding : StandardCharsets.UTF_8.name()));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isHidden(name)) return null;
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isHidden(name)) return Collections.emptyEnumeration();
+            return super.getHeaders(name);
+        }
+
+        private boolean isHidden(String name) {
+            return CONTENT_LENGTH.equalsIgnoreCase(name) || Compression.CONTENT_ENCODING.equalsIgnoreCase(name);
+        }
+
+        /**
+         * 请求体未读完时归还Inflater
+         */
+        void release() throws IOException {
+            if (inflating != null) inflating.close();
+        }
+    }
+
+    /**
+     * 响应体先缓存阈值大小，超过阈值后设置Content-Encoding并流式压缩，未超过时原样输出
+     * 压缩时忽略下游设置的Content-Length
+     */
+    private static class CompressingResponse extends HttpServletResponseWrapper {
+        private final String encoding;
+        private final int level;
+        private final byte[] buffer;
+        private int count;
+        private long contentLength = -1;
+        private DeflatingOutputStream deflating;
+        private boolean finished;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding, int threshold, int level) {
+            super(response);
+            this.encoding = encoding;
+            this.level = level;
+            this.buffer = new byte[Math.max(threshold, 0)];
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream != null) return outputStream;
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    CompressingResponse.this.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    if (deflating != null) deflating.flush();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    try {
+                        CompressingResponse.super.getOutputStream().setWriteListener(writeListener);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                String characterEncoding = getCharacterEncoding();
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(),
+                        characterEncoding != null ? Charset.forName(characterEncoding) : StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (CONTENT_LENGTH.equalsIgnoreCase(name)) contentLength = value == null ? -1 : Long.parseLong(value);
+            else super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (CONTENT_LENGTH.equalsIgnoreCase(name)) contentLength = value == null ? -1 : Long.parseLong(value);
+            else super.addHeader(name, value);
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (CONTENT_LENGTH.equalsIgnoreCase(name)) contentLength = value;
+            else super.setIntHeader(name, value);
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (CONTENT_LENGTH.equalsIgnoreCase(name)) contentLength = value;
+            else super.addIntHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            // 未确定是否压缩前不提交响应
+            if (deflating != null) super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (deflating != null) throw new IllegalStateException("Response already committed");
+            count = 0;
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (deflating != null) throw new IllegalStateException("Response already committed");
+            count = 0;
+            contentLength = -1;
+            super.reset();
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            if (finished) throw new IOException("Response finished");
+            if (deflating != null) {
+                deflating.write(b, off, len);
+                return;
+            }
+            if (count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            // 超过阈值，开始压缩
+            super.setHeader(Compression.CONTENT_ENCODING, encoding);
+            super.addHeader("Vary", Compression.ACCEPT_ENCODING);
+            deflating = Compression.compress(super.getOutputStream(), encoding, level);
+            deflating.write(buffer, 0, count);
+            count = 0;
+            deflating.write(b, off, len);
+        }
+
+        /**
+         * 写入剩余数据，下游未超过阈值时原样输出
+         */
+        void finish() throws IOException {
+            if (finished) return;
+            if (writer != null) writer.flush();
+            finished = true;
+            if (deflating != null) {
+                deflating.finish();
+                return;
+            }
+            if (count > 0 || contentLength >= 0) super.setContentLength(count);
+            if (count > 0) super.getOutputStream().write(buffer, 0, count);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.coffee330501.filter;
+
+import com.alibaba.fastjson2.JSON;
+import io.github.coffee330501.exception.InternalCallException;
+import io.github.coffee330501.handler.InternalHandlerDescriptor;
+import io.github.coffee330501.handler.InternalHandlerRegistry;
+import io.github.coffee330501.metrics.EndpointMetrics;
+import io.github.coffee330501.metrics.InternalCallMetrics;
+import io.github.coffee330501.metrics.Outcome;
+import io.github.coffee330501.metrics.Phase;
+import io.github.coffee330501.service.InternalCallLogDispatcher;
+import io.github.coffee330501.service.InternalCallLogHandler;
+import io.github.coffee330501.signature.InternalCallVerifier;
+import io.github.coffee330501.signature.SessionManager;
+import io.github.coffee330501.utils.LogUtils;
+import io.github.coffee330501.utils.SignatureUtil;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.annotation.Resource;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 内部调用请求提前校验
+ * 在Spring MVC读取、绑定请求体之前验签并检查重复、过期请求，校验失败直接返回预先序列化的SignatureResult，
+ * 通过的请求标记为已验签，InternalCallAspect只负责调用与包装结果。
+ * 仅处理能按请求方法与路径精确匹配到内部调用方法的请求，其余（如带路径变量的接口）仍由InternalCallAspect校验；
+ * 防重放存储等异常时返回系统异常（501）
+ */
+public class InternalCallVerifyFilter extends OncePerRequestFilter {
+    public static final String VERIFICATION_ERROR = "Internal call verification error";
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final Map<String, byte[]> RESPONSES = new HashMap<>();
+    private static final byte[] SYSTEM_ERROR_RESPONSE = JSON.toJSONBytes(SignatureUtil.errorBySystem(VERIFICATION_ERROR));
+
+    static {
+        for (String msg : new String[]{InternalCallVerifier.EMPTY_SIGNATURE, InternalCallVerifier.VERIFICATION_FAILED,
+                InternalCallVerifier.REQUEST_EXPIRATION, InternalCallVerifier.DUPLICATE_REQUEST,
+                SessionManager.INVALID_SESSION}) {
+            RESPONSES.put(msg, JSON.toJSONBytes(SignatureUtil.errorByClient(msg)));
+        }
+    }
+
+    @Resource
+    InternalCallVerifier internalCallVerifier;
+    @Resource
+    InternalHandlerRegistry internalHandlerRegistry;
+    @Resource
+    InternalCallMetrics internalCallMetrics;
+    @Resource
+    InternalCallLogDispatcher internalCallLogDispatcher;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        InternalHandlerDescriptor descriptor = SignatureUtil.isVerified(request) ? null
+                : internalHandlerRegistry.getByPath(request.getMethod(), urlPathHelper.getPathWithinApplication(request));
+        if (descriptor == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        EndpointMetrics metrics = internalCallMetrics.server(descriptor.getMethod());
+        try {
+            internalCallVerifier.verify(request, metrics);
+        } catch (InternalCallException e) {
+            metrics.outcome(Outcome.CLIENT_ERROR);
+            byte[] body = RESPONSES.get(e.getMessage());
+            if (body == null) body = JSON.toJSONBytes(SignatureUtil.errorByClient(e.getMessage()));
+            reject(request, response, descriptor, e.getMessage(), body);
+            metrics.record(Phase.TOTAL, start);
+            return;
+        } catch (RuntimeException e) {
+            // 防重放存储等不可用
+            LogUtils.error(e, request.getRequestURI());
+            metrics.outcome(Outcome.SYSTEM_ERROR);
+            reject(request, response, descriptor, e.getMessage(), SYSTEM_ERROR_RESPONSE);
+            metrics.record(Phase.TOTAL, start);
+            return;
+        }
+        SignatureUtil.markVerified(request);
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, InternalHandlerDescriptor descriptor,
+                        String msg, byte[] body) throws IOException {
+        InternalCallLogHandler.LogBuilder logBuilder = internalCallLogDispatcher.createLogBuilder(request.getRequestURI(),
+                descriptor.getLogPolicy());
+        logBuilder.add("requestId", request.getHeader(InternalCallVerifier.REQUEST_ID_HEADER))
+                .add("timestampStr", request.getHeader(InternalCallVerifier.TIMESTAMP_HEADER))
+                .add("uri", request.getRequestURI())
+                .add("methodName", descriptor.getName())
+                .add("type", "receive")
+                .add("exception", msg);
+        internalCallLogDispatcher.log(logBuilder);
+
+        // 与InternalCallAspect一致，错误码在SignatureResult中返回，调用方据此处理会话失效等情况
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.coffee330501.handler;
+
+import io.github.coffee330501.limit.AdaptiveLimiter;
+import io.github.coffee330501.service.LogPolicy;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 内部调用方法的元数据，启动时解析，请求处理时不再反射读取注解
+ */
+public final class InternalHandlerDescriptor {
+    private final String beanName;
+    private final Class<?> beanType;
+    private final Method method;
+    private final String name;
+    private final boolean internalAnnotated;
+    private final LogPolicy logPolicy;
+    private final boolean collapse;
+    private final List<String> paths;
+    private final AdaptiveLimiter limiter;
+
+    InternalHandlerDescriptor(String beanName, Class<?> beanType, Method method, boolean internalAnnotated,
+                              LogPolicy logPolicy, boolean collapse, List<String> paths, AdaptiveLimiter limiter) {
+        this.beanName = beanName;
+        this.beanType = beanType;
+        this.method = method;
+        this.name = beanType.getName() + "." + method.getName();
+        this.internalAnnotated = internalAnnotated;
+        this.logPolicy = logPolicy;
+        this.collapse = collapse;
+        this.paths = Collections.unmodifiableList(paths);
+        this.limiter = limiter;
+    }
+
+    /**
+     * Spring Bean名称，运行时才解析到的方法为null
+     */
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public Class<?> getBeanType() {
+        return beanType;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 类名.方法名，用于日志
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 方法上是否标注了@Internal
+     */
+    public boolean isInternalAnnotated() {
+        return internalAnnotated;
+    }
+
+    /**
+     * @InternalLog声明的日志策略，未声明为null
+     */
+    public LogPolicy getLogPolicy() {
+        return logPolicy;
+    }
+
+    /**
+     * @Internal或@InternalController是否声明合并并发的相同调用
+     */
+    public boolean isCollapse() {
+        return collapse;
+    }
+
+    /**
+     * 请求路径，已解析占位符
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * 方法的并发上限，未开启并发限制时为null
+     */
+    public AdaptiveLimiter getLimiter() {
+        return limiter;
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.coffee330501.handler;
+
+import io.github.coffee330501.annotation.BusinessExceptionTag;
+import io.github.coffee330501.annotation.Internal;
+import io.github.coffee330501.annotation.InternalController;
+import io.github.coffee330501.annotation.InternalLog;
+import io.github.coffee330501.limit.AdaptiveLimiter;
+import io.github.coffee330501.limit.InternalCallLimiter;
+import io.github.coffee330501.service.LogPolicy;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.annotation.Resource;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内部调用方法注册表
+ * 启动时扫描@InternalController类与@Internal方法生成InternalHandlerDescriptor，
+ * 请求处理时按Method查找；启动后才出现的方法（如接口代理的方法）首次使用时解析并缓存
+ */
+public class InternalHandlerRegistry implements ApplicationContextAware, SmartInitializingSingleton {
+    /**
+     * 未限定请求方法的映射
+     */
+    private static final String ANY_METHOD = "*";
+
+    private ApplicationContext applicationContext;
+    @Resource
+    InternalCallLimiter internalCallLimiter;
+    private final Map<Method, InternalHandlerDescriptor> descriptors = new ConcurrentHashMap<>();
+    /**
+     * key为 请求方法 + 路径，value为null表示映射到非内部调用方法或同时映射到多个方法
+     */
+    private volatile Map<String, InternalHandlerDescriptor> paths = Collections.emptyMap();
+    private final Map<Class<?>, Map<Method, Boolean>> internalCalls = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Boolean> businessExceptions = new ConcurrentHashMap<>();
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, InternalHandlerDescriptor> pathMap = new HashMap<>();
+        for (String beanName : applicationContext.getBeanNamesForType(Object.class, false, false)) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null) continue;
+            Class<?> userType = ClassUtils.getUserClass(type);
+
+            boolean internalController = AnnotatedElementUtils.hasAnnotation(userType, InternalController.class);
+            RequestMapping typeMapping = AnnotatedElementUtils.findMergedAnnotation(userType, RequestMapping.class);
+            for (Method method : userType.getMethods()) {
+                RequestMapping methodMapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+                if (methodMapping == null) continue;
+                boolean internalAnnotated = method.isAnnotationPresent(Internal.class);
+                List<String> methodPaths = combinePaths(typeMapping, methodMapping);
+                if (!internalController && !internalAnnotated) {
+                    // 与内部调用方法路径相同的普通接口，不能按路径当作内部调用
+                    for (String key : keys(typeMapping, methodMapping, methodPaths)) pathMap.put(key, null);
+                    continue;
+                }
+                InternalHandlerDescriptor descriptor = new InternalHandlerDescriptor(beanName, userType, method,
+                        internalAnnotated, logPolicy(method, userType), collapse(method, userType), methodPaths, limiter(method));
+                descriptors.put(method, descriptor);
+                for (String key : keys(typeMapping, methodMapping, methodPaths)) {
+                    boolean conflict = pathMap.containsKey(key) && pathMap.get(key) != descriptor;
+                    pathMap.put(key, conflict ? null : descriptor);
+                }
+            }
+        }
+        paths = pathMap;
+    }
+
+    /**
+     * 按方法查找，未扫描到时按方法声明类解析
+     */
+    public InternalHandlerDescriptor get(Method method) {
+        InternalHandlerDescriptor descriptor = descriptors.get(method);
+        if (descriptor != null) return descriptor;
+        return descriptors.computeIfAbsent(method, m -> {
+            Class<?> type = m.getDeclaringClass();
+            return new InternalHandlerDescriptor(null, type, m, m.isAnnotationPresent(Internal.class),
+                    logPolicy(m, type), collapse(m, type), Collections.emptyList(), limiter(m));
+        });
+    }
+
+    /**
+     * 按请求方法与路径查找，路径已规范化；请求方法未精确匹配时使用未限定请求方法的映射
+     *
+     * @param httpMethod 请求方法，如POST
+     * @return 未映射到内部调用方法或无法仅按路径确定时返回null
+     */
+    public InternalHandlerDescriptor getByPath(String httpMethod, String path) {
+        Map<String, InternalHandlerDescriptor> pathMap = paths;
+        String normalized = normalize(path);
+        String key = key(httpMethod, normalized);
+        InternalHandlerDescriptor descriptor = pathMap.get(key);
+        if (descriptor != null || pathMap.containsKey(key)) return descriptor;
+        return pathMap.get(key(ANY_METHOD, normalized));
+    }
+
+    /**
+     * 是否为内部调用接口，结果按 Bean类型+方法 缓存
+     */
+    public boolean isInternalCall(HandlerMethod handlerMethod) {
+        Class<?> beanType = handlerMethod.getBeanType();
+        Method method = handlerMethod.getMethod();
+        Map<Method, Boolean> methods = internalCalls.get(beanType);
+        if (methods == null) {
+            methods = internalCalls.computeIfAbsent(beanType, t -> new ConcurrentHashMap<>());
+        }
+        Boolean internal = methods.get(method);
+        if (internal == null) {
+            internal = AnnotatedElementUtils.hasAnnotation(beanType, InternalController.class)
+                    || method.isAnnotationPresent(Internal.class);
+            methods.put(method, internal);
+        }
+        return internal;
+    }
+
+    /**
+     * 异常类是否标注@BusinessExceptionTag
+     */
+    public boolean isBusinessException(Throwable e) {
+        Class<?> type = e.getClass();
+        Boolean business = businessExceptions.get(type);
+        if (business == null) {
+            business = type.isAnnotationPresent(BusinessExceptionTag.class);
+            businessExceptions.put(type, business);
+        }
+        return business;
+    }
+
+    private LogPolicy logPolicy(Method method, Class<?> type) {
+        InternalLog annotation = AnnotatedElementUtils.findMergedAnnotation(method, InternalLog.class);
+        if (annotation == null) annotation = AnnotatedElementUtils.findMergedAnnotation(type, InternalLog.class);
+        return annotation == null ? null : LogPolicy.of(annotation);
+    }
+
+    private boolean collapse(Method method, Class<?> type) {
+        Internal internal = method.getAnnotation(Internal.class);
+        if (internal != null && internal.collapse()) return true;
+        InternalController controller = AnnotatedElementUtils.findMergedAnnotation(type, InternalController.class);
+        return controller != null && controller.collapse();
+    }
+
+    private AdaptiveLimiter limiter(Method method) {
+        if (internalCallLimiter == null || !internalCallLimiter.isEnabled()) return null;
+        return internalCallLimiter.register(method);
+    }
+
+    private List<String> combinePaths(RequestMapping typeMapping, RequestMapping methodMapping) {
+        String[] typePaths = typeMapping == null || typeMapping.path().length == 0 ? new String[]{""} : typeMapping.path();
+        String[] methodPaths = methodMapping.path().length == 0 ? new String[]{""} : methodMapping.path();
+        List<String> result = new ArrayList<>();
+        for (String typePath : typePaths) {
+            for (String methodPath : methodPaths) {
+                String path = applicationContext.getEnvironment().resolvePlaceholders(typePath + "/" + methodPath);
+                result.add(normalize(path));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 请求方法取类与方法上声明的并集，均未声明时为任意请求方法
+     */
+    private List<String> keys(RequestMapping typeMapping, RequestMapping methodMapping, List<String> paths) {
+        Set<RequestMethod> methods = new LinkedHashSet<>(Arrays.asList(methodMapping.method()));
+        if (typeMapping != null) methods.addAll(Arrays.asList(typeMapping.method()));
+        List<String> keys = new ArrayList<>();
+        for (String path : paths) {
+            if (methods.isEmpty()) keys.add(key(ANY_METHOD, path));
+            for (RequestMethod method : methods) keys.add(key(method.name(), path));
+        }
+        return keys;
+    }
+
+    private String key(String httpMethod, String path) {
+        return httpMethod + " " + path;
+    }
+
+    private String normalize(String path) {
+        if (path == null) return "/";
+        String normalized = ("/" + path).replaceAll("/{2,}", "/");
+        if (normalized.length() > 1 && normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.coffee330501.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按耗时梯度调整的并发上限
+ * 每个采样窗口的平均耗时与长期耗时（最近约600个窗口的EWMA）之比作为梯度：近期耗时升高说明请求开始排队，按比例降低上限；
+ * 耗时平稳时每个窗口增加 sqrt(上限) 的余量以探测更高的并发。窗口内进行中的请求不足上限一半时不调整
+ * <p>
+ * 样本无锁累加，只有结束窗口的线程计算新的上限
+ */
+public class AdaptiveLimiter {
+    private static final double LONG_FACTOR = 2.0 / (600 + 1);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final long windowNanos;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder windowSum = new LongAdder();
+    private final LongAdder windowCount = new LongAdder();
+    private final LongAccumulator windowMaxInflight = new LongAccumulator(Math::max, 0);
+    /**
+     * 正在结束窗口，longRtt只由持有该标记的线程读写
+     */
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private volatile long windowStart = System.nanoTime();
+    private volatile double limit;
+    private double longRtt;
+
+    /**
+     * @param window 采样窗口，毫秒
+     */
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing, long window) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(window);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * 进行中的请求未达到上限时占用一个名额
+     *
+     * @return 达到上限时返回false
+     */
+    public boolean tryAcquire() {
+        int max = (int) limit;
+        while (true) {
+            int current = inflight.get();
+            if (current >= max) return false;
+            if (inflight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * 归还名额并记录耗时
+     */
+    public void release(long nanos) {
+        int current = inflight.getAndDecrement();
+        windowSum.add(nanos);
+        windowCount.increment();
+        windowMaxInflight.accumulate(current);
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos || !updating.compareAndSet(false, true)) return;
+        try {
+            closeWindow(now);
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    /**
+     * 归还名额，不记录耗时
+     */
+    public void cancel() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * 样本不足时继续累加；结束窗口期间并发记录的少量样本可能计入下一个窗口
+     */
+    private void closeWindow(long now) {
+        if (windowCount.sum() < MIN_WINDOW_SAMPLES) return;
+        long count = windowCount.sumThenReset();
+        long sum = windowSum.sumThenReset();
+        long maxInflight = windowMaxInflight.getThenReset();
+        windowStart = now;
+        if (count == 0) return;
+
+        double shortRtt = (double) sum / count;
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        longRtt += (shortRtt - longRtt) * LONG_FACTOR;
+        // 耗时明显下降后长期平均加快回落
+        if (longRtt > shortRtt * 2) longRtt *= 0.95;
+        double estimated = limit;
+        if (maxInflight < estimated / 2) return;
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double newLimit = estimated * gradient + Math.sqrt(estimated);
+        newLimit = estimated * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
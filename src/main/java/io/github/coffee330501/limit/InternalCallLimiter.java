@@ -0,0 +1,78 @@
+package io.github.coffee330501.limit;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.config.LimitConfig;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 被调用方并发限制，每个内部调用方法与整个服务各一个自适应上限
+ * 未开启时acquire始终放行
+ */
+public class InternalCallLimiter {
+    public static final String LIMIT_EXCEEDED = "Concurrency limit exceeded";
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    private LimitConfig config;
+    private AdaptiveLimiter global;
+    private final Map<Method, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        config = internalCallConfig.getLimit();
+        global = new AdaptiveLimiter(config.getGlobalInitialLimit(), config.getMinLimit(), config.getGlobalMaxLimit(),
+                config.getRttTolerance(), config.getSmoothing(), config.getWindow());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * 创建方法的并发上限，保存在InternalHandlerDescriptor中，请求处理时不再按方法查找
+     */
+    public AdaptiveLimiter register(Method method) {
+        return limiters.computeIfAbsent(method, m -> new AdaptiveLimiter(config.getInitialLimit(), config.getMinLimit(),
+                config.getMaxLimit(), config.getRttTolerance(), config.getSmoothing(), config.getWindow()));
+    }
+
+    /**
+     * 占用方法与服务的名额，成功后需调用 {@link #release}
+     *
+     * @param limiter 方法的并发上限，为null时只占用服务的名额
+     * @return 任一达到上限时返回false
+     */
+    public boolean acquire(AdaptiveLimiter limiter) {
+        if (limiter != null && !limiter.tryAcquire()) return false;
+        if (global.tryAcquire()) return true;
+        if (limiter != null) limiter.cancel();
+        return false;
+    }
+
+    /**
+     * 归还名额并记录方法执行耗时
+     */
+    public void release(AdaptiveLimiter limiter, long nanos) {
+        if (limiter != null) limiter.release(nanos);
+        global.release(nanos);
+    }
+
+    /**
+     * 方法名 -> 当前上限，global为整个服务
+     */
+    public Map<String, Integer> getLimits() {
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        limits.put("global", global.getLimit());
+        for (Map.Entry<Method, AdaptiveLimiter> entry : limiters.entrySet()) {
+            Method method = entry.getKey();
+            limits.put(method.getDeclaringClass().getName() + "." + method.getName(), entry.getValue().getLimit());
+        }
+        return limits;
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.coffee330501.loadbalance;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.config.LoadBalancerConfig;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 调用方负载均衡
+ * 调用地址的host为 internal.call.load-balancer.services 中的服务名时，随机取两个未摘除的实例，
+ * 选择负载评分（耗时EWMA × 进行中请求数）较低的一个，尚无耗时样本的实例按另一实例的耗时计算；
+ * 实例连续失败达到阈值后按时长摘除，同时摘除的实例不超过 max-ejection-percent，全部不可用时仍从所有实例中选择
+ */
+public class InternalCallLoadBalancer {
+    @Resource
+    InternalCallConfig internalCallConfig;
+    private LoadBalancerConfig config;
+    private Map<String, ServiceInstance[]> services = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        config = internalCallConfig.getLoadBalancer();
+        Map<String, ServiceInstance[]> map = new HashMap<>();
+        if (config.getServices() != null) {
+            for (Map.Entry<String, List<String>> entry : config.getServices().entrySet()) {
+                List<String> origins = entry.getValue();
+                if (origins == null || origins.isEmpty()) continue;
+                ServiceInstance[] instances = new ServiceInstance[origins.size()];
+                for (int i = 0; i < instances.length; i++) {
+                    String origin = origins.get(i).trim();
+                    if (origin.endsWith("/")) origin = origin.substring(0, origin.length() - 1);
+                    instances[i] = new ServiceInstance(origin, config.getEwmaDecay());
+                }
+                map.put(entry.getKey(), instances);
+            }
+        }
+        services = map;
+    }
+
+    /**
+     * 为调用地址选择实例
+     *
+     * @return 调用地址的host不是已配置的服务名时返回null
+     */
+    public ServiceInstance choose(String url) {
+        if (services.isEmpty()) return null;
+        ServiceInstance[] instances = services.get(serviceName(url));
+        if (instances == null) return null;
+        if (instances.length == 1) return instances[0];
+
+        long now = System.currentTimeMillis();
+        ServiceInstance first = pick(instances, now, null);
+        ServiceInstance second = pick(instances, now, first);
+        return second.score(first.ewma()) < first.score(second.ewma()) ? second : first;
+    }
+
+    /**
+     * 选择exclude以外的未摘除实例，用于实例拒绝请求后重试
+     *
+     * @return 没有其他可用实例时返回null
+     */
+    public ServiceInstance chooseOther(String url, ServiceInstance exclude) {
+        ServiceInstance[] instances = services.get(serviceName(url));
+        if (instances == null || instances.length < 2) return null;
+        ServiceInstance other = pick(instances, System.currentTimeMillis(), exclude);
+        return other == exclude ? null : other;
+    }
+
+    /**
+     * 请求开始，调用方需在结束时调用 {@link #complete} 或 {@link #cancel}
+     */
+    public void start(ServiceInstance instance) {
+        instance.start();
+    }
+
+    /**
+     * 请求结束，记录耗时，连续失败达到阈值时摘除实例
+     *
+     * @param failure 网络异常、HTTP状态码异常与系统异常计为失败
+     */
+    public void complete(String url, ServiceInstance instance, long nanos, boolean failure) {
+        int failures = instance.complete(nanos, failure);
+        if (failures < config.getConsecutiveFailures()) return;
+
+        ServiceInstance[] instances = services.get(serviceName(url));
+        if (instances == null) return;
+        long now = System.currentTimeMillis();
+        int ejected = 0;
+        for (ServiceInstance candidate : instances) {
+            if (candidate.isEjected(now)) ejected++;
+        }
+        if (ejected + 1 <= instances.length * config.getMaxEjectionPercent()) {
+            instance.eject(now, config.getEjectionDuration());
+        }
+    }
+
+    public void cancel(ServiceInstance instance) {
+        instance.cancel();
+    }
+
+    /**
+     * 服务名 -> 实例状态
+     */
+    public Map<String, List<ServiceInstance>> getServices() {
+        Map<String, List<ServiceInstance>> result = new HashMap<>();
+        for (Map.Entry<String, ServiceInstance[]> entry : services.entrySet()) {
+            result.put(entry.getKey(), Collections.unmodifiableList(Arrays.asList(entry.getValue())));
+        }
+        return result;
+    }
+
+    /**
+     * 从随机位置开始选取第一个未摘除且不同于exclude的实例，没有时返回exclude或随机实例
+     */
+    private ServiceInstance pick(ServiceInstance[] instances, long now, ServiceInstance exclude) {
+        int offset = ThreadLocalRandom.current().nextInt(instances.length);
+        for (int i = 0; i < instances.length; i++) {
+            ServiceInstance instance = instances[(offset + i) % instances.length];
+            if (instance != exclude && !instance.isEjected(now)) return instance;
+        }
+        return exclude != null ? exclude : instances[offset];
+    }
+
+    /**
+     * 调用地址中的host
+     */
+    private String serviceName(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == ':' || c == '?') break;
+            end++;
+        }
+        return url.substring(start, end);
+    }
+}
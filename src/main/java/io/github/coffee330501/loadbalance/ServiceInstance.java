@@ -0,0 +1,114 @@
+package io.github.coffee330501.loadbalance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务实例，记录进行中的请求数、耗时EWMA与连续失败次数
+ * 每个实例地址在连接池中是独立的路由，连接数受 internal.call.http.max-per-route 限制
+ */
+public class ServiceInstance {
+    private final String origin;
+    private final long decayNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private double ewma;
+    private long lastUpdate;
+    private volatile long ejectedUntil;
+    private int ejections;
+
+    ServiceInstance(String origin, long decay) {
+        this.origin = origin;
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, decay));
+    }
+
+    /**
+     * 将调用地址中的 scheme://host[:port] 替换为本实例地址
+     */
+    public String rewrite(String url) {
+        int scheme = url.indexOf("://");
+        if (scheme < 0) return origin + url;
+        int path = url.indexOf('/', scheme + 3);
+        return path < 0 ? origin : origin + url.substring(path);
+    }
+
+    /**
+     * 负载评分，越小越优先：耗时EWMA × (进行中请求数 + 1)
+     * 尚无耗时样本的实例以fallback作为耗时，与另一实例按进行中请求数比较，避免新实例承接全部突发请求
+     *
+     * @param fallback 另一实例的耗时EWMA
+     */
+    double score(double fallback) {
+        double latency = ewma();
+        if (latency == 0) latency = fallback > 0 ? fallback : 1;
+        return latency * (outstanding.get() + 1);
+    }
+
+    synchronized double ewma() {
+        return ewma;
+    }
+
+    boolean isEjected(long now) {
+        return now < ejectedUntil;
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * 请求结束，失败按至少两倍EWMA计入耗时，快速失败（如并发达到上限被拒绝）的实例不会因耗时低被优先选择
+     *
+     * @return 连续失败次数
+     */
+    int complete(long nanos, boolean failure) {
+        outstanding.decrementAndGet();
+        long now = System.nanoTime();
+        synchronized (this) {
+            double sample = failure ? Math.max(nanos, ewma * 2) : nanos;
+            if (lastUpdate == 0) {
+                ewma = sample;
+            } else {
+                double weight = Math.exp(-(double) (now - lastUpdate) / decayNanos);
+                ewma = ewma * weight + sample * (1 - weight);
+            }
+            lastUpdate = now;
+            // 恢复后每次成功降低下次摘除的时长
+            if (!failure && ejections > 0) ejections--;
+        }
+        if (!failure) {
+            consecutiveFailures.set(0);
+            return 0;
+        }
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * 请求被取消，不记录耗时
+     */
+    void cancel() {
+        outstanding.decrementAndGet();
+    }
+
+    synchronized void eject(long now, long duration) {
+        ejections = Math.min(ejections + 1, 10);
+        ejectedUntil = now + duration * ejections;
+        consecutiveFailures.set(0);
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public synchronized double getEwmaMillis() {
+        return ewma / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getEjectedUntil() {
+        return ejectedUntil;
+    }
+}
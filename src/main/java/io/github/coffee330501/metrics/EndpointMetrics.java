@@ -0,0 +1,63 @@
+package io.github.coffee330501.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个接口（调用方按目标地址，被调用方按方法）的各阶段耗时与结果计数
+ */
+public class EndpointMetrics {
+    /**
+     * 未开启统计时使用，不记录
+     */
+    static final EndpointMetrics NOOP = new EndpointMetrics(false);
+
+    private final boolean enabled;
+    private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+    private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+
+    EndpointMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < phases.length; i++) phases[i] = new LatencyHistogram();
+        for (int i = 0; i < outcomes.length; i++) outcomes[i] = new LongAdder();
+    }
+
+    /**
+     * 记录阶段耗时
+     *
+     * @param startNanos 阶段开始时的System.nanoTime()
+     */
+    public void record(Phase phase, long startNanos) {
+        if (enabled) phases[phase.ordinal()].recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void outcome(Outcome outcome) {
+        if (enabled) outcomes[outcome.ordinal()].increment();
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public long getCount(Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    public EndpointSnapshot snapshot() {
+        Map<String, HistogramSnapshot> phaseSnapshots = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            HistogramSnapshot snapshot = phases[phase.ordinal()].snapshot();
+            if (snapshot.getCount() > 0) phaseSnapshots.put(phase.name(), snapshot);
+        }
+        Map<String, Long> outcomeCounts = new LinkedHashMap<>();
+        for (Outcome outcome : Outcome.values()) {
+            long count = outcomes[outcome.ordinal()].sum();
+            if (count > 0) outcomeCounts.put(outcome.name(), count);
+        }
+        EndpointSnapshot snapshot = new EndpointSnapshot();
+        snapshot.setPhases(phaseSnapshots);
+        snapshot.setOutcomes(outcomeCounts);
+        return snapshot;
+    }
+}
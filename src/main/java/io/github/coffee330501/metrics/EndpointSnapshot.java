@@ -0,0 +1,20 @@
+package io.github.coffee330501.metrics;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 接口统计快照，只包含有记录的阶段与结果
+ */
+@Data
+public class EndpointSnapshot {
+    /**
+     * 阶段 -> 耗时
+     */
+    private Map<String, HistogramSnapshot> phases;
+    /**
+     * 结果 -> 次数
+     */
+    private Map<String, Long> outcomes;
+}
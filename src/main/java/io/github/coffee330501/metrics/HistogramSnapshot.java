@@ -0,0 +1,17 @@
+package io.github.coffee330501.metrics;
+
+import lombok.Data;
+
+/**
+ * 直方图快照，时间单位微秒
+ */
+@Data
+public class HistogramSnapshot {
+    private long count;
+    private double mean;
+    private long max;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long p999;
+}
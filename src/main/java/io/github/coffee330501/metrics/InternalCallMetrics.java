@@ -0,0 +1,78 @@
+package io.github.coffee330501.metrics;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.config.MetricsConfig;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内部调用统计
+ * 调用方按目标地址（不含查询参数）统计，被调用方按内部调用方法统计，
+ * 接口数超过 internal.call.metrics.max-endpoints 后新接口合并统计到 _other
+ */
+public class InternalCallMetrics {
+    private static final String OTHER = "_other";
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    private boolean enabled;
+    private int maxEndpoints;
+    private final Map<String, EndpointMetrics> client = new ConcurrentHashMap<>();
+    private final Map<String, EndpointMetrics> server = new ConcurrentHashMap<>();
+    private final Map<Method, EndpointMetrics> serverMethods = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        MetricsConfig config = internalCallConfig.getMetrics();
+        enabled = config.isEnabled();
+        maxEndpoints = config.getMaxEndpoints();
+    }
+
+    /**
+     * 调用方统计
+     */
+    public EndpointMetrics client(String url) {
+        if (!enabled) return EndpointMetrics.NOOP;
+        int query = url.indexOf('?');
+        String key = query < 0 ? url : url.substring(0, query);
+        return lookup(client, key);
+    }
+
+    /**
+     * 被调用方统计
+     */
+    public EndpointMetrics server(Method method) {
+        if (!enabled) return EndpointMetrics.NOOP;
+        EndpointMetrics metrics = serverMethods.get(method);
+        if (metrics != null) return metrics;
+        return serverMethods.computeIfAbsent(method,
+                m -> lookup(server, m.getDeclaringClass().getName() + "." + m.getName()));
+    }
+
+    private EndpointMetrics lookup(Map<String, EndpointMetrics> endpoints, String key) {
+        EndpointMetrics metrics = endpoints.get(key);
+        if (metrics != null) return metrics;
+        if (endpoints.size() >= maxEndpoints) key = OTHER;
+        return endpoints.computeIfAbsent(key, k -> new EndpointMetrics(true));
+    }
+
+    public MetricsSnapshot snapshot() {
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        snapshot.setClient(snapshot(client));
+        snapshot.setServer(snapshot(server));
+        return snapshot;
+    }
+
+    private Map<String, EndpointSnapshot> snapshot(Map<String, EndpointMetrics> endpoints) {
+        Map<String, EndpointSnapshot> snapshots = new TreeMap<>();
+        for (Map.Entry<String, EndpointMetrics> entry : endpoints.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.coffee330501.metrics;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 内部调用统计快照
+ */
+@Data
+public class MetricsSnapshot {
+    /**
+     * 调用方，目标地址 -> 统计
+     */
+    private Map<String, EndpointSnapshot> client;
+    /**
+     * 被调用方，方法 -> 统计
+     */
+    private Map<String, EndpointSnapshot> server;
+}
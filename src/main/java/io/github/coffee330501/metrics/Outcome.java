@@ -0,0 +1,63 @@
+package io.github.coffee330501.metrics;
+
+/**
+ * 内部调用结果
+ */
+public enum Outcome {
+    /**
+     * SignatureResult 200
+     */
+    SUCCESS,
+    /**
+     * SignatureResult 400，验签等调用方问题
+     */
+    CLIENT_ERROR,
+    /**
+     * SignatureResult 500，业务异常
+     */
+    BUSINESS_ERROR,
+    /**
+     * SignatureResult 501，系统异常
+     */
+    SYSTEM_ERROR,
+    /**
+     * SignatureResult 429，被调用方并发达到上限
+     */
+    LIMITED,
+    /**
+     * 请求过期被拒绝，同时计入CLIENT_ERROR
+     */
+    EXPIRED,
+    /**
+     * 重复请求被拒绝，同时计入CLIENT_ERROR
+     */
+    DUPLICATE,
+    /**
+     * HTTP状态码非200
+     */
+    HTTP_ERROR,
+    /**
+     * 网络IO失败
+     */
+    IO_ERROR,
+    /**
+     * 熔断器打开，未发起请求
+     */
+    CIRCUIT_OPEN;
+
+    public static Outcome ofCode(Integer code) {
+        if (code == null) return SYSTEM_ERROR;
+        switch (code) {
+            case 200:
+                return SUCCESS;
+            case 400:
+                return CLIENT_ERROR;
+            case 500:
+                return BUSINESS_ERROR;
+            case 429:
+                return LIMITED;
+            default:
+                return SYSTEM_ERROR;
+        }
+    }
+}
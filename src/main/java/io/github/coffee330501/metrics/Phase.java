@@ -0,0 +1,39 @@
+package io.github.coffee330501.metrics;
+
+/**
+ * 内部调用各阶段
+ */
+public enum Phase {
+    /**
+     * 调用方签名
+     */
+    SIGN,
+    /**
+     * 调用方发送请求到收到响应
+     */
+    HTTP,
+    /**
+     * 调用方读取并解码响应
+     */
+    DECODE,
+    /**
+     * 被调用方验签
+     */
+    VERIFY,
+    /**
+     * 被调用方重复请求检查
+     */
+    NONCE,
+    /**
+     * 被调用方执行业务方法
+     */
+    INVOKE,
+    /**
+     * 日志处理
+     */
+    LOG,
+    /**
+     * 整个调用
+     */
+    TOTAL
+}
@@ -0,0 +1,99 @@
+package io.github.coffee330501.nonce;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本机内存的重复请求检查
+ * 请求ID按哈希分散到多个分段，每个分段按写入时间顺序记录过期时间，
+ * 访问时顺带清理已过期的记录，内存占用与有效期内的请求量成正比
+ */
+public class MemoryNonceStore implements NonceStore {
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public MemoryNonceStore() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param concurrency 分段数，向上取整为2的幂
+     */
+    public MemoryNonceStore(int concurrency) {
+        int size = 1;
+        while (size < concurrency) size <<= 1;
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) stripes[i] = new Stripe();
+        mask = size - 1;
+    }
+
+    @Override
+    public boolean putIfAbsent(String requestId, int expireSeconds) {
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripes[spread(requestId.hashCode()) & mask];
+        stripe.expire(now);
+        return stripe.putIfAbsent(requestId, now + expireSeconds * 1000L, now);
+    }
+
+    /**
+     * 当前记录的请求ID数量
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) size += stripe.nonces.size();
+        return size;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static class Stripe {
+        private final Map<String, Long> nonces = new ConcurrentHashMap<>();
+        /**
+         * 按写入顺序排列，即按过期时间排列
+         */
+        private final Queue<Entry> expireQueue = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock expireLock = new ReentrantLock();
+
+        boolean putIfAbsent(String requestId, long expireAt, long now) {
+            Long existing = nonces.putIfAbsent(requestId, expireAt);
+            if (existing != null) {
+                if (existing > now) return false;
+                // 已过期但尚未清理
+                if (!nonces.replace(requestId, existing, expireAt)) return false;
+            }
+            expireQueue.offer(new Entry(requestId, expireAt));
+            return true;
+        }
+
+        /**
+         * 清理过期记录，同一时间只有一个线程清理，其余线程直接跳过
+         */
+        void expire(long now) {
+            Entry head = expireQueue.peek();
+            if (head == null || head.expireAt > now || !expireLock.tryLock()) return;
+            try {
+                while ((head = expireQueue.peek()) != null && head.expireAt <= now) {
+                    expireQueue.poll();
+                    nonces.remove(head.requestId, head.expireAt);
+                }
+            } finally {
+                expireLock.unlock();
+            }
+        }
+    }
+
+    private static class Entry {
+        final String requestId;
+        final Long expireAt;
+
+        Entry(String requestId, Long expireAt) {
+            this.requestId = requestId;
+            this.expireAt = expireAt;
+        }
+    }
+}
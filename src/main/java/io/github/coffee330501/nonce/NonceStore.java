@@ -0,0 +1,17 @@
+package io.github.coffee330501.nonce;
+
+/**
+ * 重复请求检查存储
+ * 默认使用本机内存实现，多实例部署且同一请求可能到达不同实例时配置 internal.call.nonce-store=redis，
+ * 也可注册自定义实现的Spring Bean
+ */
+public interface NonceStore {
+    /**
+     * 记录请求ID
+     *
+     * @param requestId     请求ID
+     * @param expireSeconds 记录保留时间，不小于请求有效期
+     * @return 请求ID未出现过返回true，重复请求返回false
+     */
+    boolean putIfAbsent(String requestId, int expireSeconds);
+}
@@ -0,0 +1,130 @@
+package io.github.coffee330501.nonce;
+
+import io.github.coffee330501.config.RedisNonceConfig;
+import io.github.coffee330501.utils.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 合并多个请求线程的重复请求检查
+ * 单个后台线程取出队列中等待的检查，以管道一次发送到Redis，再唤醒各请求线程；
+ * 上一批执行期间到达的检查自然合并为下一批，低并发时不增加额外等待
+ */
+@Slf4j
+class RedisNonceBatcher {
+    private final RedisUtil redisUtil;
+    private final RedisNonceConfig config;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    RedisNonceBatcher(RedisUtil redisUtil, RedisNonceConfig config) {
+        this.redisUtil = redisUtil;
+        this.config = config;
+        this.flusher = new Thread(this::run, "internal-call-nonce-batcher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    boolean putIfAbsent(String requestId, int expireSeconds) {
+        if (!running) return redisUtil.setNx(requestId, expireSeconds);
+        Pending pending = new Pending(requestId, expireSeconds);
+        queue.offer(pending);
+        try {
+            return pending.future.get(config.getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking request id", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out checking request id", e);
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        flusher.interrupt();
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (Pending pending : rest) {
+            pending.future.completeExceptionally(new IllegalStateException("Nonce batcher is shut down"));
+        }
+    }
+
+    private void run() {
+        int maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long window = config.getBatchWindow();
+                if (window > 0) {
+                    long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(window);
+                    while (batch.size() < maxBatchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) break;
+                        Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                    }
+                }
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Pending pending : batch) {
+                    pending.future.completeExceptionally(new IllegalStateException("Nonce batcher is shut down"));
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            // 同一批内过期时间通常相同，按过期时间分组发送
+            int start = 0;
+            while (start < batch.size()) {
+                int expireSeconds = batch.get(start).expireSeconds;
+                int end = start + 1;
+                while (end < batch.size() && batch.get(end).expireSeconds == expireSeconds) end++;
+                List<Pending> group = batch.subList(start, end);
+                List<String> keys = new ArrayList<>(group.size());
+                for (Pending pending : group) keys.add(pending.requestId);
+                boolean[] results = redisUtil.setNx(keys, expireSeconds);
+                for (int i = 0; i < group.size(); i++) {
+                    group.get(i).future.complete(results[i]);
+                }
+                start = end;
+            }
+        } catch (RuntimeException e) {
+            log.error("Redis request id check failed", e);
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class Pending {
+        final String requestId;
+        final int expireSeconds;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        Pending(String requestId, int expireSeconds) {
+            this.requestId = requestId;
+            this.expireSeconds = expireSeconds;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.coffee330501.nonce;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.utils.RedisUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+/**
+ * 基于Redis的重复请求检查，适用于请求可能到达任意实例的多实例部署
+ * 配置 internal.call.redis-nonce.batch-enabled=true 时合并并发请求的检查，以管道批量发送
+ */
+public class RedisNonceStore implements NonceStore {
+    @Resource(name = "interCallRedisUtil")
+    RedisUtil redisUtil;
+    @Resource
+    InternalCallConfig internalCallConfig;
+    private RedisNonceBatcher batcher;
+
+    @PostConstruct
+    public void init() {
+        if (internalCallConfig.getRedisNonce().isBatchEnabled()) {
+            batcher = new RedisNonceBatcher(redisUtil, internalCallConfig.getRedisNonce());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (batcher != null) batcher.shutdown();
+    }
+
+    @Override
+    public boolean putIfAbsent(String requestId, int expireSeconds) {
+        if (batcher != null) return batcher.putIfAbsent(requestId, expireSeconds);
+        return redisUtil.setNx(requestId, expireSeconds);
+    }
+}
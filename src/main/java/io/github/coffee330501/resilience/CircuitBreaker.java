@@ -0,0 +1,120 @@
+package io.github.coffee330501.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个目标地址的熔断器
+ * 关闭状态下统计最近windowSize次调用，失败率或慢调用率达到阈值后打开，熔断期内直接拒绝；
+ * 熔断期结束进入半开状态，放行halfOpenCalls次试探调用，全部成功后关闭，任一失败或慢调用重新打开
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final ResiliencePolicy policy;
+    private final long slowCallNanos;
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int index;
+    private int calls;
+    private int failureCount;
+    private int slowCallCount;
+    private volatile State state = State.CLOSED;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(ResiliencePolicy policy) {
+        this.policy = policy;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(policy.getSlowCallThreshold());
+        this.failures = new boolean[policy.getWindowSize()];
+        this.slowCalls = new boolean[policy.getWindowSize()];
+    }
+
+    /**
+     * 申请调用
+     *
+     * @return 放行时的状态（CLOSED或HALF_OPEN），拒绝时返回OPEN
+     */
+    public State acquire() {
+        if (state == State.CLOSED) return State.CLOSED;
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() < openUntil) return State.OPEN;
+                state = State.HALF_OPEN;
+                halfOpenPermits = 0;
+                halfOpenSuccesses = 0;
+            }
+            if (state == State.CLOSED) return State.CLOSED;
+            if (halfOpenPermits >= policy.getHalfOpenCalls()) return State.OPEN;
+            halfOpenPermits++;
+            return State.HALF_OPEN;
+        }
+    }
+
+    /**
+     * 记录调用结果
+     *
+     * @param acquired acquire返回的状态
+     * @param failure  是否失败
+     * @param nanos    调用耗时
+     */
+    public synchronized void onResult(State acquired, boolean failure, long nanos) {
+        boolean slow = nanos >= slowCallNanos;
+        if (acquired == State.HALF_OPEN) {
+            if (state != State.HALF_OPEN) return;
+            if (failure || slow) {
+                open();
+            } else if (++halfOpenSuccesses >= policy.getHalfOpenCalls()) {
+                close();
+            }
+            return;
+        }
+        if (state != State.CLOSED) return;
+
+        if (calls == failures.length) {
+            if (failures[index]) failureCount--;
+            if (slowCalls[index]) slowCallCount--;
+        } else {
+            calls++;
+        }
+        failures[index] = failure;
+        slowCalls[index] = slow;
+        if (failure) failureCount++;
+        if (slow) slowCallCount++;
+        index = (index + 1) % failures.length;
+
+        if (calls >= policy.getMinimumCalls()
+                && ((double) failureCount / calls >= policy.getFailureRateThreshold()
+                || (double) slowCallCount / calls >= policy.getSlowCallRateThreshold())) {
+            open();
+        }
+    }
+
+    /**
+     * 调用被取消、未产生结果时归还半开状态的试探名额
+     */
+    public synchronized void release(State acquired) {
+        if (acquired == State.HALF_OPEN && state == State.HALF_OPEN && halfOpenPermits > 0) halfOpenPermits--;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + policy.getOpenDuration();
+    }
+
+    private void close() {
+        index = 0;
+        calls = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+        state = State.CLOSED;
+    }
+}
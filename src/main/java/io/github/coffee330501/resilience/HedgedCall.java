@@ -0,0 +1,90 @@
+package io.github.coffee330501.resilience;
+
+import io.github.coffee330501.utils.InternalCallContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 对冲调用：首次请求超过delay仍未完成时再发起一次，先成功的结果生效并取消另一个；
+ * 首次请求在对冲前失败时直接失败，对冲只用于降低尾延迟，不用于失败重试
+ */
+public final class HedgedCall<T> {
+    public static final String PRIMARY = "primary";
+    public static final String HEDGE = "hedge";
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private CompletableFuture<T> primary;
+    private CompletableFuture<T> hedge;
+    private ScheduledFuture<?> timer;
+    private int pending;
+
+    private HedgedCall() {
+    }
+
+    /**
+     * @param attempt 发起一次请求，参数为 PRIMARY 或 HEDGE
+     * @param delay   对冲延迟，毫秒
+     */
+    public static <T> CompletableFuture<T> start(Function<String, CompletableFuture<T>> attempt, long delay,
+                                                 ScheduledExecutorService scheduler) {
+        HedgedCall<T> call = new HedgedCall<>();
+        CompletableFuture<T> primary = attempt.apply(PRIMARY);
+        synchronized (call) {
+            call.primary = primary;
+            call.pending = 1;
+            // 对冲请求在调度线程上发起，使用调用方的用户信息
+            call.timer = scheduler.schedule(InternalCallContext.wrap(() -> call.hedge(attempt)), delay, TimeUnit.MILLISECONDS);
+        }
+        primary.whenComplete((data, e) -> call.onComplete(primary, data, e));
+        // 调用方取消时取消所有请求
+        call.result.whenComplete((data, e) -> {
+            if (call.result.isCancelled()) call.cancelOthers(null);
+        });
+        return call.result;
+    }
+
+    private void hedge(Function<String, CompletableFuture<T>> attempt) {
+        synchronized (this) {
+            if (result.isDone()) return;
+            pending++;
+        }
+        CompletableFuture<T> future = attempt.apply(HEDGE);
+        synchronized (this) {
+            hedge = future;
+        }
+        if (result.isDone()) future.cancel(false);
+        future.whenComplete((data, e) -> onComplete(future, data, e));
+    }
+
+    private void onComplete(CompletableFuture<T> future, T data, Throwable e) {
+        if (future.isCancelled()) return;
+        if (e == null) {
+            if (result.complete(data)) cancelOthers(future);
+            return;
+        }
+        boolean last;
+        synchronized (this) {
+            pending--;
+            // 对冲请求尚未发起时不再发起
+            if (timer != null && timer.cancel(false)) timer = null;
+            last = pending == 0;
+        }
+        if (last) result.completeExceptionally(e);
+    }
+
+    private void cancelOthers(CompletableFuture<T> winner) {
+        CompletableFuture<T> primary;
+        CompletableFuture<T> hedge;
+        synchronized (this) {
+            if (timer != null) timer.cancel(false);
+            primary = this.primary;
+            hedge = this.hedge;
+        }
+        if (primary != null && primary != winner) primary.cancel(false);
+        if (hedge != null && hedge != winner) hedge.cancel(false);
+    }
+}
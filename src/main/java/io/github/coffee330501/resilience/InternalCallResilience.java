@@ -0,0 +1,157 @@
+package io.github.coffee330501.resilience;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.config.ResilienceConfig;
+import io.github.coffee330501.config.ResiliencePolicyConfig;
+import io.github.coffee330501.metrics.LatencyHistogram;
+import io.github.coffee330501.utils.PathPolicyResolver;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用方对冲与熔断
+ * 策略按目标地址路径匹配 internal.call.resilience.targets，熔断器与对冲延迟按目标地址（不含查询参数）独立统计，
+ * 目标地址数超过上限后新地址不再熔断
+ */
+public class InternalCallResilience {
+    private static final int MAX_TARGETS = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final long WINDOW = TimeUnit.MINUTES.toMillis(1);
+    private static final long REFRESH_INTERVAL = 1000;
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    private PathPolicyResolver<ResiliencePolicy> targets = new PathPolicyResolver<>(ResiliencePolicy.NONE, MAX_TARGETS);
+    private final Map<String, Target> states = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        ResilienceConfig config = internalCallConfig.getResilience();
+        ResiliencePolicy defaultPolicy = ResiliencePolicy.of(config);
+        targets = new PathPolicyResolver<>(defaultPolicy, MAX_TARGETS);
+        if (config.getTargets() != null) {
+            for (ResiliencePolicyConfig policyConfig : config.getTargets()) {
+                targets.add(policyConfig.getPattern(), ResiliencePolicy.of(policyConfig, defaultPolicy));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    /**
+     * 目标地址的策略
+     */
+    public ResiliencePolicy policy(String url) {
+        return targets.resolve(url);
+    }
+
+    /**
+     * 目标地址的熔断器，未开启熔断或目标地址数超过上限时返回null
+     */
+    public CircuitBreaker breaker(String url, ResiliencePolicy policy) {
+        if (!policy.isCircuitBreaker()) return null;
+        Target target = target(url, policy);
+        return target == null ? null : target.breaker;
+    }
+
+    /**
+     * 对冲延迟，毫秒：近期耗时的hedgePercentile分位数，不低于hedgeDelay
+     */
+    public long hedgeDelay(String url, ResiliencePolicy policy) {
+        Target target = target(url, policy);
+        return target == null ? policy.getHedgeDelay() : target.hedgeDelay();
+    }
+
+    /**
+     * 记录请求耗时，用于计算对冲延迟
+     */
+    public void record(String url, ResiliencePolicy policy, long nanos) {
+        Target target = target(url, policy);
+        if (target != null) target.current.recordNanos(nanos);
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor != null) return executor;
+        synchronized (this) {
+            if (scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "internal-call-hedge");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * 熔断器状态，未创建熔断器的目标地址不包含在内
+     */
+    public Map<String, CircuitBreaker.State> getBreakerStates() {
+        Map<String, CircuitBreaker.State> result = new TreeMap<>();
+        for (Map.Entry<String, Target> entry : states.entrySet()) {
+            if (entry.getValue().breaker != null) result.put(entry.getKey(), entry.getValue().breaker.getState());
+        }
+        return result;
+    }
+
+    private Target target(String url, ResiliencePolicy policy) {
+        int query = url.indexOf('?');
+        String key = query < 0 ? url : url.substring(0, query);
+        Target target = states.get(key);
+        if (target != null) return target;
+        if (states.size() >= MAX_TARGETS) return null;
+        return states.computeIfAbsent(key, k -> new Target(policy));
+    }
+
+    /**
+     * 单个目标地址的熔断器与近期耗时，耗时按分钟滚动，对冲延迟每秒重新计算
+     */
+    private static class Target {
+        final ResiliencePolicy policy;
+        final CircuitBreaker breaker;
+        volatile LatencyHistogram current = new LatencyHistogram();
+        volatile LatencyHistogram previous;
+        volatile long windowStart = System.currentTimeMillis();
+        volatile long delay;
+        volatile long refreshAt;
+
+        Target(ResiliencePolicy policy) {
+            this.policy = policy;
+            this.breaker = policy.isCircuitBreaker() ? new CircuitBreaker(policy) : null;
+            this.delay = policy.getHedgeDelay();
+        }
+
+        long hedgeDelay() {
+            long now = System.currentTimeMillis();
+            if (now < refreshAt) return delay;
+            synchronized (this) {
+                if (now < refreshAt) return delay;
+                if (now - windowStart >= WINDOW) {
+                    previous = current;
+                    current = new LatencyHistogram();
+                    windowStart = now;
+                }
+                LatencyHistogram histogram = current.getCount() >= MIN_SAMPLES ? current : previous;
+                long percentile = histogram != null && histogram.getCount() >= MIN_SAMPLES
+                        ? TimeUnit.MICROSECONDS.toMillis(histogram.percentile(policy.getHedgePercentile())) : 0;
+                delay = Math.max(policy.getHedgeDelay(), percentile);
+                refreshAt = now + REFRESH_INTERVAL;
+                return delay;
+            }
+        }
+    }
+}
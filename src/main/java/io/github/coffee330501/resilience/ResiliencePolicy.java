@@ -0,0 +1,113 @@
+package io.github.coffee330501.resilience;
+
+import io.github.coffee330501.config.ResilienceConfig;
+import io.github.coffee330501.config.ResiliencePolicyConfig;
+
+/**
+ * 单个目标地址的对冲与熔断策略
+ */
+public final class ResiliencePolicy {
+    /**
+     * 不对冲、不熔断
+     */
+    public static final ResiliencePolicy NONE = new ResiliencePolicy(false, 0, 0, false, 1, Long.MAX_VALUE, 1, 0, 0, 0, 0);
+
+    private final boolean hedge;
+    private final double hedgePercentile;
+    private final long hedgeDelay;
+    private final boolean circuitBreaker;
+    private final double failureRateThreshold;
+    private final long slowCallThreshold;
+    private final double slowCallRateThreshold;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openDuration;
+    private final int halfOpenCalls;
+
+    public ResiliencePolicy(boolean hedge, double hedgePercentile, long hedgeDelay,
+                            boolean circuitBreaker, double failureRateThreshold, long slowCallThreshold, double slowCallRateThreshold,
+                            int windowSize, int minimumCalls, long openDuration, int halfOpenCalls) {
+        this.hedge = hedge;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeDelay = hedgeDelay;
+        this.circuitBreaker = circuitBreaker;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.openDuration = openDuration;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    static ResiliencePolicy of(ResilienceConfig config) {
+        return new ResiliencePolicy(config.isHedge(), config.getHedgePercentile(), config.getHedgeDelay(),
+                config.isCircuitBreaker(), config.getFailureRateThreshold(), config.getSlowCallThreshold(), config.getSlowCallRateThreshold(),
+                config.getWindowSize(), config.getMinimumCalls(), config.getOpenDuration(), config.getHalfOpenCalls());
+    }
+
+    static ResiliencePolicy of(ResiliencePolicyConfig config, ResiliencePolicy defaults) {
+        return new ResiliencePolicy(
+                config.getHedge() != null ? config.getHedge() : defaults.hedge,
+                config.getHedgePercentile() != null ? config.getHedgePercentile() : defaults.hedgePercentile,
+                config.getHedgeDelay() != null ? config.getHedgeDelay() : defaults.hedgeDelay,
+                config.getCircuitBreaker() != null ? config.getCircuitBreaker() : defaults.circuitBreaker,
+                config.getFailureRateThreshold() != null ? config.getFailureRateThreshold() : defaults.failureRateThreshold,
+                config.getSlowCallThreshold() != null ? config.getSlowCallThreshold() : defaults.slowCallThreshold,
+                config.getSlowCallRateThreshold() != null ? config.getSlowCallRateThreshold() : defaults.slowCallRateThreshold,
+                defaults.windowSize, defaults.minimumCalls,
+                config.getOpenDuration() != null ? config.getOpenDuration() : defaults.openDuration,
+                defaults.halfOpenCalls);
+    }
+
+    /**
+     * 是否不对冲也不熔断
+     */
+    public boolean isNone() {
+        return !hedge && !circuitBreaker;
+    }
+
+    public boolean isHedge() {
+        return hedge;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public boolean isCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public long getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.coffee330501.service;
+
+import io.github.coffee330501.config.LogConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步批量日志处理，包装任意InternalCallLogHandler
+ * 调用线程只将日志放入无锁环形缓冲区，投递线程批量取出后调用 delegate.log(List)
+ */
+@Slf4j
+public class AsyncInternalCallLogHandler extends InternalCallLogHandler {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final InternalCallLogHandler delegate;
+    private final LogRingBuffer<Object> buffer;
+    private final LogConfig.OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public AsyncInternalCallLogHandler(InternalCallLogHandler delegate, LogConfig config) {
+        this.delegate = delegate;
+        this.buffer = new LogRingBuffer<>(config.getBufferSize());
+        this.overflowPolicy = config.getOverflowPolicy() == null ? LogConfig.OverflowPolicy.DROP_NEWEST : config.getOverflowPolicy();
+        this.batchSize = Math.max(1, config.getBatchSize());
+        int threads = Math.max(1, config.getConsumerThreads());
+        for (int i = 0; i < threads; i++) {
+            Thread consumer = new Thread(this::consume, "internal-call-log-" + i);
+            consumer.setDaemon(true);
+            consumers.add(consumer);
+            consumer.start();
+        }
+    }
+
+    @Override
+    public void log(Map<String, Object> map) {
+        enqueue(map);
+    }
+
+    /**
+     * 入参与返回数据在调用线程上转为快照后放入缓冲区，在投递线程中才生成Map
+     */
+    @Override
+    public void log(LogBuilder logBuilder) {
+        logBuilder.snapshot();
+        enqueue(logBuilder);
+    }
+
+    private void enqueue(Object entry) {
+        if (!running) {
+            deliver(Collections.singletonList(entry));
+            return;
+        }
+        while (!buffer.offer(entry)) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST:
+                    dropped.increment();
+                    return;
+                case DROP_OLDEST:
+                    if (buffer.poll() != null) dropped.increment();
+                    break;
+                default:
+                    if (!running) {
+                        deliver(Collections.singletonList(entry));
+                        return;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+        enqueued.increment();
+    }
+
+    @Override
+    public void log(List<Map<String, Object>> maps) {
+        for (Map<String, Object> map : maps) {
+            log(map);
+        }
+    }
+
+    private void consume() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (!running) break;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    private void deliver(List<Object> batch) {
+        try {
+            List<Map<String, Object>> maps = new ArrayList<>(batch.size());
+            for (Object entry : batch) {
+                maps.add(entry instanceof LogBuilder ? ((LogBuilder) entry).getMap() : (Map<String, Object>) entry);
+            }
+            delegate.log(maps);
+            delivered.add(batch.size());
+        } catch (Throwable e) {
+            failed.add(batch.size());
+            log.error("Internal call log delivery failed", e);
+        }
+    }
+
+    /**
+     * 停止投递线程，缓冲区中剩余的日志投递完成后返回
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * 已放入缓冲区的日志数
+     */
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    /**
+     * 因缓冲区满被丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 已投递的日志数
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * 投递时处理失败的日志数
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * 当前缓冲区中等待投递的日志数
+     */
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.coffee330501.service;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.config.LogConfig;
+import io.github.coffee330501.config.LogPolicyConfig;
+import io.github.coffee330501.utils.PathPolicyResolver;
+import io.github.coffee330501.utils.SpringContextUtil;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+/**
+ * 调用方与被调用方共用的日志入口
+ * 未注册InternalCallLogHandler时不记录；配置 internal.call.log.async=true 时经AsyncInternalCallLogHandler异步批量投递
+ * 日志策略优先级：@InternalLog（方法、类） > internal.call.log.policies 按路径匹配 > internal.call.log.* 默认值
+ */
+public class InternalCallLogDispatcher {
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+    private static final int MAX_CACHED_PATHS = 4096;
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    private InternalCallLogHandler handler;
+    private AsyncInternalCallLogHandler asyncHandler;
+    private LogPolicy defaultPolicy;
+    private PathPolicyResolver<LogPolicy> policies;
+
+    @PostConstruct
+    public void init() {
+        LogConfig logConfig = internalCallConfig.getLog();
+        InternalCallLogHandler logHandler = SpringContextUtil.getBean(InternalCallLogHandler.class);
+        if (logHandler != null && logConfig.isAsync()) {
+            asyncHandler = new AsyncInternalCallLogHandler(logHandler, logConfig);
+            logHandler = asyncHandler;
+        }
+        handler = logHandler;
+        defaultPolicy = handler == null ? LogPolicy.DISABLED : LogPolicy.of(logConfig);
+        policies = new PathPolicyResolver<>(defaultPolicy, MAX_CACHED_PATHS);
+        if (logConfig.getPolicies() != null) {
+            for (LogPolicyConfig config : logConfig.getPolicies()) {
+                policies.add(config.getPattern(), LogPolicy.of(config, defaultPolicy));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (asyncHandler != null) asyncHandler.shutdown(SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * 调用方日志，按目标地址的路径选择策略
+     */
+    public InternalCallLogHandler.LogBuilder createLogBuilder(String url) {
+        return InternalCallLogHandler.createLogBuilder(resolve(url));
+    }
+
+    /**
+     * 被调用方日志，methodPolicy为方法上@InternalLog解析出的策略，为null时按接口路径选择
+     */
+    public InternalCallLogHandler.LogBuilder createLogBuilder(String path, LogPolicy methodPolicy) {
+        if (handler == null) return InternalCallLogHandler.createLogBuilder(LogPolicy.DISABLED);
+        return InternalCallLogHandler.createLogBuilder(methodPolicy == null ? resolve(path) : methodPolicy);
+    }
+
+    public void log(InternalCallLogHandler.LogBuilder logBuilder) {
+        if (handler != null && logBuilder.isLoggable()) handler.log(logBuilder);
+    }
+
+    private LogPolicy resolve(String url) {
+        if (handler == null || url == null) return defaultPolicy;
+        return policies.resolve(url);
+    }
+
+    /**
+     * 异步投递统计，未开启异步时返回null
+     */
+    public AsyncInternalCallLogHandler getAsyncHandler() {
+        return asyncHandler;
+    }
+}
@@ -1,30 +1,306 @@
 package io.github.coffee330501.service;
 
+import com.alibaba.fastjson2.JSON;
+import io.github.coffee330501.config.LogConfig;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public abstract class InternalCallLogHandler{
     public abstract void log(Map<String, Object> map);
 
+    /**
+     * 批量记录日志，异步投递时调用，可重写为批量写入
+     */
+    public void log(List<Map<String, Object>> maps) {
+        for (Map<String, Object> map : maps) {
+            log(map);
+        }
+    }
+
     public void log(LogBuilder logBuilder) {
         Map<String, Object> map = logBuilder.getMap();
         log(map);
     }
 
     public static LogBuilder createLogBuilder() {
-        return new LogBuilder();
+        return new LogBuilder(LogPolicy.FULL);
     }
 
+    public static LogBuilder createLogBuilder(LogPolicy policy) {
+        return new LogBuilder(policy);
+    }
+
+    /**
+     * 日志记录，常用字段使用固定字段保存，仅在日志确定记录时才生成Map
+     * 入参与返回数据按策略保存：OFF不保留引用，TRUNCATED在生成Map时才序列化，异步投递前在调用线程上先转为快照
+     */
     public static class LogBuilder {
-        private final Map<String, Object> map = new HashMap<>();
+        // 已添加的固定字段，值为null时同样输出
+        private static final int TYPE = 1 << 0;
+        private static final int URL = 1 << 1;
+        private static final int URI = 1 << 2;
+        private static final int REQUEST_ID = 1 << 3;
+        private static final int TIMESTAMP_STR = 1 << 4;
+        private static final int METHOD_NAME = 1 << 5;
+        private static final int PARAMS = 1 << 6;
+        private static final int RESULT = 1 << 7;
+        private static final int DATA = 1 << 8;
+        private static final int CODE = 1 << 9;
+        private static final int MSG = 1 << 10;
+        private static final int EXCEPTION = 1 << 11;
+        private static final int INTERNAL_INFO = 1 << 12;
+        private static final int USER_ID = 1 << 13;
+        private static final int USER_TABLE_NAME = 1 << 14;
+
+        private final LogPolicy policy;
+        private final boolean sampled;
+        private final boolean capturePayload;
+        // 字段保存调用方传入的原始值，不限定类型
+        private Object type;
+        private Object url;
+        private Object uri;
+        private Object requestId;
+        private Object timestampStr;
+        private Object methodName;
+        private Object params;
+        private Object result;
+        private Object data;
+        private Object code;
+        private Object msg;
+        private Object exception;
+        private boolean failed;
+        private Object internalInfo;
+        private Object userId;
+        private Object userTableName;
+        private int added;
+        private Map<String, Object> extra;
+        private Map<String, Object> map;
+
+        public LogBuilder() {
+            this(LogPolicy.FULL);
+        }
+
+        LogBuilder(LogPolicy policy) {
+            this.policy = policy;
+            this.sampled = policy.sample();
+            this.capturePayload = policy.getPayload() != LogConfig.Payload.OFF
+                    && (sampled || policy.isAlwaysLogErrors());
+        }
 
         public LogBuilder add(String key, Object value) {
-            map.put(key, value);
+            if (!sampled && !policy.isAlwaysLogErrors()) return this;
+            map = null;
+            switch (key) {
+                case "type":
+                    type = value;
+                    added |= TYPE;
+                    break;
+                case "url":
+                    url = value;
+                    added |= URL;
+                    break;
+                case "uri":
+                    uri = value;
+                    added |= URI;
+                    break;
+                case "requestId":
+                    requestId = value;
+                    added |= REQUEST_ID;
+                    break;
+                case "timestampStr":
+                    timestampStr = value;
+                    added |= TIMESTAMP_STR;
+                    break;
+                case "methodName":
+                    methodName = value;
+                    added |= METHOD_NAME;
+                    break;
+                case "params":
+                    if (capturePayload) {
+                        params = value;
+                        added |= PARAMS;
+                    }
+                    break;
+                case "result":
+                    if (capturePayload) {
+                        result = value;
+                        added |= RESULT;
+                    }
+                    break;
+                case "data":
+                    if (capturePayload) {
+                        data = value;
+                        added |= DATA;
+                    }
+                    break;
+                case "code":
+                    code = value;
+                    added |= CODE;
+                    break;
+                case "msg":
+                    msg = value;
+                    added |= MSG;
+                    break;
+                case "exception":
+                    exception = value;
+                    failed = true;
+                    added |= EXCEPTION;
+                    break;
+                case "internalInfo":
+                    internalInfo = value;
+                    added |= INTERNAL_INFO;
+                    break;
+                case "userId":
+                    userId = value;
+                    added |= USER_ID;
+                    break;
+                case "userTableName":
+                    userTableName = value;
+                    added |= USER_TABLE_NAME;
+                    break;
+                default:
+                    if (extra == null) extra = new HashMap<>();
+                    extra.put(key, value);
+            }
             return this;
         }
 
+        /**
+         * 是否出现异常
+         */
+        public boolean isError() {
+            return failed || (code != null && !isSuccess(code));
+        }
+
+        private static boolean isSuccess(Object code) {
+            if (code instanceof Number) return ((Number) code).intValue() == 200;
+            return "200".equals(String.valueOf(code).trim());
+        }
+
+        /**
+         * 按采样结果与异常决定是否记录
+         */
+        public boolean isLoggable() {
+            return sampled || (policy.isAlwaysLogErrors() && isError());
+        }
+
+        /**
+         * 只包含已添加的字段，值为null的字段同样保留；入参与返回数据按策略未保存时不包含
+         */
         public Map<String, Object> getMap() {
+            if (map != null) return map;
+            Map<String, Object> values = new LinkedHashMap<>();
+            put(values, TYPE, "type", type);
+            put(values, URL, "url", url);
+            put(values, URI, "uri", uri);
+            put(values, REQUEST_ID, "requestId", requestId);
+            put(values, TIMESTAMP_STR, "timestampStr", timestampStr);
+            put(values, METHOD_NAME, "methodName", methodName);
+            put(values, PARAMS, "params", payload(params));
+            put(values, RESULT, "result", payload(result));
+            put(values, DATA, "data", payload(data));
+            put(values, CODE, "code", code);
+            put(values, MSG, "msg", msg);
+            put(values, EXCEPTION, "exception", exception);
+            put(values, INTERNAL_INFO, "internalInfo", internalInfo);
+            put(values, USER_ID, "userId", userId);
+            put(values, USER_TABLE_NAME, "userTableName", userTableName);
+            if (extra != null) values.putAll(extra);
+            map = values;
             return map;
         }
+
+        private void put(Map<String, Object> values, int field, String key, Object value) {
+            if ((added & field) != 0) values.put(key, value);
+        }
+
+        /**
+         * 在调用线程上将入参与返回数据转为JSON快照，异步投递前调用：
+         * 投递时request、response可能已被容器回收，返回数据也可能已被调用方修改；快照在生成Map时才按策略转换
+         */
+        void snapshot() {
+            if (!capturePayload) return;
+            map = null;
+            params = snapshot(params);
+            result = snapshot(result);
+            data = snapshot(data);
+        }
+
+        private static Object snapshot(Object value) {
+            if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                    || value instanceof Snapshot) {
+                return value;
+            }
+            value = sanitize(value);
+            try {
+                return new Snapshot(JSON.toJSONBytes(value));
+            } catch (RuntimeException e) {
+                return String.valueOf(value);
+            }
+        }
+
+        private Object payload(Object value) {
+            if (value == null) return null;
+            boolean truncated = policy.getPayload() == LogConfig.Payload.TRUNCATED;
+            if (value instanceof Snapshot) {
+                byte[] json = ((Snapshot) value).json;
+                return truncated ? truncate(new String(json, StandardCharsets.UTF_8)) : JSON.parse(json);
+            }
+            return truncated ? truncate(toJSONString(value)) : value;
+        }
+
+        private String truncate(String json) {
+            int max = policy.getMaxPayloadLength();
+            if (max <= 0 || json.length() <= max) return json;
+            return json.substring(0, max) + "...(" + json.length() + ")";
+        }
+
+        private static String toJSONString(Object value) {
+            value = sanitize(value);
+            try {
+                return JSON.toJSONString(value);
+            } catch (RuntimeException e) {
+                return String.valueOf(value);
+            }
+        }
+
+        /**
+         * 入参中的request、response、流与上传文件不序列化，以类名代替
+         */
+        private static Object sanitize(Object value) {
+            if (!(value instanceof Object[])) return value;
+            Object[] args = ((Object[]) value).clone();
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+                if (arg instanceof ServletRequest || arg instanceof ServletResponse
+                        || arg instanceof InputStream || arg instanceof OutputStream
+                        || arg instanceof Reader || arg instanceof Writer || arg instanceof MultipartFile) {
+                    args[i] = arg.getClass().getName();
+                }
+            }
+            return args;
+        }
+
+        /**
+         * 已序列化的入参或返回数据
+         */
+        private static final class Snapshot {
+            final byte[] json;
+
+            Snapshot(byte[] json) {
+                this.json = json;
+            }
+        }
     }
 }
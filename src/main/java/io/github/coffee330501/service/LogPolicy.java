@@ -0,0 +1,73 @@
+package io.github.coffee330501.service;
+
+import io.github.coffee330501.annotation.InternalLog;
+import io.github.coffee330501.config.LogConfig;
+import io.github.coffee330501.config.LogPolicyConfig;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 单个接口的日志策略：采样率、异常是否必记、入参与返回数据的记录方式
+ */
+public final class LogPolicy {
+    /**
+     * 全部记录，记录原始对象
+     */
+    public static final LogPolicy FULL = new LogPolicy(1.0, true, LogConfig.Payload.FULL, 0);
+    /**
+     * 不记录
+     */
+    public static final LogPolicy DISABLED = new LogPolicy(0, false, LogConfig.Payload.OFF, 0);
+
+    private final double sampleRate;
+    private final boolean alwaysLogErrors;
+    private final LogConfig.Payload payload;
+    private final int maxPayloadLength;
+
+    public LogPolicy(double sampleRate, boolean alwaysLogErrors, LogConfig.Payload payload, int maxPayloadLength) {
+        this.sampleRate = sampleRate;
+        this.alwaysLogErrors = alwaysLogErrors;
+        this.payload = payload == null ? LogConfig.Payload.FULL : payload;
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    static LogPolicy of(LogConfig config) {
+        return new LogPolicy(config.getSampleRate(), config.isAlwaysLogErrors(), config.getPayload(), config.getMaxPayloadLength());
+    }
+
+    static LogPolicy of(LogPolicyConfig config, LogPolicy defaults) {
+        return new LogPolicy(
+                config.getSampleRate() != null ? config.getSampleRate() : defaults.sampleRate,
+                config.getAlwaysLogErrors() != null ? config.getAlwaysLogErrors() : defaults.alwaysLogErrors,
+                config.getPayload() != null ? config.getPayload() : defaults.payload,
+                config.getMaxPayloadLength() != null ? config.getMaxPayloadLength() : defaults.maxPayloadLength);
+    }
+
+    public static LogPolicy of(InternalLog annotation) {
+        return new LogPolicy(annotation.sampleRate(), annotation.alwaysLogErrors(), annotation.payload(), annotation.maxPayloadLength());
+    }
+
+    /**
+     * 按采样率决定本次调用是否记录
+     */
+    boolean sample() {
+        if (sampleRate >= 1) return true;
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public boolean isAlwaysLogErrors() {
+        return alwaysLogErrors;
+    }
+
+    public LogConfig.Payload getPayload() {
+        return payload;
+    }
+
+    public int getMaxPayloadLength() {
+        return maxPayloadLength;
+    }
+}
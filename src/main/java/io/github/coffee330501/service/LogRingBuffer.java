@@ -0,0 +1,94 @@
+package io.github.coffee330501.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形队列，支持多生产者多消费者
+ * 每个槽位的序号标记其可写或可读，生产者与消费者各自通过CAS推进位置
+ */
+class LogRingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    LogRingBuffer(int capacity) {
+        int size = 1;
+        while (size < Math.max(2, capacity)) size <<= 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    /**
+     * @return 队列已满返回false
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) break;
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        buffer.set(index, element);
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * @return 队列为空返回null
+     */
+    E poll() {
+        long position = head.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) break;
+                position = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+        E element = buffer.get(index);
+        buffer.set(index, null);
+        sequences.set(index, position + mask + 1);
+        return element;
+    }
+
+    int drainTo(List<E> list, int max) {
+        int count = 0;
+        while (count < max) {
+            E element = poll();
+            if (element == null) break;
+            list.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.utils.RSAUtils;
+import org.apache.commons.codec.binary.Base64;
+
+import javax.crypto.Cipher;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * SHA256withECDSA，P-256曲线
+ * 会话模式握手使用BouncyCastle的ECIES加密会话密钥
+ */
+public class EcdsaSignatureAlgorithm extends JcaSignatureAlgorithm {
+    public static final String NAME = "ECDSA";
+    private static final String CURVE = "secp256r1";
+    private static final String CIPHER_ALGORITHM = "ECIESwithSHA256";
+
+    public EcdsaSignatureAlgorithm() {
+        super("EC", "SHA256withECDSA", null);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected void initialize(KeyPairGenerator keyPairGenerator) throws GeneralSecurityException {
+        keyPairGenerator.initialize(new ECGenParameterSpec(CURVE));
+    }
+
+    @Override
+    public String encrypt(String plainText, PublicKey publicKey) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM, RSAUtils.getInstance());
+        cipher.init(Cipher.ENCRYPT_MODE, publicKey);
+        return Base64.encodeBase64String(cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public String decrypt(String encryptText, PrivateKey privateKey) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM, RSAUtils.getInstance());
+        cipher.init(Cipher.DECRYPT_MODE, privateKey);
+        return new String(cipher.doFinal(Base64.decodeBase64(encryptText)), StandardCharsets.UTF_8);
+    }
+}
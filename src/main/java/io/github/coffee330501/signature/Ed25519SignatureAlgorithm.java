@@ -0,0 +1,27 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.utils.RSAUtils;
+
+import java.security.KeyPairGenerator;
+
+/**
+ * Ed25519，基于BouncyCastle实现，签名与验签均远快于RSA
+ * 不支持加密，会话模式下握手失败，调用方继续使用Ed25519逐请求签名
+ */
+public class Ed25519SignatureAlgorithm extends JcaSignatureAlgorithm {
+    public static final String NAME = "ED25519";
+
+    public Ed25519SignatureAlgorithm() {
+        super("Ed25519", "Ed25519", RSAUtils.getInstance());
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected void initialize(KeyPairGenerator keyPairGenerator) {
+        // Ed25519无需参数
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.coffee330501.signature;
+
+import com.alibaba.fastjson2.JSON;
+import io.github.coffee330501.config.InformationTokenConfig;
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.exception.InternalCallException;
+import lombok.Data;
+import org.apache.commons.codec.binary.Base64;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户信息令牌的签发与验签
+ * 令牌格式为 kid.Base64URL(JSON).签名，使用 {@link KeyRegistry} 的私钥签名，验签按令牌中的kid选择公钥；
+ * 调用方按用户信息缓存已签发的令牌，被调用方按最近使用顺序缓存已验签的令牌，相同令牌不再重复解码与验签
+ */
+public class InformationTokenManager {
+    public static final String INFORMATION_HEADER = "information";
+    public static final String INVALID_TOKEN = "Invalid information token";
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    @Resource
+    KeyRegistry keyRegistry;
+    private final Map<Map<String, String>, IssuedToken> issued = new ConcurrentHashMap<>();
+    private Stripe[] stripes;
+    private int mask;
+
+    @PostConstruct
+    public void init() {
+        int size = 1;
+        while (size < Runtime.getRuntime().availableProcessors() * 2) size <<= 1;
+        int stripeSize = Math.max(1, internalCallConfig.getInformationToken().getCacheSize() / size);
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) stripes[i] = new Stripe(stripeSize);
+        mask = size - 1;
+    }
+
+    /**
+     * 签发令牌，有效期过半前重复使用已签发的令牌
+     */
+    public String issue(Map<String, String> information) {
+        long now = System.currentTimeMillis();
+        IssuedToken token = issued.get(information);
+        if (token != null && now < token.renewAt) return token.value;
+
+        InformationTokenConfig config = internalCallConfig.getInformationToken();
+        long ttl = config.getTtl() * 1000L;
+        Payload payload = new Payload();
+        Map<String, String> values = new TreeMap<>();
+        for (Map.Entry<String, String> entry : information.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) values.put(entry.getKey(), entry.getValue());
+        }
+        payload.setI(values);
+        payload.setE(now + ttl);
+        String content = Base64.encodeBase64URLSafeString(JSON.toJSONBytes(payload));
+        String kid = keyRegistry.getKeyId();
+        String value = (kid == null ? "" : kid) + "." + content + "." + keyRegistry.sign(content);
+
+        if (issued.size() >= config.getCacheSize()) issued.clear();
+        issued.put(new HashMap<>(information), new IssuedToken(value, now + ttl / 2));
+        return value;
+    }
+
+    /**
+     * 验签并返回令牌中的用户信息，最近验签过的令牌直接返回
+     *
+     * @return 只读的用户信息
+     * @throws InternalCallException 令牌格式错误、验签失败或已过期，code为400
+     */
+    public Map<String, String> verify(String token) throws InternalCallException {
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripe(token);
+        VerifiedToken verified = stripe.get(token);
+        if (verified != null) {
+            if (now < verified.expireAt) return verified.information;
+            throw new InternalCallException(400, INVALID_TOKEN);
+        }
+
+        int signStart = token.lastIndexOf('.');
+        int contentStart = signStart > 0 ? token.lastIndexOf('.', signStart - 1) : -1;
+        if (contentStart < 0) throw new InternalCallException(400, INVALID_TOKEN);
+        String kid = contentStart == 0 ? null : token.substring(0, contentStart);
+        String content = token.substring(contentStart + 1, signStart);
+        boolean valid;
+        try {
+            valid = keyRegistry.verify(content, token.substring(signStart + 1), kid);
+        } catch (InternalCallException e) {
+            valid = false;
+        }
+        if (!valid) throw new InternalCallException(400, INVALID_TOKEN);
+
+        Payload payload;
+        try {
+            payload = JSON.parseObject(Base64.decodeBase64(content), Payload.class);
+        } catch (RuntimeException e) {
+            throw new InternalCallException(400, INVALID_TOKEN);
+        }
+        if (payload == null || payload.getE() == null || now >= payload.getE()) {
+            throw new InternalCallException(400, INVALID_TOKEN);
+        }
+        Map<String, String> information = payload.getI() == null ? Collections.emptyMap()
+                : Collections.unmodifiableMap(payload.getI());
+        stripe.put(token, new VerifiedToken(information, payload.getE()));
+        return information;
+    }
+
+    private Stripe stripe(String token) {
+        int h = token.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    /**
+     * 令牌内容，字段名保持最短
+     */
+    @Data
+    public static class Payload {
+        /**
+         * 用户信息
+         */
+        Map<String, String> i;
+        /**
+         * 过期时间戳
+         */
+        Long e;
+    }
+
+    private static class IssuedToken {
+        final String value;
+        final long renewAt;
+
+        IssuedToken(String value, long renewAt) {
+            this.value = value;
+            this.renewAt = renewAt;
+        }
+    }
+
+    private static class VerifiedToken {
+        final Map<String, String> information;
+        final long expireAt;
+
+        VerifiedToken(Map<String, String> information, long expireAt) {
+            this.information = information;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private static class Stripe {
+        private final LinkedHashMap<String, VerifiedToken> tokens;
+
+        Stripe(int maxSize) {
+            this.tokens = new LinkedHashMap<String, VerifiedToken>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized VerifiedToken get(String token) {
+            return tokens.get(token);
+        }
+
+        synchronized void put(String token, VerifiedToken verified) {
+            tokens.put(token, verified);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.coffee330501.signature;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 内部调用会话，会话内使用共享密钥进行HMAC签名
+ */
+public class InternalCallSession {
+    private final String sessionId;
+    private final SecretKeySpec key;
+    private final long expireAt;
+
+    public InternalCallSession(String sessionId, SecretKeySpec key, long expireAt) {
+        this.sessionId = sessionId;
+        this.key = key;
+        this.expireAt = expireAt;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public SecretKeySpec getKey() {
+        return key;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expireAt;
+    }
+}
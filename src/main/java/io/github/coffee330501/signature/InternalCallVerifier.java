@@ -0,0 +1,112 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.exception.InternalCallException;
+import io.github.coffee330501.metrics.EndpointMetrics;
+import io.github.coffee330501.metrics.Outcome;
+import io.github.coffee330501.metrics.Phase;
+import io.github.coffee330501.nonce.NonceStore;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 被调用方请求校验：验签、过期与重复请求检查
+ * 由InternalCallVerifyFilter在读取请求体之前调用，未经过滤器校验的请求由InternalCallAspect调用
+ */
+public class InternalCallVerifier {
+    public static final String SIGN_HEADER = "sign";
+    public static final String REQUEST_ID_HEADER = "requestId";
+    public static final String TIMESTAMP_HEADER = "timestamp";
+    public static final String EMPTY_SIGNATURE = "Signature parameter is empty";
+    public static final String VERIFICATION_FAILED = "Internal call verification failed";
+    public static final String REQUEST_EXPIRATION = "Request Expiration";
+    public static final String DUPLICATE_REQUEST = "Duplicate Request";
+    private static final long EXPIRATION = 10 * 1000L;
+    private static final int NONCE_EXPIRE = 10;
+
+    @Resource
+    NonceStore nonceStore;
+    @Resource
+    KeyRegistry keyRegistry;
+    @Resource
+    SessionManager sessionManager;
+
+    /**
+     * 是否携带签名参数
+     */
+    public static boolean hasSignature(HttpServletRequest request) {
+        return request.getHeader(SIGN_HEADER) != null
+                && request.getHeader(REQUEST_ID_HEADER) != null
+                && request.getHeader(TIMESTAMP_HEADER) != null;
+    }
+
+    /**
+     * 验签并检查请求是否重复、过期
+     *
+     * @param request request
+     * @param metrics 接口统计
+     * @throws InternalCallException 校验失败，code为400
+     */
+    public void verify(HttpServletRequest request, EndpointMetrics metrics) throws InternalCallException {
+        if (!hasSignature(request)) throw new InternalCallException(400, EMPTY_SIGNATURE);
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(request.getHeader(TIMESTAMP_HEADER));
+        } catch (NumberFormatException e) {
+            throw new InternalCallException(400, VERIFICATION_FAILED);
+        }
+        // 会话模式使用HMAC，否则按kid选择公钥
+        long verifyStart = System.nanoTime();
+        boolean valid = verifySign(request, getSignContent(timestamp, requestId), request.getHeader(SIGN_HEADER));
+        metrics.record(Phase.VERIFY, verifyStart);
+        if (!valid) {
+            throw new InternalCallException(400, VERIFICATION_FAILED);
+        }
+        requestValidate(timestamp, requestId, metrics);
+    }
+
+    /**
+     * 验签
+     */
+    private boolean verifySign(HttpServletRequest request, String content, String sign) throws InternalCallException {
+        String sessionId = request.getHeader(SessionManager.SESSION_HEADER);
+        if (sessionId != null) {
+            return sessionManager.verify(sessionId, content, sign);
+        }
+        String kid = request.getHeader(KeyRegistry.KID_HEADER);
+        return keyRegistry.verify(content, sign, kid);
+    }
+
+    /**
+     * 获取被签名的内容
+     *
+     * @return 被签名的内容
+     */
+    private String getSignContent(long timestamp, String requestId) {
+        return "requestId=" + requestId + "&" + "timestamp=" + timestamp;
+    }
+
+    /**
+     * 验证请求有效性
+     *
+     * @param timestamp 请求发起时间戳
+     * @param requestId 请求ID
+     * @param metrics   接口统计
+     * @throws InternalCallException 内部调用异常
+     */
+    private void requestValidate(long timestamp, String requestId, EndpointMetrics metrics) throws InternalCallException {
+        long diff = System.currentTimeMillis() - timestamp;
+        if (diff > EXPIRATION) {
+            metrics.outcome(Outcome.EXPIRED);
+            throw new InternalCallException(400, REQUEST_EXPIRATION);
+        }
+        long nonceStart = System.nanoTime();
+        boolean set = nonceStore.putIfAbsent(requestId, NONCE_EXPIRE);
+        metrics.record(Phase.NONCE, nonceStart);
+        if (!set) {
+            metrics.outcome(Outcome.DUPLICATE);
+            throw new InternalCallException(400, DUPLICATE_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.coffee330501.signature;
+
+import org.apache.commons.codec.binary.Base64;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于JCA的签名算法
+ * 已解析的密钥按内容缓存，Signature每个线程复用一个实例
+ */
+public abstract class JcaSignatureAlgorithm implements SignatureAlgorithm {
+    private static final int MAX_CACHED_KEYS = 64;
+
+    private final String keyAlgorithm;
+    private final String signatureAlgorithm;
+    private final Provider provider;
+    private final Map<String, PublicKey> publicKeyCache = new ConcurrentHashMap<>();
+    private final Map<String, PrivateKey> privateKeyCache = new ConcurrentHashMap<>();
+    private final ThreadLocal<Signature> signature = ThreadLocal.withInitial(() -> {
+        try {
+            return newSignature();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /**
+     * @param keyAlgorithm       KeyFactory、KeyPairGenerator算法
+     * @param signatureAlgorithm Signature算法
+     * @param provider           为null时使用JDK默认实现
+     */
+    protected JcaSignatureAlgorithm(String keyAlgorithm, String signatureAlgorithm, Provider provider) {
+        this.keyAlgorithm = keyAlgorithm;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.provider = provider;
+    }
+
+    /**
+     * 初始化密钥对生成器，如密钥长度、曲线
+     */
+    protected abstract void initialize(KeyPairGenerator keyPairGenerator) throws GeneralSecurityException;
+
+    @Override
+    public PublicKey getPublicKey(String publicKey) throws GeneralSecurityException {
+        PublicKey key = publicKeyCache.get(publicKey);
+        if (key != null) return key;
+        key = keyFactory().generatePublic(new X509EncodedKeySpec(Base64.decodeBase64(publicKey)));
+        if (publicKeyCache.size() >= MAX_CACHED_KEYS) publicKeyCache.clear();
+        publicKeyCache.put(publicKey, key);
+        return key;
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String privateKey) throws GeneralSecurityException {
+        PrivateKey key = privateKeyCache.get(privateKey);
+        if (key != null) return key;
+        key = keyFactory().generatePrivate(new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKey)));
+        if (privateKeyCache.size() >= MAX_CACHED_KEYS) privateKeyCache.clear();
+        privateKeyCache.put(privateKey, key);
+        return key;
+    }
+
+    @Override
+    public String sign(String content, PrivateKey privateKey) throws GeneralSecurityException {
+        Signature instance = signature.get();
+        instance.initSign(privateKey);
+        instance.update(content.getBytes(StandardCharsets.UTF_8));
+        return Base64.encodeBase64URLSafeString(instance.sign());
+    }
+
+    @Override
+    public boolean verify(String content, String sign, PublicKey publicKey) throws GeneralSecurityException {
+        Signature instance = signature.get();
+        instance.initVerify(publicKey);
+        instance.update(content.getBytes(StandardCharsets.UTF_8));
+        return instance.verify(Base64.decodeBase64(sign));
+    }
+
+    @Override
+    public Map<String, String> createKeys() {
+        try {
+            KeyPairGenerator keyPairGenerator = provider == null
+                    ? KeyPairGenerator.getInstance(keyAlgorithm)
+                    : KeyPairGenerator.getInstance(keyAlgorithm, provider);
+            initialize(keyPairGenerator);
+            KeyPair keyPair = keyPairGenerator.generateKeyPair();
+            Map<String, String> keyPairMap = new HashMap<>();
+            keyPairMap.put("privateKey", Base64.encodeBase64URLSafeString(keyPair.getPrivate().getEncoded()));
+            keyPairMap.put("publicKey", Base64.encodeBase64URLSafeString(keyPair.getPublic().getEncoded()));
+            return keyPairMap;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("生成密钥对失败：" + e);
+        }
+    }
+
+    protected Provider getProvider() {
+        return provider;
+    }
+
+    private KeyFactory keyFactory() throws NoSuchAlgorithmException {
+        return provider == null ? KeyFactory.getInstance(keyAlgorithm) : KeyFactory.getInstance(keyAlgorithm, provider);
+    }
+
+    private Signature newSignature() throws NoSuchAlgorithmException {
+        return provider == null ? Signature.getInstance(signatureAlgorithm) : Signature.getInstance(signatureAlgorithm, provider);
+    }
+}
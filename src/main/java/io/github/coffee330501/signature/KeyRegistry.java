@@ -0,0 +1,168 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.exception.InternalCallException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 签名密钥注册表
+ * <p>
+ * 签名算法由 internal.call.algorithm 选择（RSA、ED25519、ECDSA或自定义的 {@link SignatureAlgorithm} Bean），
+ * 调用方与被调用方需使用相同算法的密钥对。
+ * <p>
+ * 签名使用 internal.call.private-key，并通过请求头 kid 携带 internal.call.key-id；
+ * 验签按请求头 kid 从 internal.call.public-keys 中选择公钥，未携带 kid 时使用 internal.call.public-key。
+ * <p>
+ * 密钥按内容缓存解析结果，配置刷新后新密钥在首次使用时解析。轮换密钥时先在被调用方增加新公钥，
+ * 再切换调用方的 key-id 与私钥，最后移除旧公钥，全程无需同时重启
+ */
+@Slf4j
+public class KeyRegistry {
+    public static final String KID_HEADER = "kid";
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    @Autowired(required = false)
+    List<SignatureAlgorithm> customAlgorithms = Collections.emptyList();
+    private SignatureAlgorithm algorithm;
+
+    /**
+     * 选择签名算法，并解析已配置的密钥，配置错误尽早暴露
+     */
+    @PostConstruct
+    public void init() {
+        List<SignatureAlgorithm> algorithms = new ArrayList<>(customAlgorithms);
+        algorithms.add(new RsaSignatureAlgorithm());
+        algorithms.add(new Ed25519SignatureAlgorithm());
+        algorithms.add(new EcdsaSignatureAlgorithm());
+        String name = internalCallConfig.getAlgorithm();
+        for (SignatureAlgorithm candidate : algorithms) {
+            if (candidate.getName().equalsIgnoreCase(name)) {
+                algorithm = candidate;
+                break;
+            }
+        }
+        if (algorithm == null) throw new IllegalArgumentException("Unknown internal call algorithm: " + name);
+
+        try {
+            if (!StringUtils.isEmpty(internalCallConfig.getPrivateKey())) {
+                algorithm.getPrivateKey(internalCallConfig.getPrivateKey());
+            }
+            if (!StringUtils.isEmpty(internalCallConfig.getPublicKey())) {
+                algorithm.getPublicKey(internalCallConfig.getPublicKey());
+            }
+            for (String publicKey : internalCallConfig.getPublicKeys().values()) {
+                algorithm.getPublicKey(publicKey);
+            }
+        } catch (Exception e) {
+            log.error("Internal call key is invalid!", e);
+        }
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 签名使用的密钥ID，未配置时为null
+     */
+    public String getKeyId() {
+        return StringUtils.isEmpty(internalCallConfig.getKeyId()) ? null : internalCallConfig.getKeyId();
+    }
+
+    /**
+     * 使用当前私钥签名
+     *
+     * @param content 待签名数据
+     * @return 签名值
+     */
+    public String sign(String content) {
+        try {
+            return algorithm.sign(content, getPrivateKey());
+        } catch (InternalCallException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InternalCallException(501, "Internal call sign failed");
+        }
+    }
+
+    /**
+     * 使用kid对应的公钥验签
+     *
+     * @param content 验签内容
+     * @param sign    签名
+     * @param kid     密钥ID，可为null
+     * @return 验签结果
+     * @throws InternalCallException 未知的密钥ID
+     */
+    public boolean verify(String content, String sign, String kid) throws InternalCallException {
+        PublicKey publicKey = getPublicKey(kid);
+        try {
+            return algorithm.verify(content, sign, publicKey);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 使用kid对应的公钥加密
+     */
+    public String encrypt(String plainText, String kid) throws InternalCallException {
+        PublicKey publicKey = getPublicKey(kid);
+        try {
+            return algorithm.encrypt(plainText, publicKey);
+        } catch (Exception e) {
+            throw new InternalCallException(501, "Internal call encrypt failed");
+        }
+    }
+
+    /**
+     * 使用当前私钥解密
+     */
+    public String decrypt(String encryptText) throws InternalCallException {
+        PrivateKey privateKey = getPrivateKey();
+        try {
+            return algorithm.decrypt(encryptText, privateKey);
+        } catch (Exception e) {
+            throw new InternalCallException(501, "Internal call decrypt failed");
+        }
+    }
+
+    public PrivateKey getPrivateKey() {
+        String privateKey = internalCallConfig.getPrivateKey();
+        if (StringUtils.isEmpty(privateKey)) log.error("Internal call privateKey is empty!");
+        try {
+            return algorithm.getPrivateKey(privateKey);
+        } catch (Exception e) {
+            throw new InternalCallException(501, "Internal call privateKey is invalid");
+        }
+    }
+
+    public PublicKey getPublicKey(String kid) throws InternalCallException {
+        String publicKey;
+        if (kid == null) {
+            publicKey = internalCallConfig.getPublicKey();
+        } else {
+            Map<String, String> publicKeys = internalCallConfig.getPublicKeys();
+            publicKey = publicKeys.get(kid);
+            if (publicKey == null) throw new InternalCallException(400, "Unknown key id: " + kid);
+        }
+        if (StringUtils.isEmpty(publicKey)) log.error("Internal call publicKey is empty!");
+        try {
+            return algorithm.getPublicKey(publicKey);
+        } catch (Exception e) {
+            throw new InternalCallException(400, "Internal call verification failed");
+        }
+    }
+}
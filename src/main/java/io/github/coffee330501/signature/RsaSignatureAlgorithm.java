@@ -0,0 +1,58 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.utils.RSAUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+
+/**
+ * SHA256withRSA，验签兼容任意长度的RSA密钥，生成密钥默认2048位
+ */
+public class RsaSignatureAlgorithm extends JcaSignatureAlgorithm {
+    public static final String NAME = "RSA";
+    private final int keySize;
+
+    public RsaSignatureAlgorithm() {
+        this(2048);
+    }
+
+    public RsaSignatureAlgorithm(int keySize) {
+        super(RSAUtils.RSA_ALGORITHM, RSAUtils.SIGNATURE_ALGORITHM, null);
+        this.keySize = keySize;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected void initialize(KeyPairGenerator keyPairGenerator) {
+        keyPairGenerator.initialize(keySize, new SecureRandom());
+    }
+
+    @Override
+    public String encrypt(String plainText, PublicKey publicKey) throws GeneralSecurityException {
+        try {
+            return RSAUtils.encrypt(plainText, publicKey);
+        } catch (GeneralSecurityException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeneralSecurityException(e);
+        }
+    }
+
+    @Override
+    public String decrypt(String encryptText, PrivateKey privateKey) throws GeneralSecurityException {
+        try {
+            return RSAUtils.decrypt(encryptText, privateKey);
+        } catch (GeneralSecurityException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeneralSecurityException(e);
+        }
+    }
+}
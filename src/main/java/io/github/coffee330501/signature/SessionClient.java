@@ -0,0 +1,93 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.config.SessionConfig;
+import io.github.coffee330501.utils.HmacUtils;
+import io.github.coffee330501.utils.LogUtils;
+import org.apache.commons.codec.binary.Base64;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 调用方的会话缓存，按目标服务（scheme://host:port）维护会话
+ * 会话临近过期时由一个线程续期，其余线程继续使用旧会话；握手失败时暂时退回RSA签名
+ */
+public class SessionClient {
+    /**
+     * 握手失败后暂停握手的时间
+     */
+    private static final long HANDSHAKE_RETRY_INTERVAL = 10 * 1000L;
+
+    private final SessionConfig sessionConfig;
+    private final KeyRegistry keyRegistry;
+    /**
+     * 握手请求，入参为握手接口地址
+     */
+    private final Function<String, SessionTicket> handshake;
+    private final Map<String, InternalCallSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Long> handshakeRetryAt = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public SessionClient(SessionConfig sessionConfig, KeyRegistry keyRegistry, Function<String, SessionTicket> handshake) {
+        this.sessionConfig = sessionConfig;
+        this.keyRegistry = keyRegistry;
+        this.handshake = handshake;
+    }
+
+    /**
+     * 获取目标服务的会话
+     *
+     * @return 会话，无可用会话时为null，此时应使用RSA签名
+     */
+    public InternalCallSession get(URI uri) {
+        String origin = origin(uri);
+        long now = System.currentTimeMillis();
+        InternalCallSession session = sessions.get(origin);
+        if (session != null && !needRenew(session, now)) return session;
+
+        Long retryAt = handshakeRetryAt.get(origin);
+        if (retryAt != null && now < retryAt) return usable(session, now);
+
+        synchronized (locks.computeIfAbsent(origin, k -> new Object())) {
+            session = sessions.get(origin);
+            if (session != null && !needRenew(session, now)) return session;
+            try {
+                InternalCallSession created = handshake(origin);
+                sessions.put(origin, created);
+                handshakeRetryAt.remove(origin);
+                return created;
+            } catch (Exception e) {
+                LogUtils.error(e, origin);
+                handshakeRetryAt.put(origin, now + HANDSHAKE_RETRY_INTERVAL);
+                return usable(session, now);
+            }
+        }
+    }
+
+    /**
+     * 会话失效（如被调用方重启），下次调用重新握手
+     */
+    public void invalidate(URI uri) {
+        sessions.remove(origin(uri));
+    }
+
+    private InternalCallSession handshake(String origin) {
+        SessionTicket ticket = handshake.apply(origin + sessionConfig.getPath());
+        String secret = keyRegistry.decrypt(ticket.getSecret());
+        return new InternalCallSession(ticket.getSessionId(), HmacUtils.createKey(Base64.decodeBase64(secret)), ticket.getExpireAt());
+    }
+
+    private boolean needRenew(InternalCallSession session, long now) {
+        return now >= session.getExpireAt() - sessionConfig.getRenewBefore() * 1000L;
+    }
+
+    private InternalCallSession usable(InternalCallSession session, long now) {
+        return session != null && !session.isExpired(now) ? session : null;
+    }
+
+    private String origin(URI uri) {
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+}
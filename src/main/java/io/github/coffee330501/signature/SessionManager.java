@@ -0,0 +1,75 @@
+package io.github.coffee330501.signature;
+
+import cn.hutool.core.util.IdUtil;
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.exception.InternalCallException;
+import io.github.coffee330501.utils.HmacUtils;
+import org.apache.commons.codec.binary.Base64;
+
+import javax.annotation.Resource;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 被调用方的会话管理
+ * 会话保存在本机内存中，调用方请求到未建立会话的实例时会收到 {@link #INVALID_SESSION} 并重新握手
+ */
+public class SessionManager {
+    public static final String SESSION_HEADER = "sessionId";
+    public static final String INVALID_SESSION = "Invalid internal call session";
+    private static final int SECRET_LENGTH = 32;
+    private static final int CLEAN_THRESHOLD = 1024;
+
+    @Resource
+    InternalCallConfig internalCallConfig;
+    @Resource
+    KeyRegistry keyRegistry;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, InternalCallSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * 创建会话，会话密钥使用kid对应的公钥加密返回
+     *
+     * @param kid 调用方的密钥ID，可为null
+     * @return 握手结果
+     */
+    public SessionTicket create(String kid) {
+        long now = System.currentTimeMillis();
+        if (sessions.size() > CLEAN_THRESHOLD) removeExpired(now);
+
+        byte[] secret = new byte[SECRET_LENGTH];
+        secureRandom.nextBytes(secret);
+        long expireAt = now + internalCallConfig.getSession().getTtl() * 1000L;
+        InternalCallSession session = new InternalCallSession(IdUtil.fastSimpleUUID(), HmacUtils.createKey(secret), expireAt);
+
+        SessionTicket ticket = new SessionTicket();
+        ticket.setSessionId(session.getSessionId());
+        ticket.setExpireAt(expireAt);
+        ticket.setSecret(keyRegistry.encrypt(Base64.encodeBase64String(secret), kid));
+        sessions.put(session.getSessionId(), session);
+        return ticket;
+    }
+
+    /**
+     * 使用会话密钥验签
+     *
+     * @throws InternalCallException 会话不存在或已过期
+     */
+    public boolean verify(String sessionId, String content, String sign) throws InternalCallException {
+        InternalCallSession session = sessions.get(sessionId);
+        if (session == null || session.isExpired(System.currentTimeMillis())) {
+            if (session != null) sessions.remove(sessionId);
+            throw new InternalCallException(400, INVALID_SESSION);
+        }
+        return HmacUtils.verify(content, sign, session.getKey());
+    }
+
+    private void removeExpired(long now) {
+        Iterator<InternalCallSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) iterator.remove();
+        }
+    }
+}
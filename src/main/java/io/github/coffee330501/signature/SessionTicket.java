@@ -0,0 +1,21 @@
+package io.github.coffee330501.signature;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 会话握手返回
+ */
+@Data
+public class SessionTicket implements Serializable {
+    String sessionId;
+    /**
+     * 使用调用方公钥加密的会话密钥，仅持有私钥的调用方可解密
+     */
+    String secret;
+    /**
+     * 过期时间戳
+     */
+    Long expireAt;
+}
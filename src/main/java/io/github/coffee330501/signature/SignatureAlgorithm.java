@@ -0,0 +1,55 @@
+package io.github.coffee330501.signature;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Map;
+
+/**
+ * 签名算法SPI
+ * 通过 internal.call.algorithm 按名称选择，内置 RSA、ED25519、ECDSA，
+ * 自定义实现注册为Spring Bean即可使用。密钥均为Base64编码，公钥为X509格式，私钥为PKCS#8格式
+ */
+public interface SignatureAlgorithm {
+    /**
+     * 算法名称，配置时不区分大小写
+     */
+    String getName();
+
+    PublicKey getPublicKey(String publicKey) throws GeneralSecurityException;
+
+    PrivateKey getPrivateKey(String privateKey) throws GeneralSecurityException;
+
+    /**
+     * 私钥签名
+     *
+     * @return URL安全的Base64签名值
+     */
+    String sign(String content, PrivateKey privateKey) throws GeneralSecurityException;
+
+    /**
+     * 公钥验签
+     */
+    boolean verify(String content, String sign, PublicKey publicKey) throws GeneralSecurityException;
+
+    /**
+     * 生成密钥对
+     *
+     * @return privateKey、publicKey
+     */
+    Map<String, String> createKeys();
+
+    /**
+     * 公钥加密，用于会话模式握手传递会话密钥
+     */
+    default String encrypt(String plainText, PublicKey publicKey) throws GeneralSecurityException {
+        throw new UnsupportedOperationException(getName() + " does not support encryption");
+    }
+
+    /**
+     * 私钥解密，用于会话模式握手传递会话密钥
+     */
+    default String decrypt(String encryptText, PrivateKey privateKey) throws GeneralSecurityException {
+        throw new UnsupportedOperationException(getName() + " does not support encryption");
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.coffee330501.utils;
+
+import org.apache.commons.codec.binary.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * HMAC-SHA256签名
+ */
+public class HmacUtils {
+    public static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * Mac非线程安全，每个线程复用一个实例
+     */
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(HMAC_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private HmacUtils() {
+    }
+
+    public static SecretKeySpec createKey(byte[] secret) {
+        return new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    /**
+     * 签名
+     *
+     * @param content 待签名数据
+     * @param key     密钥
+     * @return 签名值
+     */
+    public static String sign(String content, SecretKeySpec key) {
+        return Base64.encodeBase64URLSafeString(doFinal(content, key));
+    }
+
+    /**
+     * 验签
+     *
+     * @param content 验签内容
+     * @param sign    签名
+     * @param key     密钥
+     * @return 验签结果
+     */
+    public static boolean verify(String content, String sign, SecretKeySpec key) {
+        byte[] expected = doFinal(content, key);
+        return MessageDigest.isEqual(expected, Base64.decodeBase64(sign));
+    }
+
+    private static byte[] doFinal(String content, SecretKeySpec key) {
+        Mac mac = MAC.get();
+        try {
+            mac.init(key);
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return mac.doFinal(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,15 +1,116 @@
 package io.github.coffee330501.utils;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
+/**
+ * 当前线程的内部调用用户信息
+ * 由切面在处理内部调用时设置并在结束时恢复；任务切换到其他线程时通过 {@link #capture} 取得快照，
+ * 或使用 wrap 系列方法包装任务与线程池，在执行线程上恢复提交时的信息
+ */
 public class InternalCallContext {
     private static final ThreadLocal<Map<String, String>> CONTEXT = new ThreadLocal<>();
 
-    public synchronized static void set(Map<String, String> value) {
-        CONTEXT.set(value);
+    /**
+     * @param value 为null时清除
+     */
+    public static void set(Map<String, String> value) {
+        if (value == null) CONTEXT.remove();
+        else CONTEXT.set(value);
     }
 
     public static Map<String, String> get() {
         return CONTEXT.get();
     }
+
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * 当前信息的只读快照，未设置时返回null
+     */
+    public static Map<String, String> capture() {
+        Map<String, String> value = CONTEXT.get();
+        return value == null ? null : Collections.unmodifiableMap(new HashMap<>(value));
+    }
+
+    /**
+     * 在当前线程上以指定信息执行，结束后恢复原有信息
+     */
+    public static <V> V supply(Map<String, String> context, Supplier<V> supplier) {
+        Map<String, String> previous = CONTEXT.get();
+        set(context);
+        try {
+            return supplier.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    public static void run(Map<String, String> context, Runnable task) {
+        supply(context, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <V> V call(Map<String, String> context, Callable<V> task) throws Exception {
+        Map<String, String> previous = CONTEXT.get();
+        set(context);
+        try {
+            return task.call();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * 包装任务，执行时使用包装时的信息
+     */
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> context = capture();
+        return () -> run(context, task);
+    }
+
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        Map<String, String> context = capture();
+        return () -> call(context, task);
+    }
+
+    /**
+     * 包装线程池，提交的任务使用提交时的信息
+     */
+    public static Executor wrap(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * 以当前信息异步执行，对应 CompletableFuture 的同名方法
+     */
+    public static <V> CompletableFuture<V> supplyAsync(Supplier<V> supplier) {
+        return CompletableFuture.supplyAsync(wrapSupplier(supplier));
+    }
+
+    public static <V> CompletableFuture<V> supplyAsync(Supplier<V> supplier, Executor executor) {
+        return CompletableFuture.supplyAsync(wrapSupplier(supplier), executor);
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(wrap(task));
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return CompletableFuture.runAsync(wrap(task), executor);
+    }
+
+    private static <V> Supplier<V> wrapSupplier(Supplier<V> supplier) {
+        Map<String, String> context = capture();
+        return () -> supply(context, supplier);
+    }
 }
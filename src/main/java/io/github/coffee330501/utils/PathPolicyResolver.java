@@ -0,0 +1,104 @@
+package io.github.coffee330501.utils;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 按调用地址的路径匹配Ant风格规则选择策略，按添加顺序取第一个匹配的规则
+ * 匹配结果按路径缓存，缓存的路径数达到上限后新路径每次重新匹配
+ *
+ * @param <T> 策略类型
+ */
+public class PathPolicyResolver<T> {
+    /**
+     * 缓存中代表未匹配任何规则且默认策略为null
+     */
+    private static final Object NONE = new Object();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Rule<T>> rules = new CopyOnWriteArrayList<>();
+    private final Map<String, Object> pathPolicies = new ConcurrentHashMap<>();
+    private final T defaultPolicy;
+    private final int maxCachedPaths;
+
+    /**
+     * @param defaultPolicy  未匹配任何规则时的策略，可以为null
+     * @param maxCachedPaths 缓存的路径数上限
+     */
+    public PathPolicyResolver(T defaultPolicy, int maxCachedPaths) {
+        this.defaultPolicy = defaultPolicy;
+        this.maxCachedPaths = maxCachedPaths;
+    }
+
+    /**
+     * 添加规则，优先级低于已添加的规则，pattern为null时忽略
+     */
+    public void add(String pattern, T policy) {
+        if (pattern == null) return;
+        rules.add(new Rule<>(pattern, policy));
+        pathPolicies.clear();
+    }
+
+    /**
+     * 添加规则，优先于已添加的规则
+     */
+    public void addFirst(String pattern, T policy) {
+        if (pattern == null) return;
+        rules.add(0, new Rule<>(pattern, policy));
+        pathPolicies.clear();
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * 调用地址或接口路径对应的策略
+     */
+    @SuppressWarnings("unchecked")
+    public T resolve(String url) {
+        if (rules.isEmpty()) return defaultPolicy;
+        String path = pathOf(url);
+        Object policy = pathPolicies.get(path);
+        if (policy == null) {
+            policy = defaultPolicy;
+            for (Rule<T> rule : rules) {
+                if (pathMatcher.match(rule.pattern, path)) {
+                    policy = rule.policy;
+                    break;
+                }
+            }
+            if (policy == null) policy = NONE;
+            if (pathPolicies.size() < maxCachedPaths) pathPolicies.put(path, policy);
+        }
+        return policy == NONE ? null : (T) policy;
+    }
+
+    /**
+     * 去掉协议、host与查询参数
+     */
+    public static String pathOf(String url) {
+        int start = 0;
+        int scheme = url.indexOf("://");
+        if (scheme >= 0) {
+            start = url.indexOf('/', scheme + 3);
+            if (start < 0) return "/";
+        }
+        int end = url.indexOf('?', start);
+        return end < 0 ? url.substring(start) : url.substring(start, end);
+    }
+
+    private static class Rule<T> {
+        final String pattern;
+        final T policy;
+
+        Rule(String pattern, T policy) {
+            this.pattern = pattern;
+            this.policy = policy;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.coffee330501.utils;
 
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Base64;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
@@ -7,15 +8,18 @@ import javax.crypto.Cipher;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
+import java.security.interfaces.RSAKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * RSA非对称加密
  */
+@Slf4j
 public class RSAUtils {
     /**
      * RSA最大加密明文大小
@@ -28,12 +32,41 @@ public class RSAUtils {
     public static final String RSA_ALGORITHM = "RSA";
     public static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
 
+    /**
+     * 已解析的密钥缓存，避免每次签名、验签都重新解码密钥
+     */
+    private static final int MAX_CACHED_KEYS = 64;
+    private static final Map<String, PublicKey> PUBLIC_KEY_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, PrivateKey> PRIVATE_KEY_CACHE = new ConcurrentHashMap<>();
+    /**
+     * Signature非线程安全，每个线程复用一个实例
+     */
+    private static final ThreadLocal<Signature> SIGNATURE = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance(SIGNATURE_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     private static BouncyCastleProvider bouncyCastleProvider = null;
 
     private RSAUtils() {
     }
 
+    /**
+     * 生成2048位RSA密钥对
+     */
     public static Map<String, String> createKeys() {
+        return createKeys(2048);
+    }
+
+    /**
+     * 生成RSA密钥对
+     *
+     * @param keySize 密钥长度，不应低于2048
+     */
+    public static Map<String, String> createKeys(int keySize) {
 
         Map<String, String> keyPairMap = new HashMap<>();
         KeyPairGenerator keyPairGenerator;
@@ -59,7 +92,7 @@ public class RSAUtils {
              * 当然也可以指定随机源，如下：
              * keyPairGenerator.initialize(1024,new SecureRandom(byte[] bytes));
              */
-            keyPairGenerator.initialize(1024, new SecureRandom());
+            keyPairGenerator.initialize(keySize, new SecureRandom());
             //keyPairGenerator.initialize(1024,new SecureRandom(DateFormatUtils.format(new Date(),"yyyyMMdd").getBytes()));
 
             // step3：获取密钥对
@@ -70,7 +103,7 @@ public class RSAUtils {
             keyPairMap.put("privateKey", privateKey);
             keyPairMap.put("publicKey", publicKey);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("RSA key pair generation failed", e);
             throw new IllegalArgumentException("生成密钥对失败：" + e);
         }
 
@@ -84,10 +117,15 @@ public class RSAUtils {
      * @throws Exception
      */
     public static PublicKey getPublicKey(String publicKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PublicKey key = PUBLIC_KEY_CACHE.get(publicKey);
+        if (key != null) return key;
         // 通过X509编码的Key指令获得公钥对象
         KeyFactory keyFactory = KeyFactory.getInstance(RSA_ALGORITHM);
         X509EncodedKeySpec x509KeySpec = new X509EncodedKeySpec(Base64.decodeBase64(publicKey));
-        return keyFactory.generatePublic(x509KeySpec);
+        key = keyFactory.generatePublic(x509KeySpec);
+        if (PUBLIC_KEY_CACHE.size() >= MAX_CACHED_KEYS) PUBLIC_KEY_CACHE.clear();
+        PUBLIC_KEY_CACHE.put(publicKey, key);
+        return key;
     }
 
     /**
@@ -97,10 +135,15 @@ public class RSAUtils {
      * @throws Exception
      */
     public static PrivateKey getPrivateKey(String privateKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PrivateKey key = PRIVATE_KEY_CACHE.get(privateKey);
+        if (key != null) return key;
         // 通过PKCS#8编码的Key指令获得私钥对象
         KeyFactory keyFactory = KeyFactory.getInstance(RSA_ALGORITHM);
         PKCS8EncodedKeySpec pkcs8KeySpec = new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKey));
-        return keyFactory.generatePrivate(pkcs8KeySpec);
+        key = keyFactory.generatePrivate(pkcs8KeySpec);
+        if (PRIVATE_KEY_CACHE.size() >= MAX_CACHED_KEYS) PRIVATE_KEY_CACHE.clear();
+        PRIVATE_KEY_CACHE.put(privateKey, key);
+        return key;
     }
 
     /**
@@ -114,8 +157,16 @@ public class RSAUtils {
      * 则明文长度最多为 128 - 11 = 117 Bytes
      */
     public static String encrypt(String plainText, String publicKeyStr) throws Exception {
+        return encrypt(plainText, getPublicKey(publicKeyStr));
+    }
+
+    /**
+     * 公钥加密 分段加密
+     *
+     * @param publicKey 已解析的公钥
+     */
+    public static String encrypt(String plainText, PublicKey publicKey) throws Exception {
         byte[] plainTextArray = plainText.getBytes();
-        PublicKey publicKey = getPublicKey(publicKeyStr);
         Cipher cipher = Cipher.getInstance(RSA_ALGORITHM);
         cipher.init(Cipher.ENCRYPT_MODE, publicKey);
         int inputLen = plainTextArray.length;
@@ -142,10 +193,22 @@ public class RSAUtils {
      * 分段解密
      */
     public static String decrypt(String encryptTextHex, String privateKeyStr) throws Exception {
+        return decrypt(encryptTextHex, getPrivateKey(privateKeyStr));
+    }
+
+    /**
+     * 分段解密
+     *
+     * @param privateKey 已解析的私钥
+     */
+    public static String decrypt(String encryptTextHex, PrivateKey privateKey) throws Exception {
         byte[] encryptText = Base64.decodeBase64(encryptTextHex);
-        PrivateKey privateKey = getPrivateKey(privateKeyStr);
         Cipher cipher = Cipher.getInstance(RSA_ALGORITHM);
         cipher.init(Cipher.DECRYPT_MODE, privateKey);
+        // 密文分段长度等于密钥长度
+        int maxDecryptBlock = privateKey instanceof RSAKey
+                ? (((RSAKey) privateKey).getModulus().bitLength() + 7) / 8
+                : MAX_DECRYPT_BLOCK;
         int inputLen = encryptText.length;
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         int offSet = 0;
@@ -153,14 +216,14 @@ public class RSAUtils {
         int i = 0;
         // 对数据分段解密
         while (inputLen - offSet > 0) {
-            if (inputLen - offSet > MAX_DECRYPT_BLOCK) {
-                cache = cipher.doFinal(encryptText, offSet, MAX_DECRYPT_BLOCK);
+            if (inputLen - offSet > maxDecryptBlock) {
+                cache = cipher.doFinal(encryptText, offSet, maxDecryptBlock);
             } else {
                 cache = cipher.doFinal(encryptText, offSet, inputLen - offSet);
             }
             out.write(cache, 0, cache.length);
             i++;
-            offSet = i * MAX_DECRYPT_BLOCK;
+            offSet = i * maxDecryptBlock;
         }
         out.close();
         return out.toString();
@@ -175,14 +238,29 @@ public class RSAUtils {
      */
     public static String signByPrivateKey(String content, String privateKey) {
         try {
-            PrivateKey priKey = getPrivateKey(privateKey);
-            Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
-            signature.initSign(priKey);
+            return signByPrivateKey(content, getPrivateKey(privateKey));
+        } catch (Exception e) {
+            log.error("RSA sign failed: invalid private key", e);
+        }
+        return null;
+    }
+
+    /**
+     * RSA私钥签名
+     *
+     * @param content    待签名数据
+     * @param privateKey 已解析的私钥
+     * @return 签名值
+     */
+    public static String signByPrivateKey(String content, PrivateKey privateKey) {
+        try {
+            Signature signature = SIGNATURE.get();
+            signature.initSign(privateKey);
             signature.update(content.getBytes(StandardCharsets.UTF_8));
             byte[] signed = signature.sign();
             return new String(Base64.encodeBase64URLSafe(signed), StandardCharsets.UTF_8);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("RSA sign failed", e);
         }
         return null;
     }
@@ -197,13 +275,29 @@ public class RSAUtils {
      */
     public static boolean verifySignByPublicKey(String content, String sign, String publicKey) {
         try {
-            PublicKey pubKey = getPublicKey(publicKey);
-            Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
-            signature.initVerify(pubKey);
+            return verifySignByPublicKey(content, sign, getPublicKey(publicKey));
+        } catch (Exception e) {
+            log.error("RSA verify failed: invalid public key", e);
+        }
+        return false;
+    }
+
+    /**
+     * 通过公钥验签
+     *
+     * @param content   验签内容
+     * @param sign      签名
+     * @param publicKey 已解析的公钥
+     * @return 验签结果
+     */
+    public static boolean verifySignByPublicKey(String content, String sign, PublicKey publicKey) {
+        try {
+            Signature signature = SIGNATURE.get();
+            signature.initVerify(publicKey);
             signature.update(content.getBytes(StandardCharsets.UTF_8));
             return signature.verify(Base64.decodeBase64(sign.getBytes(StandardCharsets.UTF_8)));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("RSA verify failed", e);
         }
         return false;
     }
@@ -1,26 +1,54 @@
 package io.github.coffee330501.utils;
 
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Component("interCallRedisUtil")
 public class RedisUtil {
+    private static final StringRedisSerializer SERIALIZER = new StringRedisSerializer();
+    private static final byte[] VALUE = SERIALIZER.serialize("true");
+    /**
+     * SET key value NX EX seconds，设置与过期时间在一条命令中原子完成
+     * 通过脚本执行以兼容不支持带参数SET的旧版客户端API
+     */
+    private static final byte[] SET_NX_EX_SCRIPT = ("return redis.call('SET', KEYS[1], ARGV[1], 'NX', 'EX', ARGV[2]) and 1 or 0")
+            .getBytes(StandardCharsets.UTF_8);
+
     @Resource
     private RedisTemplate<String, String> redisTemplate;
 
     public boolean setNx(final String key, final int expireSeconds) {
-        return (boolean) redisTemplate.execute((RedisCallback<Object>) connection -> {
-            StringRedisSerializer serializer = new StringRedisSerializer();
-            boolean success = connection.setNX(serializer.serialize(key), serializer.serialize("true"));
-            if (success) {
-                connection.expire(serializer.serialize(key), expireSeconds);
+        byte[] expire = SERIALIZER.serialize(String.valueOf(expireSeconds));
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.eval(SET_NX_EX_SCRIPT, ReturnType.INTEGER, 1, SERIALIZER.serialize(key), VALUE, expire));
+        return result != null && result == 1L;
+    }
+
+    /**
+     * 批量setNx，所有命令在一次管道往返中完成
+     *
+     * @return 与keys顺序一致的设置结果
+     */
+    public boolean[] setNx(final List<String> keys, final int expireSeconds) {
+        byte[] expire = SERIALIZER.serialize(String.valueOf(expireSeconds));
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.eval(SET_NX_EX_SCRIPT, ReturnType.INTEGER, 1, SERIALIZER.serialize(key), VALUE, expire);
             }
-            connection.close();
-            return success;
+            return null;
         });
+        boolean[] success = new boolean[keys.size()];
+        for (int i = 0; i < success.length && i < results.size(); i++) {
+            Object result = results.get(i);
+            success[i] = result instanceof Number && ((Number) result).longValue() == 1L;
+        }
+        return success;
     }
 }
@@ -1,48 +1,68 @@
 package io.github.coffee330501.utils;
 
 import io.github.coffee330501.SignatureResult;
-import io.github.coffee330501.annotation.Internal;
-import io.github.coffee330501.annotation.InternalController;
+import io.github.coffee330501.handler.InternalHandlerRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.web.method.HandlerMethod;
 
-import java.lang.reflect.Method;
+import javax.servlet.http.HttpServletRequest;
 
 @Slf4j
 public class SignatureUtil {
+    /**
+     * 请求已通过验签的标记
+     */
+    private static final String VERIFIED_ATTRIBUTE = SignatureUtil.class.getName() + ".VERIFIED";
+    private static volatile InternalHandlerRegistry handlerRegistry;
+
     private SignatureUtil() {
     }
 
     /**
-     * 是否为内部调用接口
+     * 标记当前请求已验签，后续内部调用方法不再重复验签与重复请求检查
+     *
+     * @param request request
+     */
+    public static void markVerified(HttpServletRequest request) {
+        request.setAttribute(VERIFIED_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    /**
+     * 当前请求是否已验签
+     *
+     * @param request request
+     * @return boolean
+     */
+    public static boolean isVerified(HttpServletRequest request) {
+        return request.getAttribute(VERIFIED_ATTRIBUTE) != null;
+    }
+
+    /**
+     * 是否为内部调用接口，判断结果按 Bean类型+方法 缓存
      *
      * @param handler handler
      * @return boolean
      */
     public static boolean isInternalCall(Object handler) {
+        if (!(handler instanceof HandlerMethod)) return false;
         try {
-            HandlerMethod handlerMethod = (HandlerMethod) handler;
-            Object bean = handlerMethod.getBean();
-
-            // 检查注解InternalController是否存在
-            Class<?> beanClass = bean.getClass();
-            InternalController internalControllerAnno = beanClass.getAnnotation(InternalController.class);
-            if (internalControllerAnno != null) return true;
-            // 如果是spring代理的bean则使用方面的方法获取不到注解
-            internalControllerAnno = AnnotationUtils.findAnnotation(beanClass, InternalController.class);
-            if (internalControllerAnno != null) return true;
-
-            // 检查注解Internal是否存在
-            Method method = handlerMethod.getMethod();
-            Internal internalAnno = method.getAnnotation(Internal.class);
-            return internalAnno != null;
+            return handlerRegistry().isInternalCall((HandlerMethod) handler);
         } catch (Exception e) {
             LogUtils.error(e);
             return false;
         }
     }
 
+    private static InternalHandlerRegistry handlerRegistry() {
+        InternalHandlerRegistry registry = handlerRegistry;
+        if (registry == null) {
+            registry = SpringContextUtil.getBean(InternalHandlerRegistry.class);
+            if (registry == null) registry = new InternalHandlerRegistry();
+            handlerRegistry = registry;
+        }
+        return registry;
+    }
+
     /**
      * 成功返回
      *
@@ -83,6 +103,19 @@ public class SignatureUtil {
         return signatureOutput;
     }
 
+    /**
+     * 并发达到上限被拒绝，调用方可退避或换实例重试
+     *
+     * @param msg 失败信息
+     * @return SignatureOutput
+     */
+    public static SignatureResult<Object> errorByLimit(String msg) {
+        SignatureResult<Object> signatureOutput = new SignatureResult<>();
+        signatureOutput.setCode(429);
+        signatureOutput.setMsg(msg);
+        return signatureOutput;
+    }
+
     /**
      * 客户端错误导致错误的response，此时msg用于展示错误原因
      *
@@ -0,0 +1,63 @@
+package io.github.coffee330501;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SignatureResultDecoderTest {
+    private static final String BATCH = "[{\"code\":200,\"data\":1},{\"msg\":\"error\",\"code\":500},"
+            + "{\"code\":200,\"data\":[\"a\",\"b\"],\"extra\":{}}]";
+
+    @SuppressWarnings("unchecked")
+    private static List<SignatureResult<Object>> read(JSONReader jsonReader, List<Class> types) {
+        return (List<SignatureResult<Object>>) SignatureResultDecoder.batch(types).read(jsonReader);
+    }
+
+    @Test
+    public void batchReaderIsCachedPerTypeList() {
+        List<Class> types = new ArrayList<>(Arrays.asList(Integer.class, String.class));
+        SignatureResultDecoder.DataReader reader = SignatureResultDecoder.batch(types);
+        types.add(Long.class);
+        assertSame(reader, SignatureResultDecoder.batch(Arrays.asList(Integer.class, String.class)));
+    }
+
+    @Test
+    public void batchResultsAreBoundInOrder() {
+        List<SignatureResult<Object>> results = read(JSONReader.of(BATCH), Arrays.asList(Integer.class, Integer.class, String.class));
+        assertEquals(3, results.size());
+        assertEquals(1, results.get(0).getData());
+        assertEquals(Integer.valueOf(500), results.get(1).getCode());
+        assertEquals("error", results.get(1).getMsg());
+        assertNull(results.get(1).getData());
+        assertEquals(Arrays.asList("a", "b"), results.get(2).getData());
+    }
+
+    @Test
+    public void jsonbBatchMatchesJson() {
+        byte[] jsonb = JSONB.toBytes(com.alibaba.fastjson2.JSON.parse(BATCH));
+        List<SignatureResult<Object>> results = read(JSONReader.ofJSONB(jsonb), Arrays.asList(Long.class, Long.class, String.class));
+        assertEquals(3, results.size());
+        assertEquals(1L, results.get(0).getData());
+        assertEquals(Arrays.asList("a", "b"), results.get(2).getData());
+    }
+
+    /**
+     * 结果多于类型时按Object读取
+     */
+    @Test
+    public void extraResultsAreReadAsObject() {
+        List<SignatureResult<Object>> results = read(JSONReader.of(BATCH), Collections.singletonList(Integer.class));
+        assertEquals(3, results.size());
+        assertEquals(1, results.get(0).getData());
+        assertEquals(Arrays.asList("a", "b"), results.get(2).getData());
+    }
+}
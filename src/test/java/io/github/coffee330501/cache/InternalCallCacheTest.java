@@ -0,0 +1,161 @@
+package io.github.coffee330501.cache;
+
+import io.github.coffee330501.config.CachePolicyConfig;
+import io.github.coffee330501.config.InternalCallConfig;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InternalCallCacheTest {
+    private static final String URL = "http://localhost:8080/dict/list?type=1";
+    private static final Object TYPE = String.class;
+
+    private static InternalCallCache cache(int maxSize, CachePolicyConfig... targets) {
+        InternalCallConfig config = new InternalCallConfig();
+        config.getCache().setMaxSize(maxSize);
+        config.getCache().setTargets(Arrays.asList(targets));
+        InternalCallCache cache = new InternalCallCache();
+        cache.internalCallConfig = config;
+        cache.init();
+        return cache;
+    }
+
+    private static CachePolicyConfig target(String pattern, long ttl, long staleWhileRevalidate) {
+        CachePolicyConfig config = new CachePolicyConfig();
+        config.setPattern(pattern);
+        config.setTtl(ttl);
+        config.setStaleWhileRevalidate(staleWhileRevalidate);
+        return config;
+    }
+
+    private static Map<String, String> information(String... keyValues) {
+        Map<String, String> information = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) information.put(keyValues[i], keyValues[i + 1]);
+        return information;
+    }
+
+    @Test
+    public void policyMatchesPathWithoutHostAndQuery() {
+        InternalCallCache cache = cache(100, target("/dict/**", 1000, 0));
+        CachePolicy policy = cache.policy(URL);
+        assertNotNull(policy);
+        assertEquals(1000, policy.getTtl());
+        assertSame(policy, cache.policy("/dict/list"));
+        assertNull(cache.policy("http://localhost:8080/user/1"));
+        assertNull(cache(100).policy(URL));
+    }
+
+    @Test
+    public void registeredPolicyTakesPrecedence() {
+        InternalCallCache cache = cache(100, target("/dict/**", 1000, 0));
+        assertEquals(1000, cache.policy(URL).getTtl());
+        cache.cache("/dict/list", 5000, 100);
+        assertEquals(5000, cache.policy(URL).getTtl());
+        assertEquals(100, cache.policy(URL).getStaleWhileRevalidate());
+    }
+
+    @Test
+    public void freshEntryIsHit() {
+        InternalCallCache cache = cache(100, target("/dict/**", 60000, 0));
+        CachePolicy policy = cache.policy(URL);
+        CacheKey key = cache.key(URL, TYPE, Collections.singletonMap("id", 1), null, policy);
+        assertNull(cache.get(key));
+        cache.put(key, "value", policy);
+
+        CacheEntry entry = cache.get(cache.key(URL, TYPE, Collections.singletonMap("id", 1), null, policy));
+        assertNotNull(entry);
+        assertEquals("value", entry.getValue());
+        assertFalse(entry.isStale(System.currentTimeMillis()));
+        assertEquals(Long.valueOf(1), cache.getStats().get("hits"));
+        assertEquals(Long.valueOf(1), cache.getStats().get("misses"));
+        assertEquals(Long.valueOf(1), cache.getStats().get("size"));
+    }
+
+    /**
+     * 过有效期后在可返回旧结果的时间内仍返回旧结果，同一结果同时只允许一个后台刷新
+     */
+    @Test
+    public void staleEntryIsServedWithSingleRefresh() {
+        InternalCallCache cache = cache(100, target("/dict/**", 0, 60000));
+        CachePolicy policy = cache.policy(URL);
+        CacheKey key = cache.key(URL, TYPE, "params", null, policy);
+        cache.put(key, "old", policy);
+
+        CacheEntry entry = cache.get(key);
+        assertNotNull(entry);
+        assertEquals("old", entry.getValue());
+        assertTrue(entry.isStale(System.currentTimeMillis()));
+        assertEquals(Long.valueOf(1), cache.getStats().get("staleHits"));
+
+        assertTrue(entry.startRefresh());
+        assertFalse(entry.startRefresh());
+        assertFalse(cache.get(key).startRefresh());
+        entry.refreshFailed();
+        assertTrue(cache.get(key).startRefresh());
+
+        // 刷新成功后以新结果替换
+        cache.put(key, "new", new CachePolicy(60000, 60000, null));
+        CacheEntry refreshed = cache.get(key);
+        assertEquals("new", refreshed.getValue());
+        assertFalse(refreshed.isStale(System.currentTimeMillis()));
+        assertTrue(refreshed.startRefresh());
+    }
+
+    @Test
+    public void entryBeyondStaleWindowIsRemoved() {
+        InternalCallCache cache = cache(100, target("/dict/**", 0, 0));
+        CachePolicy policy = cache.policy(URL);
+        CacheKey key = cache.key(URL, TYPE, "params", null, policy);
+        cache.put(key, "old", policy);
+        assertNull(cache.get(key));
+        assertEquals(Long.valueOf(0), cache.getStats().get("size"));
+        assertEquals(Long.valueOf(1), cache.getStats().get("misses"));
+    }
+
+    @Test
+    public void keyDependsOnUrlTypeParamsAndSelectedInformation() {
+        CachePolicy all = new CachePolicy(1000, 0, null);
+        CachePolicy tenant = new CachePolicy(1000, 0, Collections.singletonList("tenant"));
+        InternalCallCache cache = cache(100);
+
+        CacheKey key = cache.key(URL, TYPE, "a", information("tenant", "t1", "user", "u1"), all);
+        assertEquals(key, cache.key(URL, TYPE, "a", information("user", "u1", "tenant", "t1"), all));
+        assertEquals(key.hashCode(), cache.key(URL, TYPE, "a", information("user", "u1", "tenant", "t1"), all).hashCode());
+        assertNotEquals(key, cache.key(URL + "&x=1", TYPE, "a", information("tenant", "t1", "user", "u1"), all));
+        assertNotEquals(key, cache.key(URL, Integer.class, "a", information("tenant", "t1", "user", "u1"), all));
+        assertNotEquals(key, cache.key(URL, TYPE, "b", information("tenant", "t1", "user", "u1"), all));
+        assertNotEquals(key, cache.key(URL, TYPE, "a", information("tenant", "t1", "user", "u2"), all));
+
+        // 只有tenant参与缓存key
+        assertEquals(cache.key(URL, TYPE, "a", information("tenant", "t1", "user", "u1"), tenant),
+                cache.key(URL, TYPE, "a", information("tenant", "t1", "user", "u2"), tenant));
+        assertNotEquals(cache.key(URL, TYPE, "a", information("tenant", "t1"), tenant),
+                cache.key(URL, TYPE, "a", information("tenant", "t2"), tenant));
+        assertEquals(cache.key(URL, TYPE, "a", null, all), cache.key(URL, TYPE, "a", new HashMap<>(), all));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenFull() {
+        InternalCallCache cache = cache(1);
+        CachePolicy policy = new CachePolicy(60000, 0, null);
+        int count = 1000;
+        for (int i = 0; i < count; i++) cache.put(cache.key(URL, TYPE, i, null, policy), i, policy);
+        Map<String, Long> stats = cache.getStats();
+        assertTrue(stats.get("evictions") > 0);
+        assertEquals(count, stats.get("evictions") + stats.get("size"));
+
+        cache.clear();
+        assertEquals(Long.valueOf(0), cache.getStats().get("size"));
+    }
+}
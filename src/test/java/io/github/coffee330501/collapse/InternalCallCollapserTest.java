@@ -0,0 +1,202 @@
+package io.github.coffee330501.collapse;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class InternalCallCollapserTest {
+    private static final Method METHOD;
+
+    static {
+        try {
+            METHOD = InternalCallCollapserTest.class.getDeclaredMethod("find", String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final InternalCallCollapser collapser = new InternalCallCollapser();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("unused")
+    String find(String id) {
+        return id;
+    }
+
+    private Future<Object> submit(Object[] args, Map<String, String> information, long timeout,
+                                  InternalCallCollapser.Invocation invocation) {
+        return executor.submit(() -> {
+            try {
+                return collapser.execute(METHOD, args, information, timeout, invocation);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * 等待直到有waiters个请求合并到首个请求
+     */
+    private void awaitCollapsed(long waiters) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (collapser.getCollapsed() < waiters) {
+            if (System.currentTimeMillis() > deadline) fail("collapsed " + collapser.getCollapsed());
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        InternalCallCollapser.Invocation invocation = () -> {
+            executions.incrementAndGet();
+            release.await();
+            return new Object();
+        };
+        Future<Object> leader = submit(new Object[]{"1"}, null, 0, invocation);
+        while (executions.get() == 0) Thread.sleep(1);
+        List<Future<Object>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) followers.add(submit(new Object[]{"1"}, null, 0, invocation));
+        awaitCollapsed(5);
+        release.countDown();
+
+        Object result = leader.get(10, TimeUnit.SECONDS);
+        for (Future<Object> follower : followers) assertSame(result, follower.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(1, collapser.getExecutions());
+        assertEquals(5, collapser.getCollapsed());
+    }
+
+    @Test
+    public void followersReceiveLeaderException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalArgumentException failure = new IllegalArgumentException("bad id");
+        AtomicInteger executions = new AtomicInteger();
+        InternalCallCollapser.Invocation invocation = () -> {
+            executions.incrementAndGet();
+            release.await();
+            throw failure;
+        };
+        Future<Object> leader = submit(new Object[]{"1"}, null, 0, invocation);
+        while (executions.get() == 0) Thread.sleep(1);
+        Future<Object> follower = submit(new Object[]{"1"}, null, 0, invocation);
+        awaitCollapsed(1);
+        release.countDown();
+
+        for (Future<Object> future : new Future[]{leader, follower}) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void sequentialCallsExecuteAgain() throws Throwable {
+        AtomicInteger executions = new AtomicInteger();
+        InternalCallCollapser.Invocation invocation = executions::incrementAndGet;
+        assertEquals(1, collapser.execute(METHOD, new Object[]{"1"}, null, 0, invocation));
+        assertEquals(2, collapser.execute(METHOD, new Object[]{"1"}, null, 0, invocation));
+        assertEquals(0, collapser.getCollapsed());
+    }
+
+    @Test
+    public void differentArgumentsOrInformationAreNotCollapsed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        InternalCallCollapser.Invocation invocation = () -> {
+            executions.incrementAndGet();
+            release.await();
+            return null;
+        };
+        List<Future<Object>> futures = new ArrayList<>();
+        futures.add(submit(new Object[]{"1"}, null, 0, invocation));
+        futures.add(submit(new Object[]{"2"}, null, 0, invocation));
+        futures.add(submit(new Object[]{"1"}, Collections.singletonMap("user", "a"), 0, invocation));
+        futures.add(submit(new Object[]{"1"}, Collections.singletonMap("user", "b"), 0, invocation));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (executions.get() < 4 && System.currentTimeMillis() < deadline) Thread.sleep(1);
+        release.countDown();
+        for (Future<Object> future : futures) future.get(10, TimeUnit.SECONDS);
+        assertEquals(4, executions.get());
+        assertEquals(0, collapser.getCollapsed());
+    }
+
+    @Test
+    public void servletArgumentsAreIgnoredInKey() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        InternalCallCollapser.Invocation invocation = () -> {
+            executions.incrementAndGet();
+            release.await();
+            return "ok";
+        };
+        Future<Object> leader = submit(new Object[]{"1", new MockHttpServletRequest()}, null, 0, invocation);
+        while (executions.get() == 0) Thread.sleep(1);
+        Future<Object> follower = submit(new Object[]{"1", new MockHttpServletRequest()}, null, 0, invocation);
+        awaitCollapsed(1);
+        release.countDown();
+        assertEquals("ok", leader.get(10, TimeUnit.SECONDS));
+        assertEquals("ok", follower.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * 首个请求执行过久时，等待的请求超时后自行执行
+     */
+    @Test
+    public void followerRunsItselfAfterTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Future<Object> leader = submit(new Object[]{"1"}, null, 50, () -> {
+            executions.incrementAndGet();
+            release.await();
+            return "leader";
+        });
+        while (executions.get() == 0) Thread.sleep(1);
+        try {
+            Object result = collapser.execute(METHOD, new Object[]{"1"}, null, 50, () -> {
+                executions.incrementAndGet();
+                return "follower";
+            });
+            assertEquals("follower", result);
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        } finally {
+            release.countDown();
+        }
+        assertEquals("leader", leader.get(10, TimeUnit.SECONDS));
+        assertEquals(2, executions.get());
+        assertEquals(2, collapser.getExecutions());
+        assertEquals(1, collapser.getTimeouts());
+        assertEquals(0, collapser.getCollapsed());
+    }
+}
@@ -0,0 +1,221 @@
+package io.github.coffee330501.compression;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class InflatingInputStreamTest {
+    private static final byte[] TEXT = "{\"name\":\"internal-call\",\"values\":[1,2,3,4,5,6,7,8,9,10]}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void readsJdkGzip() throws IOException {
+        assertArrayEquals(TEXT, readAll(Compression.decompress(new ByteArrayInputStream(jdkGzip(TEXT)), "gzip")));
+    }
+
+    @Test
+    public void readsZlibDeflate() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(TEXT);
+        }
+        assertArrayEquals(TEXT, readAll(Compression.decompress(new ByteArrayInputStream(out.toByteArray()), "deflate")));
+    }
+
+    @Test
+    public void roundTripsWithDeflatingOutputStream() throws IOException {
+        byte[] data = randomText(200000);
+        for (String encoding : new String[]{"gzip", "deflate"}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (DeflatingOutputStream deflating = Compression.compress(out, encoding, Deflater.DEFAULT_COMPRESSION)) {
+                deflating.write(data);
+            }
+            assertArrayEquals(encoding, data, readAll(Compression.decompress(new ByteArrayInputStream(out.toByteArray()), encoding)));
+        }
+    }
+
+    /**
+     * FEXTRA、FNAME、FCOMMENT、FHCRC 均需跳过
+     */
+    @Test
+    public void skipsOptionalHeaderFields() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{0x1f, (byte) 0x8b, 8, 2 | 4 | 8 | 16, 0, 0, 0, 0, 0, (byte) 0xff});
+        out.write(new byte[]{3, 0, 'x', 'y', 'z'});
+        out.write("name.json\0".getBytes(StandardCharsets.ISO_8859_1));
+        out.write("comment\0".getBytes(StandardCharsets.ISO_8859_1));
+        out.write(new byte[]{0x12, 0x34});
+        out.write(rawDeflate(TEXT));
+        out.write(trailer(crc(TEXT), TEXT.length));
+        assertArrayEquals(TEXT, readAll(Compression.decompress(new ByteArrayInputStream(out.toByteArray()), "gzip")));
+    }
+
+    /**
+     * 尾部不在已读取的缓冲区内时从输入流继续读取
+     */
+    @Test
+    public void readsTrailerAcrossReads() throws IOException {
+        byte[] gzip = jdkGzip(TEXT);
+        InputStream trickle = new FilterInputStream(new ByteArrayInputStream(gzip)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        assertArrayEquals(TEXT, readAll(Compression.decompress(trickle, "gzip")));
+    }
+
+    @Test
+    public void rejectsNonGzipMagic() throws IOException {
+        byte[] gzip = jdkGzip(TEXT);
+        gzip[1] = 0x00;
+        try {
+            Compression.decompress(new ByteArrayInputStream(gzip), "gzip");
+            fail();
+        } catch (ZipException e) {
+            assertEquals("Not in GZIP format", e.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectsUnsupportedMethod() throws IOException {
+        byte[] gzip = jdkGzip(TEXT);
+        gzip[2] = 7;
+        try {
+            Compression.decompress(new ByteArrayInputStream(gzip), "gzip");
+            fail();
+        } catch (ZipException e) {
+            assertEquals("Unsupported compression method", e.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectsCrcMismatch() throws IOException {
+        byte[] gzip = jdkGzip(TEXT);
+        gzip[gzip.length - 8] ^= 1;
+        assertCorruptTrailer(gzip);
+    }
+
+    @Test
+    public void rejectsSizeMismatch() throws IOException {
+        byte[] gzip = jdkGzip(TEXT);
+        gzip[gzip.length - 4] ^= 1;
+        assertCorruptTrailer(gzip);
+    }
+
+    @Test
+    public void rejectsTruncatedTrailer() throws IOException {
+        byte[] gzip = jdkGzip(TEXT);
+        byte[] truncated = new byte[gzip.length - 3];
+        System.arraycopy(gzip, 0, truncated, 0, truncated.length);
+        try {
+            readAll(Compression.decompress(new ByteArrayInputStream(truncated), "gzip"));
+            fail();
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedHeader() throws IOException {
+        try {
+            Compression.decompress(new ByteArrayInputStream(new byte[]{0x1f, (byte) 0x8b, 8}), "gzip");
+            fail();
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void returnsEndOfStreamAfterFinishing() throws IOException {
+        InputStream in = Compression.decompress(new ByteArrayInputStream(jdkGzip(TEXT)), "gzip");
+        readAll(in);
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(new byte[8], 0, 8));
+        in.close();
+    }
+
+    @Test
+    public void readAfterCloseReturnsEndOfStream() throws IOException {
+        InputStream in = Compression.decompress(new ByteArrayInputStream(jdkGzip(TEXT)), "gzip");
+        in.close();
+        assertEquals(-1, in.read());
+    }
+
+    private static void assertCorruptTrailer(byte[] gzip) throws IOException {
+        try {
+            readAll(Compression.decompress(new ByteArrayInputStream(gzip), "gzip"));
+            fail();
+        } catch (ZipException e) {
+            assertEquals("Corrupt GZIP trailer", e.getMessage());
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int n;
+        while ((n = in.read(buffer, 0, buffer.length)) >= 0) out.write(buffer, 0, n);
+        return out.toByteArray();
+    }
+
+    private static byte[] jdkGzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] rawDeflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static long crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    private static byte[] trailer(long crc, long size) {
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (crc >>> (8 * i));
+            trailer[i + 4] = (byte) (size >>> (8 * i));
+        }
+        return trailer;
+    }
+
+    private static byte[] randomText(int length) {
+        Random random = new Random(1);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) data[i] = (byte) ('a' + random.nextInt(8));
+        return data;
+    }
+}
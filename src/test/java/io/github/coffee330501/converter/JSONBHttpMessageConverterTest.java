@@ -0,0 +1,78 @@
+package io.github.coffee330501.converter;
+
+import com.alibaba.fastjson2.JSONB;
+import io.github.coffee330501.SignatureResult;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JSONBHttpMessageConverterTest {
+    private final JSONBHttpMessageConverter converter = new JSONBHttpMessageConverter();
+
+    @After
+    public void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static void accept(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (accept != null) request.addHeader("Accept", accept);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @Test
+    public void onlyJsonbBodyIsRead() {
+        assertTrue(converter.canRead(SignatureResult.class, JSONBHttpMessageConverter.APPLICATION_JSONB));
+        assertFalse(converter.canRead(SignatureResult.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(SignatureResult.class, null));
+        assertFalse(converter.canRead(String.class, JSONBHttpMessageConverter.APPLICATION_JSONB));
+        assertFalse(converter.canRead(byte[].class, JSONBHttpMessageConverter.APPLICATION_JSONB));
+    }
+
+    /**
+     * 只在Accept明确包含application/x-jsonb时参与输出
+     */
+    @Test
+    public void jsonbIsWrittenOnlyWhenAccepted() {
+        assertFalse(converter.canWrite(SignatureResult.class, null));
+        accept(null);
+        assertFalse(converter.canWrite(SignatureResult.class, null));
+        accept("*/*");
+        assertFalse(converter.canWrite(SignatureResult.class, null));
+        accept("application/x-jsonb, application/json");
+        assertTrue(converter.canWrite(SignatureResult.class, null));
+        assertTrue(converter.canWrite(SignatureResult.class, JSONBHttpMessageConverter.APPLICATION_JSONB));
+        assertFalse(converter.canWrite(SignatureResult.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void bodyRoundTrips() throws Exception {
+        SignatureResult<String> result = new SignatureResult<>();
+        result.setCode(200);
+        result.setData("value");
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(result, JSONBHttpMessageConverter.APPLICATION_JSONB, output);
+        assertEquals(JSONBHttpMessageConverter.APPLICATION_JSONB, output.getHeaders().getContentType());
+        assertArrayEquals(JSONB.toBytes(result), output.getBodyAsBytes());
+
+        SignatureResult<?> read = (SignatureResult<?>) converter.read(SignatureResult.class, new MockHttpInputMessage(output.getBodyAsBytes()));
+        assertEquals(Integer.valueOf(200), read.getCode());
+        assertEquals("value", read.getData());
+    }
+
+    @Test(expected = HttpMessageNotReadableException.class)
+    public void malformedBodyIsNotReadable() throws Exception {
+        converter.read(SignatureResult.class, new MockHttpInputMessage(new byte[]{(byte) 0x90, 1, 2}));
+    }
+}
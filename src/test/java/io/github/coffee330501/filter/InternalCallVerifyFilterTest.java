@@ -0,0 +1,229 @@
+package io.github.coffee330501.filter;
+
+import com.alibaba.fastjson2.JSON;
+import io.github.coffee330501.SignatureResult;
+import io.github.coffee330501.annotation.InternalController;
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.exception.InternalCallException;
+import io.github.coffee330501.handler.InternalHandlerRegistry;
+import io.github.coffee330501.metrics.EndpointMetrics;
+import io.github.coffee330501.metrics.InternalCallMetrics;
+import io.github.coffee330501.metrics.Outcome;
+import io.github.coffee330501.service.InternalCallLogDispatcher;
+import io.github.coffee330501.signature.InternalCallVerifier;
+import io.github.coffee330501.utils.SignatureUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.stereotype.Controller;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InternalCallVerifyFilterTest {
+    private StaticApplicationContext context;
+    private StubVerifier verifier;
+    private InternalCallMetrics metrics;
+    private InternalCallVerifyFilter filter;
+
+    @Before
+    public void setUp() {
+        context = new StaticApplicationContext();
+        context.registerSingleton("testInternalController", TestInternalController.class);
+        context.registerSingleton("testController", TestController.class);
+        context.refresh();
+        InternalHandlerRegistry registry = new InternalHandlerRegistry();
+        registry.setApplicationContext(context);
+        registry.afterSingletonsInstantiated();
+
+        metrics = new InternalCallMetrics();
+        ReflectionTestUtils.setField(metrics, "internalCallConfig", new InternalCallConfig());
+        metrics.init();
+
+        verifier = new StubVerifier();
+        filter = new InternalCallVerifyFilter();
+        filter.internalCallVerifier = verifier;
+        filter.internalHandlerRegistry = registry;
+        filter.internalCallMetrics = metrics;
+        filter.internalCallLogDispatcher = new InternalCallLogDispatcher();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    private static EndpointMetrics endpoint(InternalCallMetrics metrics) throws NoSuchMethodException {
+        Method method = TestInternalController.class.getMethod("echo", String.class);
+        return metrics.server(method);
+    }
+
+    private static SignatureResult<?> result(MockHttpServletResponse response) {
+        return JSON.parseObject(response.getContentAsByteArray(), SignatureResult.class);
+    }
+
+    @Test
+    public void verifiedRequestIsMarkedAndPassedOn() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/test/echo");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertEquals(1, verifier.calls);
+        assertNotNull(chain.getRequest());
+        assertTrue(SignatureUtil.isVerified(request));
+    }
+
+    @Test
+    public void pathIsNormalized() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/test//echo/");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(1, verifier.calls);
+    }
+
+    @Test
+    public void clientErrorIsRejectedBeforeChain() throws Exception {
+        verifier.failure = new InternalCallException(400, InternalCallVerifier.VERIFICATION_FAILED);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/test/echo");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertFalse(SignatureUtil.isVerified(request));
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        SignatureResult<?> result = result(response);
+        assertEquals(Integer.valueOf(400), result.getCode());
+        assertEquals(InternalCallVerifier.VERIFICATION_FAILED, result.getMsg());
+        assertEquals(1, endpoint(metrics).getCount(Outcome.CLIENT_ERROR));
+    }
+
+    @Test
+    public void unknownClientErrorMessageIsSerialized() throws Exception {
+        verifier.failure = new InternalCallException(400, "Unknown key id: k9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/test/echo"), response, new MockFilterChain());
+        assertEquals("Unknown key id: k9", result(response).getMsg());
+    }
+
+    /**
+     * 防重放存储等异常时返回501，不暴露异常信息
+     */
+    @Test
+    public void systemErrorIsMappedTo501() throws Exception {
+        verifier.failure = new IllegalStateException("redis down");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/test/echo"), response, chain);
+
+        assertNull(chain.getRequest());
+        SignatureResult<?> result = result(response);
+        assertEquals(Integer.valueOf(501), result.getCode());
+        assertEquals(InternalCallVerifyFilter.VERIFICATION_ERROR, result.getMsg());
+        assertEquals(1, endpoint(metrics).getCount(Outcome.SYSTEM_ERROR));
+    }
+
+    @Test
+    public void nonInternalPathIsPassedOnWithoutVerification() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/plain");
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertEquals(0, verifier.calls);
+        assertNotNull(chain.getRequest());
+        assertFalse(SignatureUtil.isVerified(request));
+    }
+
+    /**
+     * 请求方法不匹配时交给Spring MVC处理
+     */
+    @Test
+    public void otherHttpMethodIsNotVerified() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/test/echo"), new MockHttpServletResponse(), chain);
+        assertEquals(0, verifier.calls);
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void mappingWithoutMethodMatchesAnyMethod() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/test/any"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("PUT", "/test/any"), new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(2, verifier.calls);
+    }
+
+    /**
+     * 同一路径同时映射到普通接口时无法按路径确定，交给InternalCallAspect校验
+     */
+    @Test
+    public void pathSharedWithPlainHandlerIsNotVerified() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/test/shared"), new MockHttpServletResponse(), chain);
+        assertEquals(0, verifier.calls);
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    public void alreadyVerifiedRequestIsNotVerifiedAgain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/test/echo");
+        SignatureUtil.markVerified(request);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(0, verifier.calls);
+    }
+
+    private static class StubVerifier extends InternalCallVerifier {
+        int calls;
+        RuntimeException failure;
+
+        @Override
+        public void verify(HttpServletRequest request, EndpointMetrics metrics) throws InternalCallException {
+            calls++;
+            if (failure != null) throw failure;
+        }
+    }
+
+    @InternalController
+    @RequestMapping("/test")
+    public static class TestInternalController {
+        @PostMapping("/echo")
+        public String echo(String value) {
+            return value;
+        }
+
+        @RequestMapping("/any")
+        public String any() {
+            return "any";
+        }
+
+        @PostMapping("/shared")
+        public String shared() {
+            return "internal";
+        }
+    }
+
+    @Controller
+    public static class TestController {
+        @GetMapping("/plain")
+        public String plain() {
+            return "plain";
+        }
+
+        @PostMapping("/test/shared")
+        public String shared() {
+            return "plain";
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.coffee330501.limit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 采样窗口为0，每累计10个样本结束一个窗口；平滑系数为1时新上限即为梯度计算结果
+ */
+public class AdaptiveLimiterTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 同时占用concurrency个名额后全部以相同耗时归还，窗口内最大并发即为concurrency
+     */
+    private static void window(AdaptiveLimiter limiter, int concurrency, long rtt) {
+        for (int i = 0; i < concurrency; i++) assertTrue(limiter.tryAcquire());
+        for (int i = 0; i < concurrency; i++) limiter.release(rtt);
+    }
+
+    @Test
+    public void tryAcquireStopsAtLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(3, 1, 10, 1.5, 1.0, 1000);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(3, limiter.getInflight());
+        limiter.cancel();
+        assertTrue(limiter.tryAcquire());
+        limiter.release(MS);
+        assertEquals(2, limiter.getInflight());
+    }
+
+    @Test
+    public void initialLimitIsClamped() {
+        assertEquals(5, new AdaptiveLimiter(1, 5, 10, 1.5, 0.2, 1000).getLimit());
+        assertEquals(10, new AdaptiveLimiter(100, 5, 10, 1.5, 0.2, 1000).getLimit());
+    }
+
+    @Test
+    public void firstWindowOnlySetsBaseline() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 1.0, 0);
+        window(limiter, 10, MS);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void fewerThanMinimumSamplesDoNotCloseWindow() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 1.0, 0);
+        window(limiter, 10, MS);
+        window(limiter, 9, 100 * MS);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    /**
+     * 耗时平稳时梯度为1，上限增加sqrt(上限)：20 + sqrt(20) = 24.47
+     */
+    @Test
+    public void steadyLatencyGrowsBySquareRoot() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 1.0, 0);
+        window(limiter, 10, MS);
+        window(limiter, 10, MS);
+        assertEquals(24, limiter.getLimit());
+        // 24.47 + sqrt(24.47) = 29.42
+        window(limiter, 13, MS);
+        assertEquals(29, limiter.getLimit());
+    }
+
+    /**
+     * 近期耗时升至4倍，梯度 1.5 * 1.01 / 4 低于下限，取0.5：20 * 0.5 + sqrt(20) = 14.47
+     */
+    @Test
+    public void risingLatencyShrinksLimitByGradient() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 1.0, 0);
+        window(limiter, 10, MS);
+        window(limiter, 10, 4 * MS);
+        assertEquals(14, limiter.getLimit());
+    }
+
+    /**
+     * 近期耗时升至2倍，梯度 1.5 * (1 + 2 / 601) / 2 = 0.7525：20 * 0.7525 + sqrt(20) = 19.52
+     */
+    @Test
+    public void moderateLatencyIncreaseUsesProportionalGradient() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 1.0, 0);
+        window(limiter, 10, MS);
+        window(limiter, 10, 2 * MS);
+        double longRtt = 1 + (2 - 1) * 2.0 / 601;
+        double expected = 20 * (1.5 * longRtt / 2) + Math.sqrt(20);
+        assertEquals((int) expected, limiter.getLimit());
+        assertEquals(19, limiter.getLimit());
+    }
+
+    /**
+     * 平滑系数0.5：20 * 0.5 + 14.47 * 0.5 = 17.24
+     */
+    @Test
+    public void smoothingBlendsOldAndNewLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 0.5, 0);
+        window(limiter, 10, MS);
+        window(limiter, 10, 4 * MS);
+        assertEquals(17, limiter.getLimit());
+    }
+
+    @Test
+    public void lowUtilizationDoesNotChangeLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 1.0, 0);
+        window(limiter, 10, MS);
+        // 逐个调用，窗口内最大并发为1，低于上限一半
+        for (int i = 0; i < 10; i++) window(limiter, 1, 4 * MS);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void limitStaysWithinBounds() {
+        AdaptiveLimiter shrinking = new AdaptiveLimiter(20, 16, 200, 1.5, 1.0, 0);
+        window(shrinking, 10, MS);
+        window(shrinking, 10, 10 * MS);
+        assertEquals(16, shrinking.getLimit());
+
+        AdaptiveLimiter growing = new AdaptiveLimiter(20, 1, 22, 1.5, 1.0, 0);
+        window(growing, 10, MS);
+        window(growing, 10, MS);
+        assertEquals(22, growing.getLimit());
+    }
+
+    @Test
+    public void windowNotClosedBeforeWindowDuration() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(20, 1, 200, 1.5, 1.0, 60000);
+        window(limiter, 10, MS);
+        window(limiter, 10, 10 * MS);
+        assertEquals(20, limiter.getLimit());
+    }
+}
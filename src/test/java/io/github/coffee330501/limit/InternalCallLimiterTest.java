@@ -0,0 +1,65 @@
+package io.github.coffee330501.limit;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InternalCallLimiterTest {
+    private static InternalCallLimiter limiter(int initialLimit, int globalLimit) {
+        InternalCallConfig config = new InternalCallConfig();
+        config.getLimit().setEnabled(true);
+        config.getLimit().setMinLimit(1);
+        config.getLimit().setInitialLimit(initialLimit);
+        config.getLimit().setGlobalInitialLimit(globalLimit);
+        config.getLimit().setGlobalMaxLimit(globalLimit);
+        InternalCallLimiter limiter = new InternalCallLimiter();
+        limiter.internalCallConfig = config;
+        limiter.init();
+        return limiter;
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return InternalCallLimiterTest.class.getDeclaredMethod(name, String.class);
+    }
+
+    @Test
+    public void registerReturnsSameLimiterPerMethod() throws Exception {
+        InternalCallLimiter limiter = limiter(2, 10);
+        AdaptiveLimiter first = limiter.register(method("limiter"));
+        assertSame(first, limiter.register(method("limiter")));
+        assertEquals(Integer.valueOf(2), limiter.getLimits().get(InternalCallLimiterTest.class.getName() + ".limiter"));
+    }
+
+    @Test
+    public void methodLimitIsApplied() throws Exception {
+        InternalCallLimiter limiter = limiter(2, 10);
+        AdaptiveLimiter methodLimiter = limiter.register(method("limiter"));
+        assertTrue(limiter.acquire(methodLimiter));
+        assertTrue(limiter.acquire(methodLimiter));
+        assertFalse(limiter.acquire(methodLimiter));
+        limiter.release(methodLimiter, 1000);
+        assertTrue(limiter.acquire(methodLimiter));
+    }
+
+    /**
+     * 服务达到上限时归还已占用的方法名额
+     */
+    @Test
+    public void globalLimitCancelsMethodSlot() throws Exception {
+        InternalCallLimiter limiter = limiter(2, 1);
+        AdaptiveLimiter methodLimiter = limiter.register(method("limiter"));
+        assertTrue(limiter.acquire(null));
+        assertFalse(limiter.acquire(methodLimiter));
+        assertEquals(0, methodLimiter.getInflight());
+    }
+
+    @SuppressWarnings("unused")
+    private static void limiter(String value) {
+    }
+}
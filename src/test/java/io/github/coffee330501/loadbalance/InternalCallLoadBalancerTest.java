@@ -0,0 +1,153 @@
+package io.github.coffee330501.loadbalance;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InternalCallLoadBalancerTest {
+    private static final String URL = "http://order/order/1?type=1";
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static InternalCallLoadBalancer loadBalancer(double maxEjectionPercent, String... origins) {
+        InternalCallConfig config = new InternalCallConfig();
+        config.getLoadBalancer().getServices().put("order", Arrays.asList(origins));
+        config.getLoadBalancer().setConsecutiveFailures(2);
+        config.getLoadBalancer().setMaxEjectionPercent(maxEjectionPercent);
+        InternalCallLoadBalancer loadBalancer = new InternalCallLoadBalancer();
+        loadBalancer.internalCallConfig = config;
+        loadBalancer.init();
+        return loadBalancer;
+    }
+
+    private static ServiceInstance instance(InternalCallLoadBalancer loadBalancer, int index) {
+        return loadBalancer.getServices().get("order").get(index);
+    }
+
+    private static void call(InternalCallLoadBalancer loadBalancer, ServiceInstance instance, long nanos, boolean failure) {
+        loadBalancer.start(instance);
+        loadBalancer.complete(URL, instance, nanos, failure);
+    }
+
+    @Test
+    public void singleInstanceRewritesUrl() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080/");
+        assertNull(loadBalancer.choose("http://user/user/1"));
+        ServiceInstance instance = loadBalancer.choose(URL);
+        assertEquals("http://10.0.0.1:8080", instance.getOrigin());
+        assertEquals("http://10.0.0.1:8080/order/1?type=1", instance.rewrite(URL));
+        assertEquals("http://10.0.0.1:8080", instance.rewrite("http://order"));
+    }
+
+    @Test
+    public void lowerLatencyInstanceIsChosen() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        ServiceInstance fast = instance(loadBalancer, 0);
+        call(loadBalancer, fast, MS, false);
+        call(loadBalancer, instance(loadBalancer, 1), 10 * MS, false);
+        for (int i = 0; i < 20; i++) assertSame(fast, loadBalancer.choose(URL));
+    }
+
+    @Test
+    public void fewerOutstandingRequestsOutweighLowerLatency() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        ServiceInstance fast = instance(loadBalancer, 0);
+        ServiceInstance slow = instance(loadBalancer, 1);
+        call(loadBalancer, fast, MS, false);
+        call(loadBalancer, slow, 2 * MS, false);
+        for (int i = 0; i < 3; i++) loadBalancer.start(fast);
+        for (int i = 0; i < 20; i++) assertSame(slow, loadBalancer.choose(URL));
+    }
+
+    /**
+     * 新实例按另一实例的耗时计算，进行中请求较多时不再被选中
+     */
+    @Test
+    public void instanceWithoutSamplesDoesNotTakeWholeBurst() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        ServiceInstance warm = instance(loadBalancer, 0);
+        ServiceInstance cold = instance(loadBalancer, 1);
+        call(loadBalancer, warm, MS, false);
+        loadBalancer.start(warm);
+        for (int i = 0; i < 20; i++) assertSame(cold, loadBalancer.choose(URL));
+
+        loadBalancer.cancel(warm);
+        loadBalancer.start(cold);
+        loadBalancer.start(cold);
+        for (int i = 0; i < 20; i++) assertSame(warm, loadBalancer.choose(URL));
+    }
+
+    @Test
+    public void instancesWithoutSamplesAreComparedByOutstanding() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        ServiceInstance busy = instance(loadBalancer, 0);
+        loadBalancer.start(busy);
+        for (int i = 0; i < 20; i++) assertSame(instance(loadBalancer, 1), loadBalancer.choose(URL));
+    }
+
+    @Test
+    public void consecutiveFailuresEjectInstance() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        ServiceInstance failing = instance(loadBalancer, 0);
+        ServiceInstance healthy = instance(loadBalancer, 1);
+        call(loadBalancer, failing, MS, true);
+        assertFalse(failing.isEjected(System.currentTimeMillis()));
+        call(loadBalancer, failing, MS, true);
+        assertTrue(failing.isEjected(System.currentTimeMillis()));
+
+        for (int i = 0; i < 20; i++) assertSame(healthy, loadBalancer.choose(URL));
+        assertNull(loadBalancer.chooseOther(URL, healthy));
+    }
+
+    @Test
+    public void successResetsConsecutiveFailures() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        ServiceInstance instance = instance(loadBalancer, 0);
+        call(loadBalancer, instance, MS, true);
+        call(loadBalancer, instance, MS, false);
+        call(loadBalancer, instance, MS, true);
+        assertFalse(instance.isEjected(System.currentTimeMillis()));
+    }
+
+    /**
+     * 同时摘除的实例不超过max-ejection-percent
+     */
+    @Test
+    public void ejectionIsCappedByMaxEjectionPercent() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        for (int i = 0; i < 2; i++) {
+            call(loadBalancer, instance(loadBalancer, 0), MS, true);
+            call(loadBalancer, instance(loadBalancer, 1), MS, true);
+        }
+        long now = System.currentTimeMillis();
+        assertTrue(instance(loadBalancer, 0).isEjected(now) ^ instance(loadBalancer, 1).isEjected(now));
+    }
+
+    @Test
+    public void allEjectedStillChoosesAnInstance() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(1.0, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        for (int i = 0; i < 2; i++) {
+            call(loadBalancer, instance(loadBalancer, 0), MS, true);
+            call(loadBalancer, instance(loadBalancer, 1), MS, true);
+        }
+        long now = System.currentTimeMillis();
+        assertTrue(instance(loadBalancer, 0).isEjected(now) && instance(loadBalancer, 1).isEjected(now));
+        assertTrue(loadBalancer.getServices().get("order").contains(loadBalancer.choose(URL)));
+    }
+
+    @Test
+    public void chooseOtherExcludesInstance() {
+        InternalCallLoadBalancer loadBalancer = loadBalancer(0.5, "http://10.0.0.1:8080", "http://10.0.0.2:8080");
+        ServiceInstance first = instance(loadBalancer, 0);
+        for (int i = 0; i < 20; i++) assertNotSame(first, loadBalancer.chooseOther(URL, first));
+        assertNull(loadBalancer(0.5, "http://10.0.0.1:8080").chooseOther(URL, null));
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.coffee330501.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesHaveExactBuckets() {
+        for (long value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.upperBound((int) value));
+        }
+    }
+
+    @Test
+    public void bucketBoundariesAtPowersOfTwo() {
+        // 16~31 每个子桶宽度为2，32~63 为4
+        assertEquals(16, LatencyHistogram.indexOf(16));
+        assertEquals(16, LatencyHistogram.indexOf(17));
+        assertEquals(17, LatencyHistogram.indexOf(18));
+        assertEquals(23, LatencyHistogram.indexOf(31));
+        assertEquals(24, LatencyHistogram.indexOf(32));
+        assertEquals(24, LatencyHistogram.indexOf(35));
+        assertEquals(25, LatencyHistogram.indexOf(36));
+        assertEquals(17, LatencyHistogram.upperBound(16));
+        assertEquals(31, LatencyHistogram.upperBound(23));
+        assertEquals(35, LatencyHistogram.upperBound(24));
+    }
+
+    @Test
+    public void indexIsMonotonicAndUpperBoundWithinRelativeError() {
+        long previousIndex = -1;
+        for (long value = 0; value < 1 << 20; value += 7) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= previousIndex);
+            previousIndex = index;
+            long upper = LatencyHistogram.upperBound(index);
+            assertTrue(value + " <= " + upper, upper >= value);
+            assertTrue(value + " ~ " + upper, upper - value <= value / 8);
+        }
+    }
+
+    @Test
+    public void largestValueFitsInLastBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-1);
+        assertEquals(2, histogram.getCount());
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().getMax());
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void percentilesAndSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.99));
+        for (int i = 1; i <= 100; i++) histogram.record(i);
+        assertEquals(100, histogram.getCount());
+        long p50 = histogram.percentile(0.5);
+        assertTrue(p50 >= 50 && p50 <= 50 + 50 / 8);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(p99 >= 99 && p99 <= 100);
+        // 分位数不超过最大值
+        assertEquals(100, histogram.percentile(1.0));
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(50.5, snapshot.getMean(), 1e-9);
+        assertEquals(p50, snapshot.getP50());
+        assertEquals(p99, snapshot.getP99());
+    }
+
+    @Test
+    public void recordNanosConvertsToMicros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(3));
+        assertEquals(3000, histogram.snapshot().getMax());
+        assertEquals(3071, LatencyHistogram.upperBound(LatencyHistogram.indexOf(3000)));
+        assertEquals(3000, histogram.percentile(0.5));
+    }
+}
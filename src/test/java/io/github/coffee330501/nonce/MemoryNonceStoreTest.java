@@ -0,0 +1,73 @@
+package io.github.coffee330501.nonce;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryNonceStoreTest {
+
+    @Test
+    public void rejectsDuplicateWithinExpiry() {
+        MemoryNonceStore store = new MemoryNonceStore(4);
+        assertTrue(store.putIfAbsent("a", 10));
+        assertFalse(store.putIfAbsent("a", 10));
+        assertTrue(store.putIfAbsent("b", 10));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void acceptsAgainAfterExpiry() {
+        MemoryNonceStore store = new MemoryNonceStore(1);
+        // 过期时间为0时立即过期
+        assertTrue(store.putIfAbsent("a", 0));
+        assertTrue(store.putIfAbsent("a", 10));
+        assertFalse(store.putIfAbsent("a", 10));
+    }
+
+    @Test
+    public void expiredEntriesAreRemovedOnAccess() {
+        MemoryNonceStore store = new MemoryNonceStore(1);
+        for (int i = 0; i < 100; i++) assertTrue(store.putIfAbsent("expired-" + i, 0));
+        assertTrue(store.putIfAbsent("live", 10));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void concurrentDuplicatesAcceptedOnce() throws Exception {
+        MemoryNonceStore store = new MemoryNonceStore();
+        int threads = 8;
+        int ids = 2000;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ids; i++) {
+                        if (store.putIfAbsent("id-" + i, 10)) accepted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(ids, accepted.get());
+        assertEquals(ids, store.size());
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.coffee330501.nonce;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.utils.RedisUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RedisNonceStoreTest {
+    private final StubRedisUtil redisUtil = new StubRedisUtil();
+    private RedisNonceStore store;
+
+    @After
+    public void destroy() {
+        if (store != null) store.destroy();
+    }
+
+    private RedisNonceStore store(boolean batchEnabled, long batchWindow) {
+        InternalCallConfig config = new InternalCallConfig();
+        config.getRedisNonce().setBatchEnabled(batchEnabled);
+        config.getRedisNonce().setBatchWindow(batchWindow);
+        store = new RedisNonceStore();
+        store.redisUtil = redisUtil;
+        store.internalCallConfig = config;
+        store.init();
+        return store;
+    }
+
+    @Test
+    public void delegatesToSetNxWithoutBatching() {
+        RedisNonceStore store = store(false, 0);
+        assertTrue(store.putIfAbsent("a", 10));
+        assertFalse(store.putIfAbsent("dup-b", 10));
+        assertEquals(2, redisUtil.singleCalls.size());
+        assertTrue(redisUtil.batchSizes.isEmpty());
+    }
+
+    /**
+     * 并发的检查合并为管道批量发送，结果按key顺序分发回各请求线程
+     */
+    @Test
+    public void batchesConcurrentChecksAndDispatchesResultsInOrder() throws Exception {
+        RedisNonceStore store = store(true, TimeUnit.MILLISECONDS.toMicros(200));
+
+        int threads = 16;
+        Map<String, Boolean> results = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String key = (i % 2 == 0 ? "dup-" : "new-") + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    results.put(key, store.putIfAbsent(key, 10));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads, results.size());
+        for (Map.Entry<String, Boolean> entry : results.entrySet()) {
+            assertEquals(entry.getKey(), !entry.getKey().startsWith("dup"), entry.getValue());
+        }
+        int total = 0;
+        int largest = 0;
+        for (int size : redisUtil.batchSizes) {
+            total += size;
+            largest = Math.max(largest, size);
+        }
+        assertEquals(threads, total);
+        assertTrue("checks were not batched: " + redisUtil.batchSizes, largest > 1);
+        assertTrue(redisUtil.singleCalls.isEmpty());
+    }
+
+    @Test
+    public void batchFailureIsRethrownToCaller() {
+        IllegalStateException failure = new IllegalStateException("redis down");
+        redisUtil.failure = failure;
+        RedisNonceStore store = store(true, 0);
+        try {
+            store.putIfAbsent("a", 10);
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void fallsBackToSingleCommandAfterShutdown() {
+        RedisNonceStore store = store(true, 0);
+        store.destroy();
+        assertTrue(store.putIfAbsent("a", 10));
+        assertEquals(1, redisUtil.singleCalls.size());
+        assertTrue(redisUtil.batchSizes.isEmpty());
+    }
+
+    /**
+     * 以dup开头的key视为已存在
+     */
+    private static class StubRedisUtil extends RedisUtil {
+        final List<String> singleCalls = new CopyOnWriteArrayList<>();
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        volatile RuntimeException failure;
+
+        @Override
+        public boolean setNx(String key, int expireSeconds) {
+            singleCalls.add(key);
+            return !key.startsWith("dup");
+        }
+
+        @Override
+        public boolean[] setNx(List<String> keys, int expireSeconds) {
+            if (failure != null) throw failure;
+            batchSizes.add(keys.size());
+            boolean[] results = new boolean[keys.size()];
+            for (int i = 0; i < results.length; i++) results[i] = !keys.get(i).startsWith("dup");
+            return results;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.coffee330501.resilience;
+
+import io.github.coffee330501.resilience.CircuitBreaker.State;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    /**
+     * 窗口4次、至少4次调用后判断，失败率50%或慢调用率75%打开，慢调用阈值100毫秒，半开放行2次
+     */
+    private static CircuitBreaker breaker(long openDuration) {
+        return new CircuitBreaker(new ResiliencePolicy(false, 0, 0,
+                true, 0.5, 100, 0.75, 4, 4, openDuration, 2));
+    }
+
+    private static void call(CircuitBreaker breaker, boolean failure, long nanos) {
+        State acquired = breaker.acquire();
+        assertEquals(State.CLOSED, acquired);
+        breaker.onResult(acquired, failure, nanos);
+    }
+
+    @Test
+    public void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = breaker(60000);
+        for (int i = 0; i < 3; i++) call(breaker, true, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void opensAtFailureRateAndRejectsDuringOpenDuration() {
+        CircuitBreaker breaker = breaker(60000);
+        call(breaker, false, FAST);
+        call(breaker, false, FAST);
+        call(breaker, true, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+        call(breaker, true, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(State.OPEN, breaker.acquire());
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void slidingWindowForgetsOldFailures() {
+        CircuitBreaker breaker = breaker(60000);
+        call(breaker, true, FAST);
+        call(breaker, false, FAST);
+        call(breaker, false, FAST);
+        call(breaker, false, FAST);
+        // 最早的失败移出窗口后再失败一次，失败率仍为25%
+        call(breaker, false, FAST);
+        call(breaker, true, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+        call(breaker, true, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void opensAtSlowCallRate() {
+        CircuitBreaker breaker = breaker(60000);
+        call(breaker, false, FAST);
+        call(breaker, false, SLOW);
+        call(breaker, false, SLOW);
+        call(breaker, false, SLOW);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenLimitsTrialCallsAndClosesAfterSuccesses() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+
+        State first = breaker.acquire();
+        State second = breaker.acquire();
+        assertEquals(State.HALF_OPEN, first);
+        assertEquals(State.HALF_OPEN, second);
+        assertEquals(State.OPEN, breaker.acquire());
+
+        breaker.onResult(first, false, FAST);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onResult(second, false, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        // 关闭后重新统计，之前的失败不再计入
+        call(breaker, true, FAST);
+        call(breaker, false, FAST);
+        call(breaker, false, FAST);
+        call(breaker, false, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenFailureReopens() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+        State acquired = breaker.acquire();
+        assertEquals(State.HALF_OPEN, acquired);
+        breaker.onResult(acquired, true, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenSlowCallReopens() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+        State acquired = breaker.acquire();
+        breaker.onResult(acquired, false, SLOW);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void releaseReturnsHalfOpenPermit() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+        State first = breaker.acquire();
+        State second = breaker.acquire();
+        assertEquals(State.OPEN, breaker.acquire());
+        breaker.release(second);
+        State third = breaker.acquire();
+        assertEquals(State.HALF_OPEN, third);
+        breaker.onResult(first, false, FAST);
+        breaker.onResult(third, false, FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void lateClosedResultIsIgnoredWhileOpen() {
+        CircuitBreaker breaker = breaker(60000);
+        State late = breaker.acquire();
+        for (int i = 0; i < 4; i++) call(breaker, true, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+        breaker.onResult(late, false, FAST);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+}
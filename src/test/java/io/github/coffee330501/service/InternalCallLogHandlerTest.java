@@ -0,0 +1,64 @@
+package io.github.coffee330501.service;
+
+import io.github.coffee330501.config.LogConfig;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InternalCallLogHandlerTest {
+    private static final LogPolicy TRUNCATED = new LogPolicy(1.0, true, LogConfig.Payload.TRUNCATED, 0);
+
+    /**
+     * 快照后调用方修改返回数据不影响日志
+     */
+    @Test
+    public void snapshotIsNotAffectedByLaterChanges() {
+        List<String> result = new ArrayList<>(Collections.singletonList("a"));
+        InternalCallLogHandler.LogBuilder logBuilder = InternalCallLogHandler.createLogBuilder().add("result", result);
+        logBuilder.snapshot();
+        result.add("b");
+        assertEquals(Collections.singletonList("a"), logBuilder.getMap().get("result"));
+
+        InternalCallLogHandler.LogBuilder truncated = InternalCallLogHandler.createLogBuilder(TRUNCATED).add("result", result);
+        truncated.snapshot();
+        result.clear();
+        assertEquals("[\"a\",\"b\"]", truncated.getMap().get("result"));
+    }
+
+    @Test
+    public void servletArgumentsAreReplacedByClassName() {
+        Object[] args = {"1", new MockHttpServletRequest()};
+        InternalCallLogHandler.LogBuilder logBuilder = InternalCallLogHandler.createLogBuilder(TRUNCATED).add("params", args);
+        logBuilder.snapshot();
+        String params = (String) logBuilder.getMap().get("params");
+        assertTrue(params.contains(MockHttpServletRequest.class.getName()));
+        assertFalse(params.contains("characterEncoding"));
+    }
+
+    @Test
+    public void addedNullValuesAreKept() {
+        Map<String, Object> map = InternalCallLogHandler.createLogBuilder()
+                .add("url", "/a").add("userId", null).add("result", null).add("extra", null).getMap();
+        assertEquals(4, map.size());
+        assertTrue(map.containsKey("userId"));
+        assertTrue(map.containsKey("result"));
+        assertTrue(map.containsKey("extra"));
+        assertFalse(map.containsKey("userTableName"));
+    }
+
+    @Test
+    public void payloadIsNotCapturedWhenOff() {
+        LogPolicy off = new LogPolicy(1.0, true, LogConfig.Payload.OFF, 0);
+        Map<String, Object> map = InternalCallLogHandler.createLogBuilder(off).add("result", "value").add("url", "/a").getMap();
+        assertFalse(map.containsKey("result"));
+        assertEquals("/a", map.get("url"));
+    }
+}
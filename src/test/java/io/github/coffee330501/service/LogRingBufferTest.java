@@ -0,0 +1,126 @@
+package io.github.coffee330501.service;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LogRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, new LogRingBuffer<Integer>(0).capacity());
+        assertEquals(2, new LogRingBuffer<Integer>(2).capacity());
+        assertEquals(8, new LogRingBuffer<Integer>(5).capacity());
+        assertEquals(1024, new LogRingBuffer<Integer>(1000).capacity());
+    }
+
+    @Test
+    public void offerAndPollInOrder() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+        assertNull(buffer.poll());
+        for (int i = 0; i < 4; i++) assertTrue(buffer.offer(i));
+        assertEquals(4, buffer.size());
+        for (int i = 0; i < 4; i++) assertEquals(Integer.valueOf(i), buffer.poll());
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void offerFailsWhenFullAndSucceedsAfterPoll() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(2);
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(2));
+        assertFalse(buffer.offer(3));
+        assertEquals(Integer.valueOf(1), buffer.poll());
+        assertTrue(buffer.offer(3));
+        assertEquals(Integer.valueOf(2), buffer.poll());
+        assertEquals(Integer.valueOf(3), buffer.poll());
+    }
+
+    @Test
+    public void wrapsAroundManyTimes() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(buffer.offer(i));
+            assertTrue(buffer.offer(i + 1));
+            assertEquals(Integer.valueOf(i), buffer.poll());
+            assertEquals(Integer.valueOf(i + 1), buffer.poll());
+        }
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void drainToRespectsMax() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) buffer.offer(i);
+        List<Integer> list = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(list, 3));
+        assertEquals(2, buffer.drainTo(list, 10));
+        assertEquals(0, buffer.drainTo(list, 10));
+        for (int i = 0; i < 5; i++) assertEquals(Integer.valueOf(i), list.get(i));
+    }
+
+    /**
+     * 多生产者多消费者并发读写，每个元素恰好被取出一次
+     */
+    @Test
+    public void concurrentProducersAndConsumersSeeEachElementOnce() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 50000;
+        int total = producers * perProducer;
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(64);
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicLong consumed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) Thread.yield();
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (consumed.get() < total) {
+                        Integer element = buffer.poll();
+                        if (element == null) {
+                            Thread.yield();
+                            continue;
+                        }
+                        seen.incrementAndGet(element);
+                        consumed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(total, consumed.get());
+        for (int i = 0; i < total; i++) assertEquals("element " + i, 1, seen.get(i));
+        assertNull(buffer.poll());
+    }
+}
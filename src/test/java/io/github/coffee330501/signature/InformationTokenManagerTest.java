@@ -0,0 +1,160 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.exception.InternalCallException;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InformationTokenManagerTest {
+    private static Map<String, String> keys;
+    private static Map<String, String> otherKeys;
+
+    @BeforeClass
+    public static void createKeys() {
+        RsaSignatureAlgorithm algorithm = new RsaSignatureAlgorithm();
+        keys = algorithm.createKeys();
+        otherKeys = algorithm.createKeys();
+    }
+
+    private static InformationTokenManager manager(String keyId, int ttl) {
+        InternalCallConfig config = new InternalCallConfig();
+        config.setPrivateKey(keys.get("privateKey"));
+        config.setPublicKey(keys.get("publicKey"));
+        config.setKeyId(keyId);
+        config.getPublicKeys().put("k1", keys.get("publicKey"));
+        config.getPublicKeys().put("k2", otherKeys.get("publicKey"));
+        config.getInformationToken().setTtl(ttl);
+        KeyRegistry keyRegistry = new KeyRegistry();
+        keyRegistry.internalCallConfig = config;
+        keyRegistry.init();
+        InformationTokenManager manager = new InformationTokenManager();
+        manager.internalCallConfig = config;
+        manager.keyRegistry = keyRegistry;
+        manager.init();
+        return manager;
+    }
+
+    private static Map<String, String> information(String... keyValues) {
+        Map<String, String> information = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) information.put(keyValues[i], keyValues[i + 1]);
+        return information;
+    }
+
+    private static void assertInvalid(InformationTokenManager manager, String token) {
+        try {
+            manager.verify(token);
+            fail("accepted " + token);
+        } catch (InternalCallException e) {
+            assertEquals(Integer.valueOf(400), e.getCode());
+            assertEquals(InformationTokenManager.INVALID_TOKEN, e.getMessage());
+        }
+    }
+
+    @Test
+    public void issuedTokenVerifies() {
+        InformationTokenManager manager = manager("k1", 300);
+        String token = manager.issue(information("userId", "1", "tenant", "t1"));
+        assertTrue(token.startsWith("k1."));
+        Map<String, String> verified = manager.verify(token);
+        assertEquals(information("userId", "1", "tenant", "t1"), verified);
+        // 再次验签直接返回缓存
+        assertSame(verified, manager.verify(token));
+        try {
+            verified.put("userId", "2");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void tokenWithoutKeyIdUsesDefaultPublicKey() {
+        InformationTokenManager manager = manager(null, 300);
+        String token = manager.issue(information("userId", "1"));
+        assertTrue(token.startsWith("."));
+        assertEquals(information("userId", "1"), manager.verify(token));
+    }
+
+    @Test
+    public void nullValuesAreDropped() {
+        InformationTokenManager manager = manager("k1", 300);
+        Map<String, String> information = information("userId", "1");
+        information.put("empty", null);
+        assertEquals(information("userId", "1"), manager.verify(manager.issue(information)));
+    }
+
+    @Test
+    public void issuedTokenIsReusedForSameInformation() {
+        InformationTokenManager manager = manager("k1", 300);
+        String token = manager.issue(information("userId", "1"));
+        assertSame(token, manager.issue(information("userId", "1")));
+        assertNotEquals(token, manager.issue(information("userId", "2")));
+    }
+
+    @Test
+    public void tamperedPayloadIsRejected() {
+        InformationTokenManager manager = manager("k1", 300);
+        String token = manager.issue(information("userId", "1"));
+        String[] parts = token.split("\\.");
+        String json = new String(Base64.decodeBase64(parts[1]), StandardCharsets.UTF_8).replace("\"1\"", "\"2\"");
+        String forged = parts[0] + "." + Base64.encodeBase64URLSafeString(json.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        assertInvalid(manager, forged);
+    }
+
+    @Test
+    public void tamperedSignatureIsRejected() {
+        InformationTokenManager manager = manager("k1", 300);
+        String token = manager.issue(information("userId", "1"));
+        char last = token.charAt(token.length() - 2);
+        assertInvalid(manager, token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1));
+    }
+
+    @Test
+    public void tokenSignedForAnotherKeyIdIsRejected() {
+        InformationTokenManager manager = manager("k1", 300);
+        String token = manager.issue(information("userId", "1"));
+        assertInvalid(manager, "k2" + token.substring(2));
+        assertInvalid(manager, "unknown" + token.substring(2));
+    }
+
+    @Test
+    public void malformedTokensAreRejected() {
+        InformationTokenManager manager = manager("k1", 300);
+        assertInvalid(manager, "");
+        assertInvalid(manager, "token");
+        assertInvalid(manager, "k1.payload");
+        assertInvalid(manager, "..");
+        assertInvalid(manager, "k1.payload.sign");
+    }
+
+    @Test
+    public void expiredTokenIsRejected() {
+        InformationTokenManager manager = manager("k1", 0);
+        String token = manager.issue(information("userId", "1"));
+        assertInvalid(manager, token);
+    }
+
+    /**
+     * 已验签缓存中的令牌过期后同样拒绝
+     */
+    @Test
+    public void cachedTokenExpires() throws InterruptedException {
+        InformationTokenManager manager = manager("k1", 1);
+        String token = manager.issue(information("userId", "1"));
+        assertEquals(information("userId", "1"), manager.verify(token));
+        Thread.sleep(1100);
+        assertInvalid(manager, token);
+        assertNotEquals(token, manager.issue(information("userId", "1")));
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.coffee330501.signature;
+
+import io.github.coffee330501.config.InternalCallConfig;
+import io.github.coffee330501.utils.HmacUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 握手由被调用方的SessionManager处理，会话密钥经RSA加密传递
+ */
+public class SessionClientTest {
+    private static final URI ORDER = URI.create("http://order:8080/order/1?type=1");
+    private static Map<String, String> keys;
+
+    @BeforeClass
+    public static void createKeys() {
+        keys = new RsaSignatureAlgorithm().createKeys();
+    }
+
+    private static InternalCallConfig config(int ttl, int renewBefore) {
+        InternalCallConfig config = new InternalCallConfig();
+        config.setPrivateKey(keys.get("privateKey"));
+        config.setPublicKey(keys.get("publicKey"));
+        config.getSession().setTtl(ttl);
+        config.getSession().setRenewBefore(renewBefore);
+        return config;
+    }
+
+    private static KeyRegistry keyRegistry(InternalCallConfig config) {
+        KeyRegistry keyRegistry = new KeyRegistry();
+        keyRegistry.internalCallConfig = config;
+        keyRegistry.init();
+        return keyRegistry;
+    }
+
+    /**
+     * 记录握手地址，failing为true时握手失败
+     */
+    private static class Handshake implements Function<String, SessionTicket> {
+        final SessionManager sessionManager = new SessionManager();
+        final List<String> urls = new ArrayList<>();
+        boolean failing;
+
+        Handshake(InternalCallConfig config) {
+            sessionManager.internalCallConfig = config;
+            sessionManager.keyRegistry = keyRegistry(config);
+        }
+
+        @Override
+        public SessionTicket apply(String url) {
+            urls.add(url);
+            if (failing) throw new IllegalStateException("handshake failed");
+            return sessionManager.create(null);
+        }
+    }
+
+    private static SessionClient client(InternalCallConfig config, Handshake handshake) {
+        return new SessionClient(config.getSession(), keyRegistry(config), handshake);
+    }
+
+    @Test
+    public void sessionIsCreatedOncePerOrigin() {
+        InternalCallConfig config = config(600, 60);
+        Handshake handshake = new Handshake(config);
+        SessionClient client = client(config, handshake);
+
+        InternalCallSession session = client.get(ORDER);
+        assertNotNull(session);
+        assertSame(session, client.get(URI.create("http://order:8080/order/2")));
+        assertEquals(1, handshake.urls.size());
+        assertEquals("http://order:8080/internal-call/session", handshake.urls.get(0));
+
+        // 调用方解密得到的密钥与被调用方一致
+        String sign = HmacUtils.sign("content", session.getKey());
+        assertTrue(handshake.sessionManager.verify(session.getSessionId(), "content", sign));
+
+        assertNotSame(session, client.get(URI.create("http://order:8081/order/1")));
+        assertEquals(2, handshake.urls.size());
+    }
+
+    /**
+     * 临近过期时重新握手
+     */
+    @Test
+    public void sessionIsRenewedBeforeExpiry() {
+        InternalCallConfig config = config(600, 600);
+        Handshake handshake = new Handshake(config);
+        SessionClient client = client(config, handshake);
+
+        InternalCallSession session = client.get(ORDER);
+        InternalCallSession renewed = client.get(ORDER);
+        assertNotSame(session, renewed);
+        assertEquals(2, handshake.urls.size());
+    }
+
+    /**
+     * 续期失败时继续使用未过期的旧会话，且暂停握手
+     */
+    @Test
+    public void failedRenewalKeepsCurrentSession() {
+        InternalCallConfig config = config(600, 600);
+        Handshake handshake = new Handshake(config);
+        SessionClient client = client(config, handshake);
+
+        InternalCallSession session = client.get(ORDER);
+        handshake.failing = true;
+        assertSame(session, client.get(ORDER));
+        assertSame(session, client.get(ORDER));
+        assertEquals(2, handshake.urls.size());
+    }
+
+    /**
+     * 无可用会话时退回RSA签名，暂停期间不再握手
+     */
+    @Test
+    public void failedHandshakeFallsBackToSignature() {
+        InternalCallConfig config = config(600, 60);
+        Handshake handshake = new Handshake(config);
+        handshake.failing = true;
+        SessionClient client = client(config, handshake);
+
+        assertNull(client.get(ORDER));
+        handshake.failing = false;
+        assertNull(client.get(ORDER));
+        assertEquals(1, handshake.urls.size());
+    }
+
+    @Test
+    public void expiredSessionIsNotUsedWhenRenewalFails() {
+        InternalCallConfig config = config(0, 0);
+        Handshake handshake = new Handshake(config);
+        SessionClient client = client(config, handshake);
+
+        assertNotNull(client.get(ORDER));
+        handshake.failing = true;
+        assertNull(client.get(ORDER));
+    }
+
+    @Test
+    public void invalidatedSessionIsRecreated() {
+        InternalCallConfig config = config(600, 60);
+        Handshake handshake = new Handshake(config);
+        SessionClient client = client(config, handshake);
+
+        InternalCallSession session = client.get(ORDER);
+        client.invalidate(ORDER);
+        assertNotSame(session, client.get(ORDER));
+        assertEquals(2, handshake.urls.size());
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.coffee330501.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PathPolicyResolverTest {
+    @Test
+    public void pathOfStripsSchemeHostAndQuery() {
+        assertEquals("/dict/list", PathPolicyResolver.pathOf("http://localhost:8080/dict/list?type=1"));
+        assertEquals("/", PathPolicyResolver.pathOf("http://localhost:8080"));
+        assertEquals("/dict/list", PathPolicyResolver.pathOf("/dict/list?type=1"));
+        assertEquals("/dict/list", PathPolicyResolver.pathOf("/dict/list"));
+    }
+
+    @Test
+    public void firstMatchingRuleWins() {
+        PathPolicyResolver<String> resolver = new PathPolicyResolver<>("default", 10);
+        resolver.add("/dict/list", "list");
+        resolver.add("/dict/**", "dict");
+        resolver.add(null, "ignored");
+        assertEquals("list", resolver.resolve("http://localhost/dict/list?type=1"));
+        assertEquals("dict", resolver.resolve("/dict/item"));
+        assertEquals("default", resolver.resolve("/user/1"));
+    }
+
+    @Test
+    public void addFirstTakesPrecedenceOverCachedResult() {
+        PathPolicyResolver<String> resolver = new PathPolicyResolver<>(null, 10);
+        assertNull(resolver.resolve("/dict/list"));
+        resolver.add("/dict/**", "dict");
+        assertEquals("dict", resolver.resolve("/dict/list"));
+        resolver.addFirst("/dict/list", "list");
+        assertEquals("list", resolver.resolve("/dict/list"));
+        assertNull(resolver.resolve("/user/1"));
+        assertNull(resolver.resolve("/user/1"));
+    }
+
+    /**
+     * 缓存的路径数达到上限后仍按规则匹配
+     */
+    @Test
+    public void pathsBeyondCacheLimitAreStillMatched() {
+        PathPolicyResolver<String> resolver = new PathPolicyResolver<>("default", 1);
+        resolver.add("/dict/**", "dict");
+        assertEquals("dict", resolver.resolve("/dict/1"));
+        assertEquals("dict", resolver.resolve("/dict/2"));
+        assertEquals("default", resolver.resolve("/user/1"));
+    }
+}